@@ -14,7 +14,9 @@
 -- TABLA: motorcycles
 CREATE TABLE motorcycles (
     id BIGSERIAL PRIMARY KEY,
-    code VARCHAR(255) UNIQUE NOT NULL,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    version BIGINT NOT NULL DEFAULT 0,
+    code VARCHAR(255) NOT NULL,
     name VARCHAR(255) NOT NULL,
     description TEXT,
     brand VARCHAR(255) NOT NULL,
@@ -28,15 +30,19 @@ CREATE TABLE motorcycles (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
+ALTER TABLE motorcycles ADD CONSTRAINT uk_motorcycles_tenant_code UNIQUE (tenant_id, code);
+CREATE INDEX idx_motorcycles_tenant ON motorcycles (tenant_id, id);
 
 -- TABLA: employees
 CREATE TABLE employees (
     id BIGSERIAL PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    version BIGINT NOT NULL DEFAULT 0,
     first_name VARCHAR(255) NOT NULL,
     last_name VARCHAR(255) NOT NULL,
-    email VARCHAR(255) UNIQUE NOT NULL,
+    email VARCHAR(255) NOT NULL,
     phone VARCHAR(255),
-    document_number VARCHAR(255) UNIQUE,
+    document_number VARCHAR(255),
     document_type VARCHAR(20) CHECK (document_type IN ('DNI', 'CEDULA', 'PASSPORT', 'DRIVER_LICENSE')),
     address TEXT,
     city VARCHAR(255),
@@ -52,15 +58,20 @@ CREATE TABLE employees (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
+ALTER TABLE employees ADD CONSTRAINT uk_employees_tenant_email UNIQUE (tenant_id, email);
+ALTER TABLE employees ADD CONSTRAINT uk_employees_tenant_document UNIQUE (tenant_id, document_number);
+CREATE INDEX idx_employees_tenant ON employees (tenant_id, id);
 
 -- TABLA: customers
 CREATE TABLE customers (
     id BIGSERIAL PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    version BIGINT NOT NULL DEFAULT 0,
     first_name VARCHAR(255) NOT NULL,
     last_name VARCHAR(255) NOT NULL,
-    email VARCHAR(255) UNIQUE NOT NULL,
+    email VARCHAR(255) NOT NULL,
     phone VARCHAR(255) NOT NULL,
-    document_number VARCHAR(255) UNIQUE,
+    document_number VARCHAR(255),
     document_type VARCHAR(20) CHECK (document_type IN ('DNI', 'CEDULA', 'PASSPORT', 'DRIVER_LICENSE')),
     address TEXT,
     city VARCHAR(255),
@@ -73,11 +84,33 @@ CREATE TABLE customers (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
+ALTER TABLE customers ADD CONSTRAINT uk_customers_tenant_email UNIQUE (tenant_id, email);
+ALTER TABLE customers ADD CONSTRAINT uk_customers_tenant_document UNIQUE (tenant_id, document_number);
+CREATE INDEX idx_customers_tenant ON customers (tenant_id, id);
+
+-- TABLA: employees_archive y customers_archive (empleados dados de baja y clientes inactivos, mismos ids)
+CREATE TABLE employees_archive (LIKE employees INCLUDING DEFAULTS INCLUDING CONSTRAINTS);
+ALTER TABLE employees_archive ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE employees_archive ADD PRIMARY KEY (id);
+ALTER TABLE employees_archive ADD COLUMN archived_at TIMESTAMP;
+CREATE INDEX idx_employees_archive_tenant ON employees_archive (tenant_id, id);
+CREATE INDEX idx_employees_archive_email ON employees_archive (tenant_id, email);
+CREATE INDEX idx_employees_archive_document ON employees_archive (tenant_id, document_number);
+
+CREATE TABLE customers_archive (LIKE customers INCLUDING DEFAULTS INCLUDING CONSTRAINTS);
+ALTER TABLE customers_archive ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE customers_archive ADD PRIMARY KEY (id);
+ALTER TABLE customers_archive ADD COLUMN archived_at TIMESTAMP;
+CREATE INDEX idx_customers_archive_tenant ON customers_archive (tenant_id, id);
+CREATE INDEX idx_customers_archive_email ON customers_archive (tenant_id, email);
+CREATE INDEX idx_customers_archive_document ON customers_archive (tenant_id, document_number);
 
 -- TABLA: sales
 CREATE TABLE sales (
     id BIGSERIAL PRIMARY KEY,
-    sale_number VARCHAR(255) UNIQUE NOT NULL,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    version BIGINT NOT NULL DEFAULT 0,
+    sale_number VARCHAR(255) NOT NULL,
     customer_id BIGINT NOT NULL,
     employee_id BIGINT NOT NULL,
     sale_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
@@ -85,16 +118,20 @@ CREATE TABLE sales (
     status VARCHAR(255) DEFAULT 'PENDING',
     payment_method VARCHAR(255) CHECK (payment_method IN ('CASH', 'CREDIT_CARD', 'DEBIT_CARD', 'BANK_TRANSFER', 'FINANCING')),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    
-    -- FOREIGN KEYS
-    CONSTRAINT fk_sales_customer FOREIGN KEY (customer_id) REFERENCES customers(id),
-    CONSTRAINT fk_sales_employee FOREIGN KEY (employee_id) REFERENCES employees(id)
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    -- customer_id y employee_id se validan con triggers (ver sección ARCHIVO): pueden estar en la tabla de archivo
 );
+ALTER TABLE sales ADD CONSTRAINT uk_sales_tenant_sale_number UNIQUE (tenant_id, sale_number);
+CREATE INDEX idx_sales_tenant ON sales (tenant_id, id);
+CREATE INDEX idx_sales_tenant_date ON sales (tenant_id, sale_date);
+CREATE INDEX idx_sales_customer ON sales (customer_id);
+CREATE INDEX idx_sales_employee ON sales (employee_id);
 
 -- TABLA: detail_sales
 CREATE TABLE detail_sales (
     id BIGSERIAL PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    version BIGINT NOT NULL DEFAULT 0,
     sale_id BIGINT NOT NULL,
     motorcycle_id BIGINT NOT NULL,
     quantity INTEGER NOT NULL,
@@ -109,6 +146,59 @@ CREATE TABLE detail_sales (
     CONSTRAINT fk_detail_sales_sale FOREIGN KEY (sale_id) REFERENCES sales(id) ON DELETE CASCADE,
     CONSTRAINT fk_detail_sales_motorcycle FOREIGN KEY (motorcycle_id) REFERENCES motorcycles(id)
 );
+CREATE INDEX idx_detail_sales_tenant ON detail_sales (tenant_id, sale_id);
+
+-- TABLA: inventory_movements (libro de inventario, solo inserciones)
+CREATE TABLE inventory_movements (
+    id BIGSERIAL PRIMARY KEY,
+    motorcycle_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL CHECK (type IN ('RECEIPT', 'SALE', 'RETURN', 'ADJUSTMENT')),
+    quantity INTEGER NOT NULL,
+    sale_id BIGINT,
+    note VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_inventory_movements_motorcycle ON inventory_movements (motorcycle_id, id);
+CREATE INDEX idx_inventory_movements_motorcycle_date ON inventory_movements (motorcycle_id, created_at);
+
+-- TABLA: stock_snapshots (stock compactado periódicamente a partir del libro)
+CREATE TABLE stock_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    motorcycle_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    last_movement_id BIGINT NOT NULL,
+    taken_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_stock_snapshots_motorcycle ON stock_snapshots (motorcycle_id, id);
+CREATE INDEX idx_stock_snapshots_last_movement ON stock_snapshots (last_movement_id);
+
+-- TABLA: document_jobs (facturas y reportes generados en segundo plano)
+CREATE TABLE document_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    tenant_id VARCHAR(64) NOT NULL DEFAULT 'default',
+    type VARCHAR(20) NOT NULL CHECK (type IN ('INVOICE', 'SALES_REPORT')),
+    format VARCHAR(10) NOT NULL CHECK (format IN ('PDF', 'CSV')),
+    sale_id BIGINT,
+    from_date DATE,
+    to_date DATE,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED')),
+    file_name VARCHAR(255),
+    storage_key VARCHAR(255),
+    file_size BIGINT,
+    error VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
+CREATE INDEX idx_document_jobs_tenant ON document_jobs (tenant_id, id);
+
+-- ===================================
+-- ARCHIVO: integridad de sales con clientes y empleados activos o archivados
+-- ===================================
+
+-- Los triggers que sustituyen a las claves foráneas de sales y los índices de
+-- la pasada de archivo los crea ArchiveSchemaMigration al arrancar, en la base
+-- compartida y en cada ruta de tenancy.routes.
 
 
 
@@ -2,7 +2,7 @@
 
 import { useEffect, useState } from "react";
 import { AlertCircle, CheckCircle, Wifi, WifiOff } from "lucide-react";
-import { motorcyclesApi } from "@/services/api";
+import { healthApi, openChangeStream } from "@/services/api";
 
 export default function ConnectionStatus() {
   const [isConnected, setIsConnected] = useState<boolean | null>(null);
@@ -12,7 +12,7 @@ export default function ConnectionStatus() {
   const checkConnection = async () => {
     setIsChecking(true);
     try {
-      await motorcyclesApi.getAll();
+      await healthApi.check();
       setIsConnected(true);
     } catch (error) {
       setIsConnected(false);
@@ -24,9 +24,12 @@ export default function ConnectionStatus() {
   useEffect(() => {
     setIsMounted(true);
     checkConnection();
-    // Verificar conexión cada 30 segundos
-    const interval = setInterval(checkConnection, 30000);
-    return () => clearInterval(interval);
+    // El stream SSE indica el estado de la conexión sin sondear el servidor
+    const source = openChangeStream({
+      onOpen: () => setIsConnected(true),
+      onError: () => setIsConnected(false),
+    });
+    return () => source.close();
   }, []);
 
   if (!isMounted || isConnected === null) {
@@ -1,7 +1,7 @@
 "use client";
 
 import { useState, useEffect } from "react";
-import { customersApi } from "@/services/api";
+import { customersApi, conflictField, isPreconditionFailed } from "@/services/api";
 import { Customer } from "@/types";
 import Modal from "./Modal";
 import Input from "./Input";
@@ -28,6 +28,11 @@ const statusOptions = [
   { value: "BLOCKED", label: "Bloqueado" },
 ];
 
+const duplicateMessages: Record<string, string> = {
+  email: "Ya existe un cliente con este email",
+  documentNumber: "Ya existe un cliente con este documento",
+};
+
 export default function CustomerForm({
   isOpen,
   onClose,
@@ -145,7 +150,7 @@ export default function CustomerForm({
       };
 
       if (customer) {
-        await customersApi.update(customer.id, dataToSend);
+        await customersApi.update(customer.id, dataToSend, customer.version);
       } else {
         await customersApi.create(dataToSend);
       }
@@ -153,12 +158,32 @@ export default function CustomerForm({
       onClose();
     } catch (error) {
       console.error("Error saving customer:", error);
+      if (isPreconditionFailed(error)) {
+        alert("El registro fue modificado por otro usuario; recarga para ver la versión actual");
+      }
+      const field = conflictField(error);
+      if (field && duplicateMessages[field]) {
+        setErrors((prev) => ({ ...prev, [field]: duplicateMessages[field] }));
+      }
       // Aquí podrías mostrar un mensaje de error al usuario
     } finally {
       setLoading(false);
     }
   };
 
+  // Aviso de duplicado al salir del campo; la comprobación definitiva la hace el backend al guardar
+  const checkTaken = async (field: "email" | "documentNumber", isTaken: (value: string) => Promise<boolean>) => {
+    const value = formData[field];
+    if (!value.trim() || value === (customer?.[field] || "")) return;
+    try {
+      if (await isTaken(value)) {
+        setErrors((prev) => ({ ...prev, [field]: duplicateMessages[field] }));
+      }
+    } catch (error) {
+      console.error("Error checking unique value:", error);
+    }
+  };
+
   const handleChange = (field: string, value: string) => {
     setFormData((prev) => ({ ...prev, [field]: value }));
     if (errors[field]) {
@@ -203,6 +228,7 @@ export default function CustomerForm({
               type="email"
               value={formData.email}
               onChange={(e) => handleChange("email", e.target.value)}
+              onBlur={() => checkTaken("email", customersApi.isEmailTaken)}
               error={errors.email}
               placeholder="Ej: juan@ejemplo.com"
               required
@@ -229,6 +255,7 @@ export default function CustomerForm({
               label="Número de Documento"
               value={formData.documentNumber}
               onChange={(e) => handleChange("documentNumber", e.target.value)}
+              onBlur={() => checkTaken("documentNumber", customersApi.isDocumentTaken)}
               error={errors.documentNumber}
               placeholder="Ej: 12345678"
             />
@@ -2,7 +2,7 @@
 
 import { useState, useEffect } from "react";
 import { Employee } from "@/types";
-import { employeesApi } from "@/services/api";
+import { employeesApi, conflictField, isPreconditionFailed } from "@/services/api";
 import Modal from "./Modal";
 import Input from "./Input";
 import Select from "./Select";
@@ -28,6 +28,11 @@ const statusOptions = [
   { value: "TERMINATED", label: "Terminado" },
 ];
 
+const duplicateMessages: Record<string, string> = {
+  email: "Ya existe un empleado con este email",
+  documentNumber: "Ya existe un empleado con este documento",
+};
+
 export default function EmployeeForm({
   isOpen,
   onClose,
@@ -278,7 +283,7 @@ export default function EmployeeForm({
 
       // Llamar a la API para crear o actualizar el empleado
       if (employee) {
-        await employeesApi.update(employee.id, dataToSend);
+        await employeesApi.update(employee.id, dataToSend, employee.version);
       } else {
         await employeesApi.create(dataToSend);
       }
@@ -287,11 +292,31 @@ export default function EmployeeForm({
       onClose();
     } catch (error) {
       console.error("Error saving employee:", error);
+      if (isPreconditionFailed(error)) {
+        alert("El registro fue modificado por otro usuario; recarga para ver la versión actual");
+      }
+      const field = conflictField(error);
+      if (field && duplicateMessages[field]) {
+        setErrors((prev) => ({ ...prev, [field]: duplicateMessages[field] }));
+      }
     } finally {
       setLoading(false);
     }
   };
 
+  // Aviso de duplicado al salir del campo; la comprobación definitiva la hace el backend al guardar
+  const checkTaken = async (field: "email" | "documentNumber", isTaken: (value: string) => Promise<boolean>) => {
+    const value = formData[field];
+    if (!value.trim() || value === (employee?.[field] || "")) return;
+    try {
+      if (await isTaken(value)) {
+        setErrors((prev) => ({ ...prev, [field]: duplicateMessages[field] }));
+      }
+    } catch (error) {
+      console.error("Error checking unique value:", error);
+    }
+  };
+
   const handleChange = (field: string, value: string) => {
     setFormData((prev) => ({ ...prev, [field]: value }));
     if (errors[field]) {
@@ -336,6 +361,7 @@ export default function EmployeeForm({
               type="email"
               value={formData.email}
               onChange={(e) => handleChange("email", e.target.value)}
+              onBlur={() => checkTaken("email", employeesApi.isEmailTaken)}
               error={errors.email}
               placeholder="Ej: juan@empresa.com"
               required
@@ -361,6 +387,7 @@ export default function EmployeeForm({
               label="Número de Documento"
               value={formData.documentNumber}
               onChange={(e) => handleChange("documentNumber", e.target.value)}
+              onBlur={() => checkTaken("documentNumber", employeesApi.isDocumentTaken)}
               error={errors.documentNumber}
               placeholder="Ej: 12345678"
             />
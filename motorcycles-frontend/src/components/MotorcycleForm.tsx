@@ -1,7 +1,7 @@
 "use client";
 
 import { useState, useEffect } from "react";
-import { motorcyclesApi } from "@/services/api";
+import { motorcyclesApi, conflictField, isPreconditionFailed } from "@/services/api";
 import { Motorcycle } from "@/types";
 import Modal from "./Modal";
 import Input from "./Input";
@@ -14,6 +14,10 @@ interface MotorcycleFormProps {
   motorcycle?: Motorcycle | null;
 }
 
+const duplicateMessages: Record<string, string> = {
+  code: "Ya existe una motocicleta con este código",
+};
+
 export default function MotorcycleForm({
   isOpen,
   onClose,
@@ -125,7 +129,7 @@ export default function MotorcycleForm({
       };
 
       if (motorcycle) {
-        await motorcyclesApi.update(motorcycle.id, dataToSend);
+        await motorcyclesApi.update(motorcycle.id, dataToSend, motorcycle.version);
       } else {
         await motorcyclesApi.create(dataToSend);
       }
@@ -133,12 +137,32 @@ export default function MotorcycleForm({
       onClose();
     } catch (error) {
       console.error("Error saving motorcycle:", error);
+      if (isPreconditionFailed(error)) {
+        alert("El registro fue modificado por otro usuario; recarga para ver la versión actual");
+      }
+      const field = conflictField(error);
+      if (field && duplicateMessages[field]) {
+        setErrors((prev) => ({ ...prev, [field]: duplicateMessages[field] }));
+      }
       // Aquí podrías mostrar un mensaje de error al usuario
     } finally {
       setLoading(false);
     }
   };
 
+  // Aviso de duplicado al salir del campo; la comprobación definitiva la hace el backend al guardar
+  const checkTaken = async (field: "code", isTaken: (value: string) => Promise<boolean>) => {
+    const value = formData[field];
+    if (!value.trim() || value === (motorcycle?.[field] || "")) return;
+    try {
+      if (await isTaken(value)) {
+        setErrors((prev) => ({ ...prev, [field]: duplicateMessages[field] }));
+      }
+    } catch (error) {
+      console.error("Error checking unique value:", error);
+    }
+  };
+
   const handleChange = (field: string, value: string) => {
     setFormData((prev) => ({ ...prev, [field]: value }));
     if (errors[field]) {
@@ -164,6 +188,7 @@ export default function MotorcycleForm({
               label="Código"
               value={formData.code}
               onChange={(e) => handleChange("code", e.target.value)}
+              onBlur={() => checkTaken("code", motorcyclesApi.isCodeTaken)}
               error={errors.code}
               placeholder="Ej: KAW001"
               required
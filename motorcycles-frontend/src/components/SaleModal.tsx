@@ -6,6 +6,7 @@ import {
   customersApi,
   employeesApi,
   motorcyclesApi,
+  isPreconditionFailed,
 } from "@/services/api";
 import { Sale, Customer, Employee, Motorcycle } from "@/types";
 import Modal from "./Modal";
@@ -263,7 +264,7 @@ export default function SaleModal({
       console.log("Detalles de venta:", saleDetails);
 
       if (sale) {
-        await salesApi.update(sale.id, saleData);
+        await salesApi.update(sale.id, saleData, sale.version);
       } else {
         await salesApi.create(saleData);
       }
@@ -271,6 +272,9 @@ export default function SaleModal({
       onClose();
     } catch (error) {
       console.error("Error saving sale:", error);
+      if (isPreconditionFailed(error)) {
+        alert("El registro fue modificado por otro usuario; recarga para ver la versión actual");
+      }
     } finally {
       setLoading(false);
     }
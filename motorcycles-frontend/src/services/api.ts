@@ -1,12 +1,16 @@
 import axios from "axios";
-import { Motorcycle, Customer, Sale, Employee, DetailSale, ApiResponse } from "@/types";
+import { Motorcycle, Customer, Sale, Employee, DetailSale, ApiResponse, ChangeEvent, InventoryMovement, StockHistory, DocumentJob } from "@/types";
 
 const API_BASE_URL = "http://localhost:8080/api";
 
+// Concesionario con el que trabaja este frontend
+const TENANT_ID = process.env.NEXT_PUBLIC_TENANT_ID || "default";
+
 const api = axios.create({
   baseURL: API_BASE_URL,
   headers: {
     "Content-Type": "application/json",
+    "X-Tenant-ID": TENANT_ID,
   },
   timeout: 10000, // 10 segundos de timeout
 });
@@ -23,18 +27,81 @@ api.interceptors.response.use(
   }
 );
 
+// Versión que se editó: el backend responde 412 con la actual si otro la modificó antes
+const ifMatch = (version?: number) =>
+  version != null ? { headers: { "If-Match": `"${version}"` } } : undefined;
+
+export const isPreconditionFailed = (error: unknown) =>
+  axios.isAxiosError(error) && error.response?.status === 412;
+
+// Claves únicas: HEAD responde 200 si el valor ya está en uso y 404 si está libre
+const isTaken = (path: string) =>
+  api
+    .head(path, { validateStatus: (status) => status === 200 || status === 404 })
+    .then((response) => response.status === 200);
+
+// Campo duplicado de un 409 ("... already exists with email: ...")
+export const conflictField = (error: unknown): string | null => {
+  if (!axios.isAxiosError(error) || error.response?.status !== 409) return null;
+  const match = /already exists with (\w+):/.exec(error.response.data?.error || "");
+  return match ? match[1] : null;
+};
+
+// Health API (no consulta la base de datos)
+export const healthApi = {
+  check: () => api.get<{ status: string; timestamp: string; lastEventId: string }>("/health"),
+};
+
+// Trabajos de documentos (facturas y reportes generados en segundo plano)
+export const jobsApi = {
+  create: (data: Pick<DocumentJob, "type" | "format" | "saleId" | "fromDate" | "toDate">) =>
+    api.post<DocumentJob>("/jobs", data),
+  getById: (id: number) => api.get<DocumentJob>(`/jobs/${id}`),
+  downloadUrl: (id: number) => `${API_BASE_URL}/jobs/${id}/download`,
+};
+
+// Stream de cambios (Server-Sent Events). EventSource reenvía Last-Event-ID al reconectar.
+// "resync" indica que el cliente se quedó atrás y debe recargar sus listados.
+export const openChangeStream = (handlers: {
+  onChange?: (event: ChangeEvent) => void;
+  onResync?: () => void;
+  onOpen?: () => void;
+  onError?: () => void;
+}) => {
+  const source = new EventSource(`${API_BASE_URL}/stream?tenant=${encodeURIComponent(TENANT_ID)}`);
+  source.addEventListener("change", (message) => {
+    handlers.onChange?.(JSON.parse((message as MessageEvent).data) as ChangeEvent);
+  });
+  source.addEventListener("resync", () => handlers.onResync?.());
+  source.onopen = () => handlers.onOpen?.();
+  source.onerror = () => handlers.onError?.();
+  return source;
+};
+
 // Motorcycles API
 export const motorcyclesApi = {
   getAll: () => api.get<Motorcycle[]>("/motorcycles"),
+  getByIds: (ids: number[]) =>
+    api.get<Motorcycle[]>("/motorcycles", { params: { ids: ids.join(",") } }),
   getById: (id: number) =>
     api.get<ApiResponse<Motorcycle>>(`/motorcycles/${id}`),
+  isCodeTaken: (code: string) => isTaken(`/motorcycles/by-code/${encodeURIComponent(code)}`),
   create: (data: Omit<Motorcycle, "id" | "created_at" | "updated_at">) =>
     api.post<ApiResponse<Motorcycle>>("/motorcycles", data),
   update: (
     id: number,
-    data: Partial<Omit<Motorcycle, "id" | "created_at" | "updated_at">>
-  ) => api.put<ApiResponse<Motorcycle>>(`/motorcycles/${id}`, data),
+    data: Partial<Omit<Motorcycle, "id" | "created_at" | "updated_at">>,
+    version?: number
+  ) => api.put<ApiResponse<Motorcycle>>(`/motorcycles/${id}`, data, ifMatch(version)),
   delete: (id: number) => api.delete<ApiResponse<null>>(`/motorcycles/${id}`),
+  getStock: (id: number, asOf?: string) =>
+    api.get<{ motorcycleId: number; asOf: string; stock: number }>(`/motorcycles/${id}/stock`, {
+      params: asOf ? { asOf } : undefined,
+    }),
+  getStockHistory: (id: number, from?: string, to?: string) =>
+    api.get<StockHistory>(`/motorcycles/${id}/stock-history`, { params: { from, to } }),
+  addStockMovement: (id: number, data: Pick<InventoryMovement, "type" | "quantity" | "note">) =>
+    api.post<InventoryMovement>(`/motorcycles/${id}/stock-movements`, data),
   checkDependencies: async (id: number): Promise<{canDelete: boolean, message: string, dependencies: string[]}> => {
     // Verificar si la motocicleta está en alguna venta
     try {
@@ -70,14 +137,21 @@ export const motorcyclesApi = {
 
 // Customers API
 export const customersApi = {
-  getAll: () => api.get<Customer[]>("/customers"),
+  getAll: (includeArchived = false) =>
+    api.get<Customer[]>("/customers", { params: includeArchived ? { includeArchived } : undefined }),
+  getByIds: (ids: number[]) =>
+    api.get<Customer[]>("/customers", { params: { ids: ids.join(",") } }),
   getById: (id: number) => api.get<ApiResponse<Customer>>(`/customers/${id}`),
+  isEmailTaken: (email: string) => isTaken(`/customers/by-email/${encodeURIComponent(email)}`),
+  isDocumentTaken: (documentNumber: string) =>
+    isTaken(`/customers/by-document/${encodeURIComponent(documentNumber)}`),
   create: (data: Omit<Customer, "id" | "created_at" | "updated_at">) =>
     api.post<ApiResponse<Customer>>("/customers", data),
   update: (
     id: number,
-    data: Partial<Omit<Customer, "id" | "created_at" | "updated_at">>
-  ) => api.put<ApiResponse<Customer>>(`/customers/${id}`, data),
+    data: Partial<Omit<Customer, "id" | "created_at" | "updated_at">>,
+    version?: number
+  ) => api.put<ApiResponse<Customer>>(`/customers/${id}`, data, ifMatch(version)),
   delete: (id: number) => api.delete<ApiResponse<null>>(`/customers/${id}`),
   checkDependencies: async (id: number): Promise<{canDelete: boolean, message: string, dependencies: string[]}> => {
     // Verificar si el cliente tiene ventas
@@ -112,14 +186,21 @@ export const customersApi = {
 
 // Employees API
 export const employeesApi = {
-  getAll: () => api.get<Employee[]>("/employees"),
+  getAll: (includeArchived = false) =>
+    api.get<Employee[]>("/employees", { params: includeArchived ? { includeArchived } : undefined }),
+  getByIds: (ids: number[]) =>
+    api.get<Employee[]>("/employees", { params: { ids: ids.join(",") } }),
   getById: (id: number) => api.get<ApiResponse<Employee>>(`/employees/${id}`),
+  isEmailTaken: (email: string) => isTaken(`/employees/by-email/${encodeURIComponent(email)}`),
+  isDocumentTaken: (documentNumber: string) =>
+    isTaken(`/employees/by-document/${encodeURIComponent(documentNumber)}`),
   create: (data: Omit<Employee, "id">) =>
     api.post<ApiResponse<Employee>>("/employees", data),
   update: (
     id: number,
-    data: Partial<Omit<Employee, "id">>
-  ) => api.put<ApiResponse<Employee>>(`/employees/${id}`, data),
+    data: Partial<Omit<Employee, "id">>,
+    version?: number
+  ) => api.put<ApiResponse<Employee>>(`/employees/${id}`, data, ifMatch(version)),
   delete: (id: number) => api.delete<ApiResponse<null>>(`/employees/${id}`),
   checkDependencies: async (id: number): Promise<{canDelete: boolean, message: string, dependencies: string[]}> => {
     // Verificar si el empleado tiene ventas
@@ -155,14 +236,17 @@ export const employeesApi = {
 // Sales API
 export const salesApi = {
   getAll: () => api.get<Sale[]>("/sales"),
+  getByIds: (ids: number[]) =>
+    api.get<Sale[]>("/sales", { params: { ids: ids.join(",") } }),
   getById: (id: number) => api.get<ApiResponse<Sale>>(`/sales/${id}`),
   getByIdWithDetails: (id: number) => api.get<Sale>(`/sales/${id}/details`),
   create: (data: Omit<Sale, "id" | "createdAt" | "updatedAt">) =>
     api.post<ApiResponse<Sale>>("/sales", data),
   update: (
     id: number,
-    data: Partial<Omit<Sale, "id" | "createdAt" | "updatedAt">>
-  ) => api.put<ApiResponse<Sale>>(`/sales/${id}`, data),
+    data: Partial<Omit<Sale, "id" | "createdAt" | "updatedAt">>,
+    version?: number
+  ) => api.put<ApiResponse<Sale>>(`/sales/${id}`, data, ifMatch(version)),
   delete: (id: number) => api.delete<ApiResponse<null>>(`/sales/${id}`),
 };
 
@@ -175,7 +259,8 @@ export const detailSalesApi = {
     api.post<ApiResponse<DetailSale>>("/detail-sales", data),
   update: (
     id: number,
-    data: Partial<Omit<DetailSale, "id">>
-  ) => api.put<ApiResponse<DetailSale>>(`/detail-sales/${id}`, data),
+    data: Partial<Omit<DetailSale, "id">>,
+    version?: number
+  ) => api.put<ApiResponse<DetailSale>>(`/detail-sales/${id}`, data, ifMatch(version)),
   delete: (id: number) => api.delete<ApiResponse<null>>(`/detail-sales/${id}`),
 };
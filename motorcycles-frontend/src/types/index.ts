@@ -1,5 +1,6 @@
 export interface Motorcycle {
   id: number;
+  version?: number;
   code: string;
   name: string;
   description: string;
@@ -14,6 +15,7 @@ export interface Motorcycle {
 
 export interface Customer {
   id: number;
+  version?: number;
   firstName: string;
   lastName: string;
   email: string;
@@ -30,10 +32,13 @@ export interface Customer {
   notes?: string;
   createdAt?: string;
   updatedAt?: string;
+  // Solo en clientes archivados (?includeArchived=true o ventas antiguas)
+  archivedAt?: string;
 }
 
 export interface Sale {
   id: number;
+  version?: number;
   saleNumber: string;
   customer: Customer;
   employee: Employee;
@@ -53,6 +58,7 @@ export interface Sale {
 
 export interface Employee {
   id: number;
+  version?: number;
   firstName: string;
   lastName: string;
   email: string;
@@ -73,10 +79,14 @@ export interface Employee {
   position?: string;
   createdAt?: string;
   updatedAt?: string;
+  archivedAt?: string;
 }
 
 export interface DetailSale {
   id: number;
+  version?: number;
+  // Solo en escrituras directas de líneas (/detail-sales)
+  saleId?: number;
   motorcycle: Motorcycle;
   quantity: number;
   unitPrice: number;
@@ -85,6 +95,50 @@ export interface DetailSale {
   notes?: string;
 }
 
+export interface ChangeEvent {
+  id: string;
+  entity: "motorcycle" | "customer" | "employee" | "sale" | "detailSale";
+  entityId: number;
+  action: "CREATED" | "UPDATED" | "DELETED";
+  version?: number | string | null;
+  fields: string[];
+}
+
+export interface InventoryMovement {
+  id: number;
+  motorcycleId: number;
+  type: "RECEIPT" | "SALE" | "RETURN" | "ADJUSTMENT";
+  quantity: number;
+  saleId?: number | null;
+  note?: string | null;
+  createdAt: string;
+}
+
+export interface StockHistory {
+  motorcycleId: number;
+  from: string;
+  to: string;
+  openingStock: number;
+  closingStock: number;
+  movements: InventoryMovement[];
+}
+
+export interface DocumentJob {
+  id: number;
+  type: "INVOICE" | "SALES_REPORT";
+  format: "PDF" | "CSV";
+  saleId?: number | null;
+  fromDate?: string | null;
+  toDate?: string | null;
+  status: "QUEUED" | "RUNNING" | "COMPLETED" | "FAILED";
+  fileName?: string | null;
+  fileSize?: number | null;
+  error?: string | null;
+  createdAt: string;
+  startedAt?: string | null;
+  finishedAt?: string | null;
+}
+
 export interface ApiResponse<T> {
   data?: T;
   message?: string;
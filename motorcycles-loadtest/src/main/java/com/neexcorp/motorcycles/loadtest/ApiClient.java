@@ -0,0 +1,99 @@
+package com.neexcorp.motorcycles.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Cliente HTTP mínimo de la API. Todas las peticiones llevan el concesionario
+ * de la ejecución en X-Tenant-ID.
+ */
+public class ApiClient {
+
+    record Response(int status, byte[] body) {
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private final HttpClient http;
+    private final ObjectMapper mapper;
+    private final String baseUrl;
+    private final String tenant;
+    private final Duration timeout;
+
+    ApiClient(LoadTestConfig config, ObjectMapper mapper) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.mapper = mapper;
+        this.baseUrl = config.baseUrl;
+        this.tenant = config.tenant;
+        this.timeout = Duration.ofSeconds(config.timeoutSeconds);
+    }
+
+    Response get(String path) throws IOException, InterruptedException {
+        return get(path, "application/json");
+    }
+
+    // Los endpoints en streaming solo producen NDJSON o CSV
+    Response get(String path, String accept) throws IOException, InterruptedException {
+        return send("GET", path, null, accept);
+    }
+
+    Response post(String path, Object body) throws IOException, InterruptedException {
+        return send("POST", path, body);
+    }
+
+    // Las modificaciones de la prueba pisan a propósito: If-Match: * evita el 428 sin comprobar versión
+    Response put(String path, Object body) throws IOException, InterruptedException {
+        return send("PUT", path, body, "application/json", "*");
+    }
+
+    Response send(String method, String path, Object body) throws IOException, InterruptedException {
+        return send(method, path, body, "application/json");
+    }
+
+    private Response send(String method, String path, Object body, String accept)
+            throws IOException, InterruptedException {
+        return send(method, path, body, accept, null);
+    }
+
+    private Response send(String method, String path, Object body, String accept, String ifMatch)
+            throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = body != null
+                ? HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body))
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .header("X-Tenant-ID", tenant)
+                .method(method, publisher);
+        if (ifMatch != null) {
+            request.header("If-Match", ifMatch);
+        }
+        HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        return new Response(response.statusCode(), response.body());
+    }
+
+    JsonNode json(Response response) throws IOException {
+        return mapper.readTree(response.body());
+    }
+
+    // Para la siembra: cualquier respuesta que no sea 2xx detiene la ejecución
+    JsonNode expect(Response response, String what) throws IOException {
+        if (!response.ok()) {
+            throw new IllegalStateException(what + " respondió " + response.status() + ": "
+                    + new String(response.body(), java.nio.charset.StandardCharsets.UTF_8));
+        }
+        return json(response);
+    }
+}
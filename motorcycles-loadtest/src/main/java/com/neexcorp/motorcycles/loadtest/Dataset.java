@@ -0,0 +1,53 @@
+package com.neexcorp.motorcycles.loadtest;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids sembrados que usan los usuarios virtuales. Las ventas crecen durante la
+ * prueba con las que se dan de alta.
+ */
+public class Dataset {
+
+    final List<Long> employees = new ArrayList<>();
+    final List<Long> motorcycles = new ArrayList<>();
+    final List<Long> customers = new ArrayList<>();
+    // Cuerpo completo de cada cliente: PUT /api/customers/{id} reemplaza todos los campos
+    final Map<Long, ObjectNode> customerBodies = new ConcurrentHashMap<>();
+    final Map<Long, String> saleNumbers = new ConcurrentHashMap<>();
+
+    private final List<Long> sales = new ArrayList<>();
+    private final AtomicLong saleSequence = new AtomicLong();
+
+    String nextSaleNumber(String prefix) {
+        return prefix + "-" + saleSequence.incrementAndGet();
+    }
+
+    synchronized void addSale(long id, String saleNumber) {
+        sales.add(id);
+        saleNumbers.put(id, saleNumber);
+    }
+
+    synchronized long randomSale(Random random) {
+        return sales.get(random.nextInt(sales.size()));
+    }
+
+    // Las más recientes, como la primera página del listado de ventas
+    synchronized List<Long> recentSales(int count) {
+        return new ArrayList<>(sales.subList(Math.max(0, sales.size() - count), sales.size()));
+    }
+
+    synchronized int saleCount() {
+        return sales.size();
+    }
+
+    static long pick(List<Long> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,111 @@
+package com.neexcorp.motorcycles.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Siembra empleados, motocicletas, clientes y ventas a través de la API REST,
+ * igual que lo haría un cliente real. Las ventas van por /api/sales/batch.
+ */
+public class DatasetSeeder {
+
+    private static final String[] FIRST_NAMES = {"Ana", "Luis", "Marta", "Carlos", "Lucía", "Jorge", "Sofía", "Diego"};
+    private static final String[] LAST_NAMES = {"García", "Rodríguez", "López", "Martínez", "Gómez", "Pérez", "Díaz"};
+    private static final String[] CITIES = {"Bogotá", "Medellín", "Cali", "Barranquilla", "Bucaramanga"};
+    private static final String[] BRANDS = {"Suzuki", "Yamaha", "Honda", "Kawasaki", "BMW", "KTM"};
+    private static final String[] TYPES = {"SPORT", "CRUISER", "TOURING", "STANDARD", "DIRT_BIKE", "SCOOTER", "ELECTRIC"};
+
+    private final ApiClient client;
+    private final ObjectMapper mapper;
+    private final LoadTestConfig config;
+    // Semilla fija: dos ejecuciones con los mismos parámetros siembran los mismos datos
+    private final Random random = new Random(42);
+
+    DatasetSeeder(ApiClient client, ObjectMapper mapper, LoadTestConfig config) {
+        this.client = client;
+        this.mapper = mapper;
+        this.config = config;
+    }
+
+    Dataset seed(Workload workload, Dataset dataset) throws IOException, InterruptedException {
+        for (int i = 1; i <= config.employees; i++) {
+            dataset.employees.add(Workload.id(client.expect(client.post("/employees", employee(i)), "Alta de empleado")));
+        }
+        for (int i = 1; i <= config.motorcycles; i++) {
+            dataset.motorcycles.add(Workload.id(client.expect(client.post("/motorcycles", motorcycle(i)),
+                    "Alta de motocicleta")));
+        }
+        for (int i = 1; i <= config.customers; i++) {
+            ObjectNode body = customer(i);
+            long id = Workload.id(client.expect(client.post("/customers", body), "Alta de cliente"));
+            dataset.customers.add(id);
+            dataset.customerBodies.put(id, body);
+        }
+
+        int created = 0;
+        while (created < config.sales) {
+            int size = Math.min(config.seedBatchSize, config.sales - created);
+            ArrayNode batch = mapper.createArrayNode();
+            for (int i = 0; i < size; i++) {
+                batch.add(workload.sale(dataset.nextSaleNumber("SEED"), random));
+            }
+            JsonNode result = client.expect(client.post("/sales/batch", batch), "Alta masiva de ventas");
+            for (JsonNode line : result.get("results")) {
+                if (!"CREATED".equals(line.get("status").asText())) {
+                    throw new IllegalStateException("Venta sembrada rechazada: " + line.get("error").asText());
+                }
+                dataset.addSale(line.get("id").asLong(), line.get("saleNumber").asText());
+            }
+            created += size;
+        }
+        return dataset;
+    }
+
+    private ObjectNode employee(int index) {
+        ObjectNode employee = person(index, "emp");
+        employee.put("jobTitle", "Asesor comercial");
+        employee.put("status", "ACTIVE");
+        return employee;
+    }
+
+    private ObjectNode customer(int index) {
+        ObjectNode customer = person(index, "cli");
+        customer.put("status", "ACTIVE");
+        return customer;
+    }
+
+    private ObjectNode person(int index, String prefix) {
+        ObjectNode person = mapper.createObjectNode();
+        person.put("firstName", FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+        person.put("lastName", LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        person.put("email", prefix + index + "@" + config.tenant + ".test");
+        person.put("phone", "300" + (1000000 + random.nextInt(8999999)));
+        person.put("documentType", "CEDULA");
+        person.put("documentNumber", prefix.toUpperCase() + "-" + index);
+        person.put("city", CITIES[random.nextInt(CITIES.length)]);
+        person.put("country", "Colombia");
+        return person;
+    }
+
+    private ObjectNode motorcycle(int index) {
+        ObjectNode motorcycle = mapper.createObjectNode();
+        String brand = BRANDS[random.nextInt(BRANDS.length)];
+        motorcycle.put("code", "LT-M" + index);
+        motorcycle.put("name", brand + " " + (100 + random.nextInt(900)));
+        motorcycle.put("brand", brand);
+        motorcycle.put("type", TYPES[random.nextInt(TYPES.length)]);
+        motorcycle.put("model", "20" + (20 + random.nextInt(6)));
+        motorcycle.put("year", 2020 + random.nextInt(6));
+        // Precio con dos decimales entre 2.000 y 30.000
+        motorcycle.put("price", (200000 + random.nextInt(2800000)) / 100.0);
+        // Stock holgado: la prueba mide rendimiento, no agotamiento de inventario
+        motorcycle.put("stock", 1_000_000);
+        motorcycle.put("available", true);
+        return motorcycle;
+    }
+}
@@ -0,0 +1,139 @@
+package com.neexcorp.motorcycles.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de la API de motocicletas.
+ *
+ *   java -jar motorcycles-loadtest.jar --users=200 --rate=400 --duration=120 --label=main
+ *   java -jar motorcycles-loadtest.jar compare base/report.json actual/report.json --max-regression=10
+ *
+ * Siembra un concesionario nuevo, calienta el servidor durante --warmup
+ * segundos sin medir y después mide --duration segundos. Cada usuario virtual
+ * envía peticiones a ritmo fijo (rate / users por segundo) con la mezcla de
+ * Operation, y el informe queda en --output/<ejecución>/.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "compare".equals(args[0])) {
+            compare(args);
+            return;
+        }
+
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        ObjectMapper mapper = new ObjectMapper();
+        ApiClient client = new ApiClient(config, mapper);
+        Dataset dataset = new Dataset();
+        Workload workload = new Workload(client, mapper, dataset, config);
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        System.out.printf("Sembrando concesionario %s en %s (%d empleados, %d motocicletas, %d clientes, %d ventas)%n",
+                config.tenant, config.baseUrl, config.employees, config.motorcycles, config.customers, config.sales);
+        long seedStart = System.nanoTime();
+        new DatasetSeeder(client, mapper, config).seed(workload, dataset);
+        System.out.printf("Siembra completada en %.1f s%n", (System.nanoTime() - seedStart) / 1e9);
+
+        Metrics metrics = run(config, workload);
+
+        String runId = startedAt.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+                + (config.label.isEmpty() ? "" : "-" + config.label.replaceAll("[^A-Za-z0-9_.-]", "_"));
+        Path directory = new Report(mapper).write(config, runId, startedAt.toString(), metrics);
+        System.out.println("Informe en " + directory.toAbsolutePath());
+    }
+
+    private static Metrics run(LoadTestConfig config, Workload workload) throws InterruptedException {
+        long intervalNanos = (long) (config.users * 1_000_000_000.0 / config.rate);
+        long start = System.nanoTime() + 1_000_000_000L;
+        long measureStart = start + config.warmupSeconds * 1_000_000_000L;
+        long end = measureStart + config.durationSeconds * 1_000_000_000L;
+        Metrics metrics = new Metrics(measureStart, config.durationSeconds);
+
+        System.out.printf("%d usuarios, %d req/s (una petición cada %d ms por usuario), %d s de calentamiento, %d s medidos%n",
+                config.users, config.rate, intervalNanos / 1_000_000, config.warmupSeconds, config.durationSeconds);
+        List<Thread> users = new ArrayList<>();
+        for (int i = 0; i < config.users; i++) {
+            Random random = new Random(1000L + i);
+            // Los usuarios arrancan repartidos dentro del primer intervalo
+            long first = start + (long) (random.nextDouble() * intervalNanos);
+            Thread thread = new Thread(() -> user(workload, metrics, random, first, intervalNanos, measureStart, end),
+                    "virtual-user-" + i);
+            thread.setDaemon(true);
+            users.add(thread);
+            thread.start();
+        }
+
+        int reported = 0;
+        while (System.nanoTime() < end) {
+            Thread.sleep(10_000);
+            int elapsed = (int) Math.min(config.durationSeconds, (System.nanoTime() - measureStart) / 1_000_000_000L);
+            if (elapsed <= reported) {
+                System.out.println("Calentando...");
+                continue;
+            }
+            long completed = 0;
+            for (int second = reported; second < elapsed; second++) {
+                completed += metrics.completedAt(second);
+            }
+            System.out.printf("  %4d s: %.1f req/s%n", elapsed, (double) completed / (elapsed - reported));
+            reported = elapsed;
+        }
+        for (Thread user : users) {
+            user.join(config.timeoutSeconds * 1000L);
+        }
+        return metrics;
+    }
+
+    // Ritmo fijo: si una respuesta se retrasa, las siguientes salen enseguida y su latencia cuenta desde la hora prevista
+    private static void user(Workload workload, Metrics metrics, Random random, long first, long intervalNanos,
+            long measureStart, long end) {
+        long intended = first;
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            Operation operation = workload.next(random);
+            long sent = System.nanoTime();
+            int status;
+            try {
+                status = workload.execute(operation, random).status();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                status = -1;
+            }
+            long done = System.nanoTime();
+            if (intended >= measureStart) {
+                metrics.record(operation, intended, sent, done, status);
+            }
+            intended += intervalNanos;
+        }
+    }
+
+    private static void compare(String[] args) throws Exception {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Uso: compare <base/report.json> <actual/report.json> [--max-regression=10]");
+        }
+        double maxRegression = 10;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].startsWith("--max-regression=")) {
+                maxRegression = Double.parseDouble(args[i].substring("--max-regression=".length()));
+            }
+        }
+        boolean ok = new Report(new ObjectMapper()).compare(Path.of(args[1]), Path.of(args[2]), maxRegression);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
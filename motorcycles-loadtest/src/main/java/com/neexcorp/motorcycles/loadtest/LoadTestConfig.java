@@ -0,0 +1,119 @@
+package com.neexcorp.motorcycles.loadtest;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de una ejecución. Se pasan como --clave=valor; los que no se
+ * indican toman los valores por defecto de abajo.
+ */
+public class LoadTestConfig {
+
+    String baseUrl = "http://localhost:8080/api";
+    // Cada ejecución siembra su propio concesionario, así todas parten del mismo volumen de datos
+    String tenant = "loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+    String label = "";
+    String output = "target/loadtest-reports";
+
+    int users = 200;
+    // Peticiones por segundo entre todos los usuarios; cada usuario envía a ritmo fijo
+    int rate = 400;
+    int warmupSeconds = 30;
+    int durationSeconds = 120;
+    int timeoutSeconds = 30;
+
+    int employees = 20;
+    int motorcycles = 100;
+    int customers = 500;
+    int sales = 2000;
+    int seedBatchSize = 100;
+
+    final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    LoadTestConfig() {
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, operation.defaultWeight);
+        }
+    }
+
+    static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento no válido: " + arg + " (se espera --clave=valor)");
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestConfig config = new LoadTestConfig();
+        config.baseUrl = values.getOrDefault("base-url", config.baseUrl).replaceAll("/+$", "");
+        config.tenant = values.getOrDefault("tenant", config.tenant);
+        config.label = values.getOrDefault("label", config.label);
+        config.output = values.getOrDefault("output", config.output);
+        config.users = intValue(values, "users", config.users);
+        config.rate = intValue(values, "rate", config.rate);
+        config.warmupSeconds = intValue(values, "warmup", config.warmupSeconds);
+        config.durationSeconds = intValue(values, "duration", config.durationSeconds);
+        config.timeoutSeconds = intValue(values, "timeout", config.timeoutSeconds);
+        config.employees = intValue(values, "employees", config.employees);
+        config.motorcycles = intValue(values, "motorcycles", config.motorcycles);
+        config.customers = intValue(values, "customers", config.customers);
+        config.sales = intValue(values, "sales", config.sales);
+        config.seedBatchSize = intValue(values, "seed-batch-size", config.seedBatchSize);
+        if (values.containsKey("mix")) {
+            config.parseMix(values.get("mix"));
+        }
+        config.validate();
+        return config;
+    }
+
+    // --mix=sale-detail=40,sale-create=20: las operaciones no indicadas conservan su peso
+    private void parseMix(String value) {
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrada de --mix no válida: " + entry);
+            }
+            mix.put(Operation.fromKey(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+    }
+
+    private void validate() {
+        if (users <= 0 || rate <= 0 || durationSeconds <= 0 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("users, rate y duration deben ser positivos");
+        }
+        if (employees <= 0 || motorcycles <= 0 || customers <= 0 || sales <= 0) {
+            throw new IllegalArgumentException("El conjunto de datos necesita al menos un registro de cada tipo");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("La suma de pesos de --mix debe ser positiva");
+        }
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new java.util.LinkedHashMap<>();
+        description.put("baseUrl", baseUrl);
+        description.put("tenant", tenant);
+        description.put("users", users);
+        description.put("rate", rate);
+        description.put("warmupSeconds", warmupSeconds);
+        description.put("durationSeconds", durationSeconds);
+        description.put("employees", employees);
+        description.put("motorcycles", motorcycles);
+        description.put("customers", customers);
+        description.put("sales", sales);
+        Map<String, Integer> weights = new java.util.LinkedHashMap<>();
+        mix.forEach((operation, weight) -> weights.put(operation.key, weight));
+        description.put("mix", weights);
+        return description;
+    }
+}
@@ -0,0 +1,87 @@
+package com.neexcorp.motorcycles.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias por operación y rendimiento por segundo de la fase medida.
+ *
+ * Cada petición tiene una hora prevista de envío (el ritmo fijo del usuario).
+ * El tiempo de respuesta se mide desde esa hora y no desde el envío real: si
+ * el servidor se atasca, las peticiones que el usuario no pudo enviar a tiempo
+ * cuentan la espera (corrección de la omisión coordinada). El tiempo de
+ * servicio, desde el envío real, se guarda aparte para comparar.
+ */
+public class Metrics {
+
+    // Valores en microsegundos, hasta 10 minutos con 3 cifras significativas
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    static class Endpoint {
+        final Histogram responseTime = new ConcurrentHistogram(MAX_MICROS, 3);
+        final Histogram serviceTime = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        // -1 agrupa los fallos de conexión y los timeouts
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+
+    private final Map<Operation, Endpoint> endpoints = new EnumMap<>(Operation.class);
+    private final AtomicLongArray completedPerSecond;
+    private final AtomicLongArray errorsPerSecond;
+    private final long measureStartNanos;
+
+    Metrics(long measureStartNanos, int durationSeconds) {
+        for (Operation operation : Operation.values()) {
+            endpoints.put(operation, new Endpoint());
+        }
+        this.measureStartNanos = measureStartNanos;
+        // Un segundo de margen para las respuestas que llegan después del final
+        this.completedPerSecond = new AtomicLongArray(durationSeconds + 1);
+        this.errorsPerSecond = new AtomicLongArray(durationSeconds + 1);
+    }
+
+    void record(Operation operation, long intendedNanos, long sentNanos, long doneNanos, int status) {
+        Endpoint endpoint = endpoints.get(operation);
+        endpoint.responseTime.recordValue(micros(doneNanos - intendedNanos));
+        endpoint.serviceTime.recordValue(micros(doneNanos - sentNanos));
+        endpoint.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        boolean error = status < 200 || status >= 400;
+        if (error) {
+            endpoint.errors.increment();
+        }
+
+        int second = (int) Math.min(completedPerSecond.length() - 1,
+                Math.max(0, (doneNanos - measureStartNanos) / 1_000_000_000L));
+        completedPerSecond.incrementAndGet(second);
+        if (error) {
+            errorsPerSecond.incrementAndGet(second);
+        }
+    }
+
+    Endpoint endpoint(Operation operation) {
+        return endpoints.get(operation);
+    }
+
+    long completedAt(int second) {
+        return completedPerSecond.get(second);
+    }
+
+    long errorsAt(int second) {
+        return errorsPerSecond.get(second);
+    }
+
+    int seconds() {
+        return completedPerSecond.length();
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(MAX_MICROS, Math.max(0, nanos / 1000));
+    }
+}
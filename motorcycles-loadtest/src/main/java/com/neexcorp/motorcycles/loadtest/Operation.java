@@ -0,0 +1,41 @@
+package com.neexcorp.motorcycles.loadtest;
+
+/**
+ * Operaciones de la mezcla de tráfico, con su peso por defecto. Reproduce el
+ * uso de un concesionario: sobre todo consultas, con altas y ediciones de
+ * ventas y clientes.
+ */
+public enum Operation {
+
+    LIST_MOTORCYCLES("list-motorcycles", "GET /api/motorcycles", 20),
+    LIST_CUSTOMERS("list-customers", "GET /api/customers?fields=...", 10),
+    LIST_SALES("list-sales", "GET /api/sales?ids=...&fields=...", 15),
+    SALE_DETAIL("sale-detail", "GET /api/sales/{id}", 25),
+    SALE_CREATE("sale-create", "POST /api/sales", 12),
+    SALE_UPDATE("sale-update", "PUT /api/sales/{id}", 6),
+    CUSTOMER_UPDATE("customer-update", "PUT /api/customers/{id}", 12),
+    // Listados completos bloqueantes (JPA) frente a los de /api/reactive (R2DBC); solo con --mix
+    LIST_ALL_SALES("list-all-sales", "GET /api/sales", 0),
+    STREAM_SALES("stream-sales", "GET /api/reactive/sales", 0),
+    STREAM_MOTORCYCLES("stream-motorcycles", "GET /api/reactive/motorcycles", 0),
+    EXPORT_SALES("export-sales", "GET /api/reactive/sales/export?from=...&to=...", 0);
+
+    final String key;
+    final String endpoint;
+    final int defaultWeight;
+
+    Operation(String key, String endpoint, int defaultWeight) {
+        this.key = key;
+        this.endpoint = endpoint;
+        this.defaultWeight = defaultWeight;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida: " + key);
+    }
+}
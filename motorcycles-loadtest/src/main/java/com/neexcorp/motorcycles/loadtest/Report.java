@@ -0,0 +1,190 @@
+package com.neexcorp.motorcycles.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Informe de una ejecución: report.json (comparable entre ejecuciones),
+ * summary.txt y un fichero .hgrm por operación con la distribución completa
+ * (se puede dibujar con el HdrHistogram plotter).
+ */
+public class Report {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final ObjectMapper mapper;
+
+    Report(ObjectMapper mapper) {
+        this.mapper = mapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    Path write(LoadTestConfig config, String runId, String startedAt, Metrics metrics) throws IOException {
+        Path directory = Path.of(config.output, runId);
+        Files.createDirectories(directory.resolve("histograms"));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("runId", runId);
+        report.put("label", config.label);
+        report.put("startedAt", startedAt);
+        report.put("config", config.describe());
+
+        long totalRequests = 0;
+        long totalErrors = 0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Metrics.Endpoint endpoint = metrics.endpoint(operation);
+            long count = endpoint.responseTime.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            totalRequests += count;
+            totalErrors += endpoint.errors.sum();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("endpoint", operation.endpoint);
+            stats.put("count", count);
+            stats.put("errors", endpoint.errors.sum());
+            stats.put("throughput", round((double) count / config.durationSeconds));
+            Map<String, Long> statuses = new TreeMap<>();
+            endpoint.statuses.forEach((status, counter) -> statuses.put(String.valueOf(status), counter.sum()));
+            stats.put("statuses", statuses);
+            stats.put("responseTimeMs", latency(endpoint.responseTime));
+            stats.put("serviceTimeMs", latency(endpoint.serviceTime));
+            endpoints.put(operation.key, stats);
+
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(directory.resolve("histograms").resolve(operation.key + ".hgrm")),
+                    false, StandardCharsets.UTF_8)) {
+                endpoint.responseTime.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("requests", totalRequests);
+        totals.put("errors", totalErrors);
+        totals.put("throughput", round((double) totalRequests / config.durationSeconds));
+        report.put("totals", totals);
+        report.put("endpoints", endpoints);
+
+        List<Map<String, Object>> timeline = new ArrayList<>();
+        for (int second = 0; second < metrics.seconds(); second++) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("second", second);
+            point.put("completed", metrics.completedAt(second));
+            point.put("errors", metrics.errorsAt(second));
+            timeline.add(point);
+        }
+        report.put("throughputPerSecond", timeline);
+
+        mapper.writeValue(directory.resolve("report.json").toFile(), report);
+        String summary = summary(mapper.valueToTree(report));
+        Files.writeString(directory.resolve("summary.txt"), summary);
+        System.out.print(summary);
+        return directory;
+    }
+
+    String summary(JsonNode report) {
+        StringBuilder out = new StringBuilder();
+        JsonNode totals = report.get("totals");
+        out.append(String.format("Ejecución %s %s%n", report.get("runId").asText(), report.get("label").asText()));
+        out.append(String.format("Total: %d peticiones, %d errores, %.1f req/s%n%n",
+                totals.get("requests").asLong(), totals.get("errors").asLong(), totals.get("throughput").asDouble()));
+        out.append(String.format("%-17s %8s %7s %8s %9s %9s %9s %9s %9s%n",
+                "operación", "count", "errores", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Iterator<Map.Entry<String, JsonNode>> endpoints = report.get("endpoints").fields();
+        while (endpoints.hasNext()) {
+            Map.Entry<String, JsonNode> entry = endpoints.next();
+            JsonNode stats = entry.getValue();
+            JsonNode latency = stats.get("responseTimeMs");
+            out.append(String.format("%-17s %8d %7d %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(),
+                    stats.get("count").asLong(), stats.get("errors").asLong(), stats.get("throughput").asDouble(),
+                    latency.get("p50").asDouble(), latency.get("p90").asDouble(), latency.get("p99").asDouble(),
+                    latency.get("p99.9").asDouble(), latency.get("max").asDouble()));
+        }
+        out.append("(latencias = tiempo de respuesta corregido desde la hora prevista de envío)\n");
+        return out.toString();
+    }
+
+    /**
+     * Compara dos report.json. Devuelve false si el p99 de alguna operación o
+     * el rendimiento total empeoran más del porcentaje indicado, o si aparecen
+     * más errores.
+     */
+    boolean compare(Path baselineFile, Path currentFile, double maxRegressionPct) throws IOException {
+        JsonNode baseline = mapper.readTree(baselineFile.toFile());
+        JsonNode current = mapper.readTree(currentFile.toFile());
+        boolean ok = true;
+
+        System.out.printf("Base: %s %s%nActual: %s %s%n%n", baseline.get("runId").asText(),
+                baseline.get("label").asText(), current.get("runId").asText(), current.get("label").asText());
+        System.out.printf("%-17s %10s %10s %8s %10s %10s %8s%n",
+                "operación", "p50 base", "p50 act", "Δ%", "p99 base", "p99 act", "Δ%");
+        Iterator<Map.Entry<String, JsonNode>> endpoints = current.get("endpoints").fields();
+        while (endpoints.hasNext()) {
+            Map.Entry<String, JsonNode> entry = endpoints.next();
+            JsonNode before = baseline.get("endpoints").get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            double p50Before = before.get("responseTimeMs").get("p50").asDouble();
+            double p50Now = entry.getValue().get("responseTimeMs").get("p50").asDouble();
+            double p99Before = before.get("responseTimeMs").get("p99").asDouble();
+            double p99Now = entry.getValue().get("responseTimeMs").get("p99").asDouble();
+            double p99Change = change(p99Before, p99Now);
+            boolean regressed = p99Change > maxRegressionPct;
+            ok &= !regressed;
+            System.out.printf("%-17s %10.1f %10.1f %+7.1f%% %10.1f %10.1f %+7.1f%%%s%n", entry.getKey(),
+                    p50Before, p50Now, change(p50Before, p50Now), p99Before, p99Now, p99Change,
+                    regressed ? "  REGRESIÓN" : "");
+        }
+
+        double throughputBefore = baseline.get("totals").get("throughput").asDouble();
+        double throughputNow = current.get("totals").get("throughput").asDouble();
+        double throughputChange = change(throughputBefore, throughputNow);
+        boolean throughputRegressed = -throughputChange > maxRegressionPct;
+        long errorsBefore = baseline.get("totals").get("errors").asLong();
+        long errorsNow = current.get("totals").get("errors").asLong();
+        ok &= !throughputRegressed && errorsNow <= errorsBefore;
+        System.out.printf("%nRendimiento: %.1f -> %.1f req/s (%+.1f%%)%s%n", throughputBefore, throughputNow,
+                throughputChange, throughputRegressed ? "  REGRESIÓN" : "");
+        System.out.printf("Errores: %d -> %d%s%n", errorsBefore, errorsNow, errorsNow > errorsBefore ? "  REGRESIÓN" : "");
+        return ok;
+    }
+
+    private static Map<String, Object> latency(Histogram histogram) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            String key = percentile == Math.rint(percentile) ? "p" + (int) percentile : "p" + percentile;
+            latency.put(key, millis(histogram.getValueAtPercentile(percentile)));
+        }
+        latency.put("max", millis(histogram.getMaxValue()));
+        latency.put("mean", round(histogram.getMean() / 1000.0));
+        return latency;
+    }
+
+    private static double change(double before, double now) {
+        return before == 0 ? 0 : (now - before) * 100.0 / before;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
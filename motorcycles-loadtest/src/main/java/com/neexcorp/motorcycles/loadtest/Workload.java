@@ -0,0 +1,133 @@
+package com.neexcorp.motorcycles.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Ejecuta cada operación de la mezcla contra la API y construye los cuerpos
+ * de las peticiones a partir del conjunto de datos sembrado.
+ */
+public class Workload {
+
+    static final String[] PAYMENT_METHODS = {"CASH", "CREDIT_CARD", "DEBIT_CARD", "BANK_TRANSFER", "FINANCING"};
+
+    private static final String CUSTOMER_LIST_FIELDS = "id,firstName,lastName,email,phone,status";
+    private static final String SALE_LIST_FIELDS = "saleNumber,saleDate,status,total,customer.firstName,customer.lastName";
+    private static final int SALE_PAGE_SIZE = 20;
+    private static final String NDJSON = "application/x-ndjson";
+    // La siembra es de la misma ejecución, así que el último mes cubre todas las ventas
+    private static final int EXPORT_DAYS = 30;
+
+    private final ApiClient client;
+    private final ObjectMapper mapper;
+    private final Dataset dataset;
+    private final String salePrefix;
+    private final Operation[] wheel;
+
+    Workload(ApiClient client, ObjectMapper mapper, Dataset dataset, LoadTestConfig config) {
+        this.client = client;
+        this.mapper = mapper;
+        this.dataset = dataset;
+        this.salePrefix = "LT-" + Long.toString(System.currentTimeMillis(), 36).toUpperCase();
+        this.wheel = wheel(config.mix);
+    }
+
+    // Una entrada por unidad de peso: elegir una operación es un acceso aleatorio al array
+    private static Operation[] wheel(Map<Operation, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] wheel = new Operation[total];
+        int index = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                wheel[index++] = entry.getKey();
+            }
+        }
+        return wheel;
+    }
+
+    Operation next(Random random) {
+        return wheel[random.nextInt(wheel.length)];
+    }
+
+    ApiClient.Response execute(Operation operation, Random random) throws IOException, InterruptedException {
+        switch (operation) {
+            case LIST_MOTORCYCLES:
+                return client.get("/motorcycles");
+            case LIST_CUSTOMERS:
+                return client.get("/customers?fields=" + CUSTOMER_LIST_FIELDS);
+            case LIST_SALES:
+                String ids = dataset.recentSales(SALE_PAGE_SIZE).stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(","));
+                return client.get("/sales?ids=" + ids + "&fields=" + SALE_LIST_FIELDS);
+            case SALE_DETAIL:
+                return client.get("/sales/" + dataset.randomSale(random));
+            case SALE_CREATE:
+                return createSale(random);
+            case SALE_UPDATE:
+                long saleId = dataset.randomSale(random);
+                return client.put("/sales/" + saleId, sale(dataset.saleNumbers.get(saleId), random));
+            case CUSTOMER_UPDATE:
+                return updateCustomer(random);
+            case LIST_ALL_SALES:
+                return client.get("/sales");
+            case STREAM_SALES:
+                return client.get("/reactive/sales", NDJSON);
+            case STREAM_MOTORCYCLES:
+                return client.get("/reactive/motorcycles", NDJSON);
+            case EXPORT_SALES:
+                LocalDate today = LocalDate.now();
+                return client.get("/reactive/sales/export?from=" + today.minusDays(EXPORT_DAYS) + "&to=" + today,
+                        "text/csv");
+            default:
+                throw new IllegalArgumentException("Operación no soportada: " + operation);
+        }
+    }
+
+    private ApiClient.Response createSale(Random random) throws IOException, InterruptedException {
+        String saleNumber = dataset.nextSaleNumber(salePrefix);
+        ApiClient.Response response = client.post("/sales", sale(saleNumber, random));
+        if (response.ok()) {
+            dataset.addSale(client.json(response).get("id").asLong(), saleNumber);
+        }
+        return response;
+    }
+
+    private ApiClient.Response updateCustomer(Random random) throws IOException, InterruptedException {
+        long customerId = Dataset.pick(dataset.customers, random);
+        ObjectNode body = dataset.customerBodies.get(customerId).deepCopy();
+        body.put("phone", "300" + (1000000 + random.nextInt(8999999)));
+        body.put("notes", "Actualizado por la prueba de carga");
+        return client.put("/customers/" + customerId, body);
+    }
+
+    // Venta de 1 a 3 líneas; el precio unitario lo pone el servidor desde el catálogo
+    ObjectNode sale(String saleNumber, Random random) {
+        ObjectNode sale = mapper.createObjectNode();
+        sale.put("saleNumber", saleNumber);
+        sale.put("status", "COMPLETED");
+        sale.put("paymentMethod", PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+        sale.putObject("customer").put("id", Dataset.pick(dataset.customers, random));
+        sale.putObject("employee").put("id", Dataset.pick(dataset.employees, random));
+        ArrayNode details = sale.putArray("details");
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            ObjectNode detail = details.addObject();
+            detail.putObject("motorcycle").put("id", Dataset.pick(dataset.motorcycles, random));
+            detail.put("quantity", 1 + random.nextInt(2));
+        }
+        return sale;
+    }
+
+    static long id(JsonNode node) {
+        return node.get("id").asLong();
+    }
+}
@@ -2,8 +2,12 @@ package com.neexcorp.motorcycles;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// El pool R2DBC lo crea ReactiveReadService; un ConnectionFactory como bean desactivaría el DataSource de JPA
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 public class MotorcyclesApplication {
 
 	public static void main(String[] args) {
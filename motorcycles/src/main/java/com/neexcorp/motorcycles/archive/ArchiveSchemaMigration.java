@@ -0,0 +1,153 @@
+package com.neexcorp.motorcycles.archive;
+
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import com.neexcorp.motorcycles.tenant.TenantSchemaMigration;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sustituye las claves foráneas de sales hacia customers y employees por
+ * triggers que aceptan la fila en la tabla activa o en su archivo.
+ *
+ * - Al insertar o cambiar una venta, el cliente y el empleado deben existir en
+ *   una de las dos tablas; la fila encontrada se bloquea FOR KEY SHARE, igual
+ *   que haría la clave foránea, para que nadie la borre antes del commit.
+ * - Al borrar un cliente o empleado (de cualquiera de las dos tablas) con
+ *   ventas, la comprobación se aplaza al commit: mover la fila al archivo
+ *   borra e inserta en la misma transacción y no debe fallar.
+ *
+ * ddl-auto=update crea las tablas de archivo pero no borra las claves
+ * foráneas antiguas, así que se buscan en pg_constraint. También crea los
+ * índices parciales por estado que recorren las pasadas de ArchiveService. Es
+ * la única definición de estos objetos (database_setup.sql no los crea) y se
+ * aplica en la base compartida y en cada ruta de tenancy.routes.
+ */
+@Component
+public class ArchiveSchemaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveSchemaMigration.class);
+
+    private static final String FIND_FOREIGN_KEYS = "SELECT c.conname FROM pg_constraint c "
+            + "JOIN pg_class t ON t.oid = c.conrelid JOIN pg_class r ON r.oid = c.confrelid "
+            + "WHERE c.contype = 'f' AND t.relname = 'sales' AND r.relname IN ('customers', 'employees') "
+            + "AND t.relnamespace = to_regnamespace(current_schema())";
+
+    private static final String TRIGGER_EXISTS = "SELECT count(*) FROM pg_trigger g JOIN pg_class t ON t.oid = g.tgrelid "
+            + "WHERE g.tgname = ? AND t.relname = ? AND t.relnamespace = to_regnamespace(current_schema())";
+
+    private static final String CHECK_SALE_PARTIES = """
+            CREATE OR REPLACE FUNCTION check_sale_parties() RETURNS trigger AS $$
+            BEGIN
+                PERFORM 1 FROM customers WHERE id = NEW.customer_id FOR KEY SHARE;
+                IF NOT FOUND THEN
+                    PERFORM 1 FROM customers_archive WHERE id = NEW.customer_id FOR KEY SHARE;
+                    IF NOT FOUND THEN
+                        RAISE foreign_key_violation USING MESSAGE = format('Customer %s does not exist', NEW.customer_id);
+                    END IF;
+                END IF;
+                PERFORM 1 FROM employees WHERE id = NEW.employee_id FOR KEY SHARE;
+                IF NOT FOUND THEN
+                    PERFORM 1 FROM employees_archive WHERE id = NEW.employee_id FOR KEY SHARE;
+                    IF NOT FOUND THEN
+                        RAISE foreign_key_violation USING MESSAGE = format('Employee %s does not exist', NEW.employee_id);
+                    END IF;
+                END IF;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql""";
+
+    private static final String CHECK_CUSTOMER_REFERENCES = """
+            CREATE OR REPLACE FUNCTION check_customer_references() RETURNS trigger AS $$
+            BEGIN
+                IF EXISTS (SELECT 1 FROM sales WHERE customer_id = OLD.id)
+                        AND NOT EXISTS (SELECT 1 FROM customers WHERE id = OLD.id)
+                        AND NOT EXISTS (SELECT 1 FROM customers_archive WHERE id = OLD.id) THEN
+                    RAISE foreign_key_violation USING MESSAGE = format('Customer %s is referenced by sales', OLD.id);
+                END IF;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql""";
+
+    private static final String CHECK_EMPLOYEE_REFERENCES = """
+            CREATE OR REPLACE FUNCTION check_employee_references() RETURNS trigger AS $$
+            BEGIN
+                IF EXISTS (SELECT 1 FROM sales WHERE employee_id = OLD.id)
+                        AND NOT EXISTS (SELECT 1 FROM employees WHERE id = OLD.id)
+                        AND NOT EXISTS (SELECT 1 FROM employees_archive WHERE id = OLD.id) THEN
+                    RAISE foreign_key_violation USING MESSAGE = format('Employee %s is referenced by sales', OLD.id);
+                END IF;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql""";
+
+    // Nombre del trigger, tabla y definición
+    private static final List<String[]> TRIGGERS = List.of(
+            new String[] {"trg_sales_parties", "sales", "CREATE CONSTRAINT TRIGGER trg_sales_parties "
+                    + "AFTER INSERT OR UPDATE OF customer_id, employee_id ON sales "
+                    + "FOR EACH ROW EXECUTE FUNCTION check_sale_parties()"},
+            new String[] {"trg_customers_references", "customers", "CREATE CONSTRAINT TRIGGER trg_customers_references "
+                    + "AFTER DELETE ON customers DEFERRABLE INITIALLY DEFERRED "
+                    + "FOR EACH ROW EXECUTE FUNCTION check_customer_references()"},
+            new String[] {"trg_customers_archive_references", "customers_archive",
+                    "CREATE CONSTRAINT TRIGGER trg_customers_archive_references "
+                    + "AFTER DELETE ON customers_archive DEFERRABLE INITIALLY DEFERRED "
+                    + "FOR EACH ROW EXECUTE FUNCTION check_customer_references()"},
+            new String[] {"trg_employees_references", "employees", "CREATE CONSTRAINT TRIGGER trg_employees_references "
+                    + "AFTER DELETE ON employees DEFERRABLE INITIALLY DEFERRED "
+                    + "FOR EACH ROW EXECUTE FUNCTION check_employee_references()"},
+            new String[] {"trg_employees_archive_references", "employees_archive",
+                    "CREATE CONSTRAINT TRIGGER trg_employees_archive_references "
+                    + "AFTER DELETE ON employees_archive DEFERRABLE INITIALLY DEFERRED "
+                    + "FOR EACH ROW EXECUTE FUNCTION check_employee_references()"});
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    // Se inyecta para ejecutar la migración después de que Hibernate cree las tablas de archivo
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Se inyecta para ejecutar la migración después de comprobar que cada ruta tiene sus tablas
+    @Autowired
+    private TenantSchemaMigration tenantSchemaMigration;
+
+    @PostConstruct
+    public void migrate() {
+        TenantContext.runAs(TenantContext.ROOT, this::migrateRoute);
+        for (String tenant : tenancyProperties.getRoutes().keySet()) {
+            TenantContext.runAs(tenant, this::migrateRoute);
+        }
+    }
+
+    private void migrateRoute() {
+        jdbcTemplate.execute(CHECK_SALE_PARTIES);
+        jdbcTemplate.execute(CHECK_CUSTOMER_REFERENCES);
+        jdbcTemplate.execute(CHECK_EMPLOYEE_REFERENCES);
+        for (String[] trigger : TRIGGERS) {
+            Integer count = jdbcTemplate.queryForObject(TRIGGER_EXISTS, Integer.class, trigger[0], trigger[1]);
+            if (count == null || count == 0) {
+                log.info("Creando trigger {} en {}", trigger[0], trigger[1]);
+                jdbcTemplate.execute(trigger[2]);
+            }
+        }
+        // Los triggers ya protegen las ventas antes de quitar las claves foráneas
+        for (String name : jdbcTemplate.queryForList(FIND_FOREIGN_KEYS, String.class)) {
+            log.info("Eliminando clave foránea {} de sales", name);
+            jdbcTemplate.execute("ALTER TABLE sales DROP CONSTRAINT \"" + name + "\"");
+        }
+        for (ArchiveService.Party party : ArchiveService.Party.values()) {
+            party.indexSql.forEach(jdbcTemplate::execute);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.neexcorp.motorcycles.archive;
+
+import com.neexcorp.motorcycles.cache.CacheInvalidationPublisher;
+import com.neexcorp.motorcycles.event.ChangeEvent;
+import com.neexcorp.motorcycles.model.ArchivedCustomer;
+import com.neexcorp.motorcycles.model.ArchivedEmployee;
+import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.model.CustomerBase;
+import com.neexcorp.motorcycles.model.Employee;
+import com.neexcorp.motorcycles.model.EmployeeBase;
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.service.ChangeFeedService;
+import com.neexcorp.motorcycles.service.RequestBatchLoader;
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mueve a customers_archive y employees_archive las filas frías (clientes
+ * inactivos o bloqueados y empleados dados de baja sin cambios desde hace un
+ * tiempo) y devuelve a la tabla activa las que se reactivaron. Así las tablas
+ * activas, que recorren los listados y las ventas nuevas, se mantienen
+ * pequeñas y caben en shared_buffers.
+ *
+ * Cada lote es una sola sentencia (DELETE ... RETURNING dentro de un INSERT)
+ * en su propia transacción; las filas bloqueadas por otra escritura se saltan
+ * y se mueven en la siguiente pasada. Una fila reactivada cuyo email o
+ * documento ya es de otra fila activa se queda en el archivo, con un aviso en
+ * el log, sin bloquear el lote. Como StockSnapshotService, la pasada se
+ * repite por cada ruta de datos.
+ */
+@Service
+public class ArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveService.class);
+
+    enum Party {
+        CUSTOMER("customer", "customers", "customers_archive",
+                "id, tenant_id, version, first_name, last_name, email, phone, document_number, document_type, address, "
+                        + "city, state, zip_code, country, birth_date, status, notes, created_at, updated_at",
+                "status IN ('INACTIVE', 'BLOCKED')",
+                "COALESCE(updated_at, created_at, '-infinity') < ?",
+                "COALESCE(status, 'ACTIVE') NOT IN ('INACTIVE', 'BLOCKED')"),
+        EMPLOYEE("employee", "employees", "employees_archive",
+                "id, tenant_id, version, first_name, last_name, email, phone, document_number, document_type, address, "
+                        + "city, state, zip_code, country, job_title, salary, hire_date, termination_date, status, notes, "
+                        + "created_at, updated_at",
+                "status = 'TERMINATED'",
+                "COALESCE(termination_date::timestamp, updated_at, created_at, '-infinity') < ?",
+                "COALESCE(status, 'ACTIVE') <> 'TERMINATED'");
+
+        private final String entity;
+        private final String table;
+        private final String archive;
+        private final String archiveSql;
+        private final String restoreSql;
+        private final String restoreOneSql;
+        private final String conflictsSql;
+        // Índices parciales con los mismos predicados de estado que las pasadas (ArchiveSchemaMigration)
+        final List<String> indexSql;
+
+        Party(String entity, String table, String archive, String columns, String cold, String age, String hot) {
+            this.entity = entity;
+            this.table = table;
+            this.archive = archive;
+            // Otra fila activa ya tiene el email o el documento de la archivada: no puede volver
+            String conflict = "EXISTS (SELECT 1 FROM " + table + " t WHERE t.tenant_id = a.tenant_id AND t.id <> a.id "
+                    + "AND (t.email = a.email OR t.document_number = a.document_number))";
+            this.archiveSql = "WITH moved AS (DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table
+                    + " WHERE " + cold + " AND " + age + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING "
+                    + columns + ") "
+                    + "INSERT INTO " + archive + " (" + columns + ", archived_at) SELECT " + columns + ", ? FROM moved "
+                    + "RETURNING id, tenant_id";
+            this.restoreSql = "WITH moved AS (DELETE FROM " + archive + " WHERE id IN (SELECT id FROM " + archive
+                    + " a WHERE " + hot + " AND NOT " + conflict + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) "
+                    + "RETURNING " + columns + ") "
+                    + "INSERT INTO " + table + " (" + columns + ") SELECT " + columns + " FROM moved "
+                    + "RETURNING id, tenant_id";
+            this.restoreOneSql = "WITH moved AS (DELETE FROM " + archive + " WHERE id = ? RETURNING " + columns + ") "
+                    + "INSERT INTO " + table + " (" + columns + ") SELECT " + columns + " FROM moved";
+            this.conflictsSql = "SELECT count(*) FROM " + archive + " a WHERE " + hot + " AND " + conflict;
+            this.indexSql = List.of(
+                    "CREATE INDEX IF NOT EXISTS idx_" + table + "_cold ON " + table + " (id) WHERE " + cold,
+                    "CREATE INDEX IF NOT EXISTS idx_" + archive + "_restore ON " + archive + " (id) WHERE " + hot);
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    @Autowired
+    private RequestBatchLoader batchLoader;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${archive.customers.inactive-days:90}")
+    private int customerInactiveDays;
+
+    @Value("${archive.employees.terminated-days:30}")
+    private int employeeTerminatedDays;
+
+    @Value("${archive.vacuum:true}")
+    private boolean vacuum;
+
+    @Scheduled(fixedDelayString = "${archive.interval-ms:3600000}",
+            initialDelayString = "${archive.initial-delay-ms:60000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        // El pool compartido se recorre como ROOT; cada tenant con ruta propia, con su tenant
+        TenantContext.runAs(TenantContext.ROOT, this::archiveRoute);
+        for (String tenant : tenancyProperties.getRoutes().keySet()) {
+            TenantContext.runAs(tenant, this::archiveRoute);
+        }
+    }
+
+    private void archiveRoute() {
+        LocalDateTime now = LocalDateTime.now();
+        int archivedCustomers = move(Party.CUSTOMER, true, now.minusDays(customerInactiveDays), now);
+        int archivedEmployees = move(Party.EMPLOYEE, true, now.minusDays(employeeTerminatedDays), now);
+        int restored = move(Party.CUSTOMER, false, null, now) + move(Party.EMPLOYEE, false, null, now);
+        if (archivedCustomers + archivedEmployees + restored > 0) {
+            log.info("Archivo: {} clientes y {} empleados archivados, {} restaurados",
+                    archivedCustomers, archivedEmployees, restored);
+        }
+        warnConflicts(Party.CUSTOMER);
+        warnConflicts(Party.EMPLOYEE);
+        // Recupera el espacio de las filas movidas para que lo reutilicen las inserciones nuevas
+        if (vacuum && archivedCustomers > 0) {
+            vacuum(Party.CUSTOMER);
+        }
+        if (vacuum && archivedEmployees > 0) {
+            vacuum(Party.EMPLOYEE);
+        }
+    }
+
+    // Mueve lotes hasta que no quedan filas que mover; devuelve cuántas se movieron
+    private int move(Party party, boolean toArchive, LocalDateTime cutoff, LocalDateTime now) {
+        int total = 0;
+        while (true) {
+            Map<String, List<Long>> moved;
+            try {
+                moved = new TransactionTemplate(transactionManager).execute(status ->
+                        moveBatch(party, toArchive, cutoff, now));
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Archivo de {} aplazado: {}", party.entity, e.getMessage());
+                return total;
+            }
+            int count = moved == null ? 0 : moved.values().stream().mapToInt(List::size).sum();
+            if (count > 0) {
+                moved.forEach((tenant, ids) -> ids.forEach(id -> changeFeedService.publish(tenant, party.entity, id,
+                        ChangeEvent.Action.UPDATED, null, Set.of("archivedAt"))));
+            }
+            total += count;
+            if (count < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    private Map<String, List<Long>> moveBatch(Party party, boolean toArchive, LocalDateTime cutoff,
+            LocalDateTime now) {
+        Map<String, List<Long>> moved = new LinkedHashMap<>();
+        if (toArchive) {
+            jdbcTemplate.query(party.archiveSql, resultSet -> {
+                moved.computeIfAbsent(resultSet.getString(2), tenant -> new ArrayList<>()).add(resultSet.getLong(1));
+            }, Timestamp.valueOf(cutoff), batchSize, Timestamp.valueOf(now));
+        } else {
+            jdbcTemplate.query(party.restoreSql, resultSet -> {
+                moved.computeIfAbsent(resultSet.getString(2), tenant -> new ArrayList<>()).add(resultSet.getLong(1));
+            }, batchSize);
+        }
+        // Las demás instancias reenvían el cambio a su feed; el NOTIFY solo sale si el lote se confirma
+        moved.forEach((tenant, ids) -> ids.forEach(id ->
+                cacheInvalidationPublisher.publish(tenant, party.entity, id, null, ChangeEvent.Action.UPDATED)));
+        return moved;
+    }
+
+    // La restauración salta estas filas en vez de fallar el lote; se quedan hasta que se corrija el duplicado
+    private void warnConflicts(Party party) {
+        try {
+            Integer conflicts = jdbcTemplate.queryForObject(party.conflictsSql, Integer.class);
+            if (conflicts != null && conflicts > 0) {
+                log.warn("{} filas reactivadas de {} no se restauran: su email o documento ya es de otra fila de {}",
+                        conflicts, party.archive, party.table);
+            }
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron contar los conflictos de {}: {}", party.archive, e.getMessage());
+        }
+    }
+
+    private void vacuum(Party party) {
+        try {
+            jdbcTemplate.execute("VACUUM (ANALYZE) " + party.table);
+        } catch (DataAccessException e) {
+            log.warn("No se pudo hacer VACUUM de {}: {}", party.table, e.getMessage());
+        }
+    }
+
+    // Estados que mantienen una fila en el archivo (los mismos que usa la pasada de restauración)
+    public boolean isCold(CustomerBase customer) {
+        return customer.getStatus() == Customer.CustomerStatus.INACTIVE
+                || customer.getStatus() == Customer.CustomerStatus.BLOCKED;
+    }
+
+    public boolean isCold(EmployeeBase employee) {
+        return employee.getStatus() == Employee.EmployeeStatus.TERMINATED;
+    }
+
+    /**
+     * Devuelve a la tabla activa un cliente archivado que se acaba de
+     * reactivar, dentro de la transacción de la modificación.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Customer restore(ArchivedCustomer customer) {
+        return restore(Party.CUSTOMER, customer, customer.getId(), Customer.class);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Employee restore(ArchivedEmployee employee) {
+        return restore(Party.EMPLOYEE, employee, employee.getId(), Employee.class);
+    }
+
+    private <T> T restore(Party party, Object archived, Long id, Class<T> type) {
+        // Los cambios pendientes de la fila archivada van primero; después se mueve con ellos
+        entityManager.flush();
+        jdbcTemplate.update(party.restoreOneSql, id);
+        entityManager.detach(archived);
+        batchLoader.evict(archived.getClass(), id);
+        batchLoader.evict(type, id);
+        return entityManager.find(type, id);
+    }
+
+    /**
+     * Completa el cliente y el empleado de las ventas que apuntan a una fila
+     * archivada, que la carga de Sale deja vacíos porque solo lee las tablas
+     * activas. Una consulta IN por archivo, y ninguna si todas las referencias
+     * están en las tablas activas.
+     */
+    public void resolveArchivedParties(Collection<Sale> sales) {
+        Set<Long> customerIds = new LinkedHashSet<>();
+        Set<Long> employeeIds = new LinkedHashSet<>();
+        for (Sale sale : sales) {
+            if (sale.getCustomer() == null && sale.getCustomerId() != null) {
+                customerIds.add(sale.getCustomerId());
+            }
+            if (sale.getEmployee() == null && sale.getEmployeeId() != null) {
+                employeeIds.add(sale.getEmployeeId());
+            }
+        }
+        if (customerIds.isEmpty() && employeeIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Customer> customers = new HashMap<>();
+        batchLoader.loadAll(ArchivedCustomer.class, customerIds)
+                .forEach((id, customer) -> customers.put(id, customer.toCustomer()));
+        Map<Long, Employee> employees = new HashMap<>();
+        batchLoader.loadAll(ArchivedEmployee.class, employeeIds)
+                .forEach((id, employee) -> employees.put(id, employee.toEmployee()));
+        for (Sale sale : sales) {
+            if (sale.getCustomer() == null) {
+                sale.setCustomer(customers.get(sale.getCustomerId()));
+            }
+            if (sale.getEmployee() == null) {
+                sale.setEmployee(employees.get(sale.getEmployeeId()));
+            }
+        }
+    }
+}
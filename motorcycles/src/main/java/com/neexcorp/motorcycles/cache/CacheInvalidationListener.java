@@ -0,0 +1,215 @@
+package com.neexcorp.motorcycles.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neexcorp.motorcycles.service.ChangeFeedService;
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import com.neexcorp.motorcycles.tenant.TenantRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mantiene una conexión LISTEN dedicada (fuera del pool de Hikari) por cada
+ * base de datos en uso y aplica las invalidaciones que publican las demás
+ * instancias a las cachés locales. NOTIFY es por base de datos: se escucha en
+ * la de spring.datasource y en la de cada ruta de tenancy.routes con url
+ * propia; las rutas a otro esquema de la misma base comparten su conexión.
+ *
+ * Si una conexión se pierde, al reconectar se hace una resincronización
+ * completa de todas las cachés, porque los NOTIFY enviados mientras no había
+ * conexión no se vuelven a entregar. Los cambios remotos también se
+ * reenvían al feed SSE local.
+ */
+@Component
+public class CacheInvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheInvalidationPublisher publisher;
+
+    @Autowired
+    private List<LocalCache> caches;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.poll-timeout-ms:10000}")
+    private int pollTimeoutMillis;
+
+    @Value("${cache.invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMillis;
+
+    private volatile boolean running;
+    private final List<Listener> listeners = new ArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        for (HikariConfig database : databases()) {
+            Listener listener = new Listener(database);
+            listeners.add(listener);
+            listener.thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Listener listener : listeners) {
+            listener.closeConnection();
+            listener.thread.interrupt();
+        }
+    }
+
+    // Una entrada por base de datos distinta (url y usuario), empezando por la de spring.datasource
+    private List<HikariConfig> databases() {
+        Map<String, HikariConfig> byDatabase = new LinkedHashMap<>();
+        HikariConfig primary = TenantRoutingDataSource.config("shared", null, dataSourceProperties);
+        byDatabase.put(primary.getJdbcUrl() + "|" + primary.getUsername(), primary);
+        tenancyProperties.getRoutes().forEach((tenant, route) -> {
+            HikariConfig config = TenantRoutingDataSource.config("tenant-" + tenant, route, dataSourceProperties);
+            byDatabase.putIfAbsent(config.getJdbcUrl() + "|" + config.getUsername(), config);
+        });
+        return new ArrayList<>(byDatabase.values());
+    }
+
+    private void apply(String payload) {
+        try {
+            InvalidationMessage message = objectMapper.readValue(payload, InvalidationMessage.class);
+            if (publisher.getInstanceId().equals(message.getOrigin())) {
+                return;
+            }
+            String tenant = message.getTenant() != null ? message.getTenant() : TenantContext.getDefaultTenant();
+            for (LocalCache cache : caches) {
+                if (cache.cachedEntity().equals(message.getEntity())) {
+                    TenantContext.runAs(tenant, () -> cache.invalidate(message.getId()));
+                }
+            }
+            changeFeedService.publish(tenant, message.getEntity(), message.getId(), message.getAction(),
+                    message.getVersion(), Set.of());
+        } catch (Exception e) {
+            log.warn("Mensaje de invalidación descartado ({}): {}", e.getMessage(), payload);
+        }
+    }
+
+    private void resyncAll() {
+        for (LocalCache cache : caches) {
+            try {
+                cache.invalidateAll();
+            } catch (RuntimeException e) {
+                log.warn("No se pudo resincronizar la caché de {}: {}", cache.cachedEntity(), e.getMessage());
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /** Conexión LISTEN y su hilo para una base de datos. */
+    private class Listener {
+
+        private final HikariConfig database;
+        private final Thread thread;
+        private volatile Connection connection;
+
+        Listener(HikariConfig database) {
+            this.database = database;
+            this.thread = new Thread(this::listen, "cache-invalidation-" + database.getPoolName());
+            this.thread.setDaemon(true);
+        }
+
+        private void listen() {
+            boolean connectedBefore = false;
+            while (running) {
+                try (Connection listenConnection = DriverManager.getConnection(database.getJdbcUrl(),
+                        database.getUsername(), database.getPassword())) {
+                    connection = listenConnection;
+                    try (Statement statement = listenConnection.createStatement()) {
+                        statement.execute("LISTEN " + CacheInvalidationPublisher.CHANNEL);
+                    }
+                    if (connectedBefore) {
+                        log.info("Conexión LISTEN de {} restablecida, resincronizando cachés locales",
+                                database.getPoolName());
+                        resyncAll();
+                    }
+                    connectedBefore = true;
+
+                    PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+                    while (running) {
+                        PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                        if (notifications == null || notifications.length == 0) {
+                            // Sin mensajes: comprobar que la conexión sigue viva
+                            try (Statement statement = listenConnection.createStatement()) {
+                                statement.execute("SELECT 1");
+                            }
+                            continue;
+                        }
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                } catch (SQLException e) {
+                    if (running) {
+                        log.warn("Conexión LISTEN de {} perdida: {}", database.getPoolName(), e.getMessage());
+                        sleepBeforeReconnect();
+                    }
+                } finally {
+                    connection = null;
+                }
+            }
+        }
+
+        private void closeConnection() {
+            Connection current = connection;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (SQLException e) {
+                    // Se está cerrando la aplicación
+                }
+            }
+        }
+    }
+}
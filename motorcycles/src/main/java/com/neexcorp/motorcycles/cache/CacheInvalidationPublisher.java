@@ -0,0 +1,133 @@
+package com.neexcorp.motorcycles.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neexcorp.motorcycles.event.ChangeEvent;
+import com.neexcorp.motorcycles.event.EntityChangeListener;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.UUID;
+
+/**
+ * Publica mensajes de invalidación con pg_notify dentro de la misma
+ * transacción que modifica la entidad. PostgreSQL solo entrega un NOTIFY
+ * cuando la transacción se confirma, así que nunca se anuncia un rollback.
+ */
+@Component
+public class CacheInvalidationPublisher implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    public static final String CHANNEL = "cache_invalidation";
+
+    private static final String NOTIFY = "select pg_notify(?, ?)";
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @PostConstruct
+    public void register() {
+        if (!enabled) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        schedule(event.getSession(), event.getPersister(), event.getId(), event.getEntity(), ChangeEvent.Action.CREATED);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        schedule(event.getSession(), event.getPersister(), event.getId(), event.getEntity(), ChangeEvent.Action.UPDATED);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        schedule(event.getSession(), event.getPersister(), event.getId(), event.getEntity(), ChangeEvent.Action.DELETED);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Para escrituras hechas con JDBC directo: debe llamarse dentro de la
+     * transacción de Spring que hace el cambio.
+     */
+    public void publish(String entity, Long id, Object version, ChangeEvent.Action action) {
+        publish(TenantContext.current(), entity, id, version, action);
+    }
+
+    public void publish(String tenant, String entity, Long id, Object version, ChangeEvent.Action action) {
+        if (enabled) {
+            jdbcTemplate.query(NOTIFY, resultSet -> {
+            }, CHANNEL, payload(tenant, entity, id, version, action));
+        }
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    // El NOTIFY se envía al final de la transacción, después del flush y antes del commit
+    private void schedule(EventSource session, EntityPersister persister, Object id, Object entity,
+            ChangeEvent.Action action) {
+        String name = EntityChangeListener.entityName(persister);
+        Object version = persister.isVersioned() ? persister.getVersion(entity) : null;
+        String payload = payload(EntityChangeListener.tenant(session), name, (Long) id, version, action);
+        session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) current ->
+                current.doWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(NOTIFY)) {
+                        statement.setString(1, CHANNEL);
+                        statement.setString(2, payload);
+                        statement.execute();
+                    }
+                }));
+    }
+
+    private String payload(String tenant, String entity, Long id, Object version, ChangeEvent.Action action) {
+        try {
+            return objectMapper.writeValueAsString(
+                    new InvalidationMessage(instanceId, tenant, entity, id, version, action));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el mensaje de invalidación", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.neexcorp.motorcycles.cache;
+
+import com.neexcorp.motorcycles.event.ChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Mensaje que viaja por NOTIFY. origin identifica a la instancia que hizo
+ * el cambio para que no se lo aplique a sí misma.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationMessage {
+
+    private String origin;
+    private String tenant;
+    private String entity;
+    private Long id;
+    private Object version;
+    private ChangeEvent.Action action;
+}
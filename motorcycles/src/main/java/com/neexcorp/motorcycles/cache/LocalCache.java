@@ -0,0 +1,17 @@
+package com.neexcorp.motorcycles.cache;
+
+/**
+ * Caché en memoria de una instancia que debe invalidarse cuando otra
+ * instancia confirma cambios sobre la misma entidad.
+ */
+public interface LocalCache {
+
+    /** Nombre de la entidad tal como viaja en los mensajes ("motorcycle", "customer"...). */
+    String cachedEntity();
+
+    /** Se invoca con el concesionario de la entidad fijado en TenantContext. */
+    void invalidate(Long id);
+
+    /** Resincronización completa, p. ej. tras perder la conexión LISTEN. */
+    void invalidateAll();
+}
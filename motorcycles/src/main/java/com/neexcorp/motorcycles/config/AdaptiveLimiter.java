@@ -0,0 +1,147 @@
+package com.neexcorp.motorcycles.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bulkhead con límite de concurrencia adaptativo y cola de espera acotada.
+ *
+ * El límite se ajusta con un gradiente entre la latencia mínima observada y
+ * la latencia suavizada: si las peticiones empiezan a tardar más que la
+ * mínima (cola en el pool de conexiones o en la base de datos) el límite baja,
+ * y cuando la latencia vuelve a la normalidad sube de nuevo hasta maxLimit.
+ */
+public class AdaptiveLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 2.0;
+    private static final int MIN_RTT_RESET_SAMPLES = 1000;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+
+    private long minRttNanos = Long.MAX_VALUE;
+    private double smoothedRttNanos;
+    private int samples;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, int maxQueue) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * Intenta obtener un permiso esperando como máximo timeoutMillis.
+     * Devuelve false de inmediato si la cola de espera ya está llena.
+     */
+    public boolean tryAcquire(long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= maxQueue || timeoutMillis <= 0) {
+                return false;
+            }
+            waiting++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el permiso y alimenta el algoritmo con la latencia de la petición.
+     */
+    public void release(long rttNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            updateLimit(rttNanos);
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(long rttNanos) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        // La latencia mínima se reinicia periódicamente para seguir cambios de carga reales
+        if (++samples >= MIN_RTT_RESET_SAMPLES) {
+            samples = 0;
+            minRttNanos = rttNanos;
+        }
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        smoothedRttNanos = smoothedRttNanos == 0
+                ? rttNanos
+                : smoothedRttNanos * (1 - SMOOTHING) + rttNanos * SMOOTHING;
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * minRttNanos / smoothedRttNanos));
+        double queueAllowance = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueAllowance;
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.neexcorp.motorcycles.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Control de admisión delante del pool de conexiones.
+ *
+ * Cada clase de endpoint tiene su propio bulkhead, de modo que una ráfaga de
+ * listados no puede ocupar las conexiones que necesitan las ventas. Cuando un
+ * bulkhead está saturado y su cola llena se responde 503 con Retry-After en
+ * lugar de dejar el hilo esperando una conexión de Hikari.
+ *
+ * Los streams de /api/reactive tienen un bulkhead fijo: su duración depende
+ * del cliente y no de la carga, así que no alimentan el ajuste adaptativo, y
+ * el permiso se mantiene hasta que termina la respuesta asíncrona, no solo
+ * mientras se prepara.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        SALE_WRITE, WRITE, READ, STREAM
+    }
+
+    private final AdaptiveLimiter saleWrites;
+    private final AdaptiveLimiter writes;
+    private final AdaptiveLimiter reads;
+    private final AdaptiveLimiter streams;
+
+    private final long saleWriteWaitMillis;
+    private final long writeWaitMillis;
+    private final long readWaitMillis;
+    private final long streamWaitMillis;
+    private final int retryAfterSeconds;
+
+    public AdmissionControlFilter(
+            @Value("${admission.sale-writes.max-concurrency:8}") int saleWriteLimit,
+            @Value("${admission.sale-writes.max-queue:50}") int saleWriteQueue,
+            @Value("${admission.sale-writes.max-wait-ms:3000}") long saleWriteWaitMillis,
+            @Value("${admission.writes.max-concurrency:4}") int writeLimit,
+            @Value("${admission.writes.max-queue:20}") int writeQueue,
+            @Value("${admission.writes.max-wait-ms:1000}") long writeWaitMillis,
+            @Value("${admission.reads.max-concurrency:8}") int readLimit,
+            @Value("${admission.reads.max-queue:20}") int readQueue,
+            @Value("${admission.reads.max-wait-ms:250}") long readWaitMillis,
+            @Value("${admission.streams.max-concurrency:8}") int streamLimit,
+            @Value("${admission.streams.max-queue:10}") int streamQueue,
+            @Value("${admission.streams.max-wait-ms:250}") long streamWaitMillis,
+            @Value("${admission.retry-after-seconds:2}") int retryAfterSeconds) {
+        this.saleWrites = new AdaptiveLimiter("sale-writes", saleWriteLimit, Math.min(2, saleWriteLimit), saleWriteLimit, saleWriteQueue);
+        this.writes = new AdaptiveLimiter("writes", writeLimit, 1, writeLimit, writeQueue);
+        this.reads = new AdaptiveLimiter("reads", readLimit, 1, readLimit, readQueue);
+        this.streams = new AdaptiveLimiter("streams", streamLimit, streamLimit, streamLimit, streamQueue);
+        this.saleWriteWaitMillis = saleWriteWaitMillis;
+        this.writeWaitMillis = writeWaitMillis;
+        this.readWaitMillis = readWaitMillis;
+        this.streamWaitMillis = streamWaitMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        // El stream SSE es de larga duración, health no toca la base de datos,
+        // las descargas de documentos solo leen un fichero local y el perfilado
+        // (autenticado antes, en ProfilingAccessFilter) debe responder justo
+        // cuando el servidor está saturado
+        return !path.startsWith("/api/")
+                || path.startsWith("/api/stream")
+                || path.startsWith("/api/health")
+                || path.startsWith("/api/admin/profiling")
+                || (path.startsWith("/api/jobs/") && path.endsWith("/download"))
+                || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        AdaptiveLimiter limiter = limiterFor(endpointClass);
+
+        boolean acquired;
+        try {
+            acquired = limiter.tryAcquire(waitFor(endpointClass));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            reject(response, limiter);
+            return;
+        }
+
+        if (endpointClass == EndpointClass.STREAM) {
+            streamThrough(request, response, chain);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    // chain.doFilter vuelve en cuanto empieza la respuesta asíncrona; el permiso se libera al terminarla
+    private void streamThrough(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                streams.release(0);
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (request.getRequestURI().startsWith("/api/reactive/")) {
+            return EndpointClass.STREAM;
+        }
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return EndpointClass.READ;
+        }
+        if (request.getRequestURI().startsWith("/api/sales")) {
+            return EndpointClass.SALE_WRITE;
+        }
+        return EndpointClass.WRITE;
+    }
+
+    private AdaptiveLimiter limiterFor(EndpointClass endpointClass) {
+        switch (endpointClass) {
+            case SALE_WRITE:
+                return saleWrites;
+            case WRITE:
+                return writes;
+            case STREAM:
+                return streams;
+            default:
+                return reads;
+        }
+    }
+
+    private long waitFor(EndpointClass endpointClass) {
+        switch (endpointClass) {
+            case SALE_WRITE:
+                return saleWriteWaitMillis;
+            case WRITE:
+                return writeWaitMillis;
+            case STREAM:
+                return streamWaitMillis;
+            default:
+                return readWaitMillis;
+        }
+    }
+
+    private void reject(HttpServletResponse response, AdaptiveLimiter limiter) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"Servidor saturado (" + limiter.getName()
+                + "), intente de nuevo en " + retryAfterSeconds + " s\"}");
+    }
+}
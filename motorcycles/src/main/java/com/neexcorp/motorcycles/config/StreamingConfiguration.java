@@ -0,0 +1,78 @@
+package com.neexcorp.motorcycles.config;
+
+import com.neexcorp.motorcycles.controller.ReactiveReadHandler;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Servlet propio para /api/reactive, al lado del DispatcherServlet.
+ *
+ * Spring MVC escribe los Flux con E/S de servlet bloqueante en un hilo de su
+ * ejecutor, así que un cliente lento ocupaba un hilo mientras se le escribía.
+ * Este servlet adapta ReactiveReadHandler con ServletHttpHandlerAdapter, que
+ * escribe con WriteListener (E/S no bloqueante de Servlet 3.1) y solo pide el
+ * siguiente fragmento cuando el socket lo admite: ningún hilo espera al
+ * cliente. Los filtros de servlet (tenant, admisión) se aplican igual que al
+ * resto de la API; cuántos streams hay a la vez lo sigue limitando el
+ * bulkhead "streams" de AdmissionControlFilter, y cada respuesta se corta
+ * tras reactive.timeout-ms.
+ */
+@Configuration
+public class StreamingConfiguration {
+
+    @Bean
+    public ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveReadServlet(
+            ReactiveReadHandler handler,
+            @Value("${reactive.timeout-ms:600000}") long timeoutMillis) {
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.addAllowedOrigin("*");
+        cors.setAllowedMethods(List.of(HttpMethod.GET.name()));
+        cors.addAllowedHeader("*");
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", cors);
+
+        HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(handler)
+                .filter(new CorsWebFilter(source))
+                .build();
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration = new ServletRegistrationBean<>(
+                new TimedHttpHandlerAdapter(httpHandler, timeoutMillis), "/api/reactive/*");
+        registration.setName("reactiveReads");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+
+    // El adaptador deja la respuesta asíncrona sin tiempo máximo; se fija después de arrancarla
+    static class TimedHttpHandlerAdapter extends ServletHttpHandlerAdapter {
+
+        private final long timeoutMillis;
+
+        TimedHttpHandlerAdapter(HttpHandler httpHandler, long timeoutMillis) {
+            super(httpHandler);
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public void service(ServletRequest request, ServletResponse response) throws ServletException, IOException {
+            super.service(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().setTimeout(timeoutMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.neexcorp.motorcycles.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Formatos de respuesta de la API.
+ *
+ * - Blackbird sustituye la reflexión de Jackson por accesores generados con
+ *   LambdaMetafactory; Spring Boot registra el módulo en todos sus ObjectMapper.
+ * - Además de JSON se negocian Smile (application/x-jackson-smile) y CBOR
+ *   (application/cbor) según la cabecera Accept, con la misma configuración
+ *   de Jackson que el JSON (fechas, zona horaria, módulos).
+ *
+ * La compresión gzip por tamaño se configura en server.compression.*.
+ */
+@Configuration
+public class WireFormatConfiguration {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // Sustituyen a los convertidores por defecto, que no aplican spring.jackson.*
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper smileMapper = builder.createXmlMapper(false).factory(new SmileFactory()).build();
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper);
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cborMapper = builder.createXmlMapper(false).factory(new CBORFactory()).build();
+        return new MappingJackson2CborHttpMessageConverter(cborMapper);
+    }
+}
@@ -1,13 +1,19 @@
 package com.neexcorp.motorcycles.controller;
 
 import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.service.FieldProjectionService;
 import com.neexcorp.motorcycles.service.CustomerService;
+import com.neexcorp.motorcycles.service.OptimisticConcurrency;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -17,23 +23,39 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private FieldProjectionService fieldProjectionService;
+
+    @Autowired
+    private OptimisticConcurrency concurrency;
+
     // CREATE
     @PostMapping
-    public ResponseEntity<Customer> create(@RequestBody Customer customer) {
+    public ResponseEntity<?> create(@RequestBody Customer customer) {
         try {
             Customer created = customerService.create(customer);
             return new ResponseEntity<>(created, HttpStatus.CREATED);
+        } catch (DuplicateKeyException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
     }
 
-    // READ ALL
+    // READ ALL (o varios por id: ?ids=1,2,3; solo algunos campos: ?fields=id,email; con archivados: ?includeArchived=true)
     @GetMapping
-    public ResponseEntity<List<Customer>> getAll() {
+    public ResponseEntity<?> getAll(@RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            List<Customer> customers = customerService.findAll();
+            if (fields != null) {
+                return new ResponseEntity<>(fieldProjectionService.findAll(Customer.class, fields, ids, includeArchived),
+                        HttpStatus.OK);
+            }
+            List<Customer> customers = ids != null ? customerService.findAllById(ids) : customerService.findAll(includeArchived);
             return new ResponseEntity<>(customers, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -41,21 +63,80 @@ public class CustomerController {
 
     // READ BY ID
     @GetMapping("/{id}")
-    public ResponseEntity<Customer> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(@PathVariable Long id, @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                return new ResponseEntity<>(fieldProjectionService.findById(Customer.class, fields, id), HttpStatus.OK);
+            }
             Customer customer = customerService.findById(id);
-            return new ResponseEntity<>(customer, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(customer.getVersion())).body(customer);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
     }
 
-    // UPDATE
+    // READ BY EMAIL - 404 si no existe
+    @GetMapping("/by-email/{email}")
+    public ResponseEntity<Customer> getByEmail(@PathVariable String email) {
+        try {
+            return customerService.findByEmail(email)
+                    .map(found -> new ResponseEntity<>(found, HttpStatus.OK))
+                    .orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // EXISTS BY EMAIL - HEAD: 200 si ya está en uso, 404 si está libre
+    @RequestMapping(value = "/by-email/{email}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> existsByEmail(@PathVariable String email) {
+        try {
+            return new ResponseEntity<>(customerService.existsByEmail(email) ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // READ BY DOCUMENT - 404 si no existe
+    @GetMapping("/by-document/{documentNumber}")
+    public ResponseEntity<Customer> getByDocumentNumber(@PathVariable String documentNumber) {
+        try {
+            return customerService.findByDocumentNumber(documentNumber)
+                    .map(found -> new ResponseEntity<>(found, HttpStatus.OK))
+                    .orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // EXISTS BY DOCUMENT - HEAD: 200 si ya está en uso, 404 si está libre
+    @RequestMapping(value = "/by-document/{documentNumber}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> existsByDocumentNumber(@PathVariable String documentNumber) {
+        try {
+            return new ResponseEntity<>(customerService.existsByDocumentNumber(documentNumber) ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // UPDATE - condicional con If-Match: 412 y la versión actual si otro la cambió antes
     @PutMapping("/{id}")
-    public ResponseEntity<Customer> update(@PathVariable Long id, @RequestBody Customer customer) {
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Customer customer,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (concurrency.isMissing(ifMatch, customer.getVersion())) {
+            return new ResponseEntity<>(Map.of("error", "If-Match header or version is required"),
+                    HttpStatus.PRECONDITION_REQUIRED);
+        }
         try {
-            Customer updated = customerService.update(id, customer);
-            return new ResponseEntity<>(updated, HttpStatus.OK);
+            Customer updated = customerService.update(id, customer,
+                    concurrency.expectedVersion(ifMatch, customer.getVersion()));
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return concurrency.preconditionFailed(() -> customerService.findById(id), Customer::getVersion);
+        } catch (DuplicateKeyException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
@@ -1,13 +1,18 @@
 package com.neexcorp.motorcycles.controller;
 
 import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.service.FieldProjectionService;
 import com.neexcorp.motorcycles.service.DetailSaleService;
+import com.neexcorp.motorcycles.service.OptimisticConcurrency;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/detail-sales")
@@ -17,6 +22,12 @@ public class DetailSaleController {
     @Autowired
     private DetailSaleService detailSaleService;
 
+    @Autowired
+    private FieldProjectionService fieldProjectionService;
+
+    @Autowired
+    private OptimisticConcurrency concurrency;
+
     // CREATE
     @PostMapping
     public ResponseEntity<DetailSale> create(@RequestBody DetailSale detailSale) {
@@ -28,12 +39,17 @@ public class DetailSaleController {
         }
     }
 
-    // READ ALL
+    // READ ALL (solo algunos campos: ?fields=id,quantity,motorcycle.code)
     @GetMapping
-    public ResponseEntity<List<DetailSale>> getAll() {
+    public ResponseEntity<?> getAll(@RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                return new ResponseEntity<>(fieldProjectionService.findAll(DetailSale.class, fields, null), HttpStatus.OK);
+            }
             List<DetailSale> detailSales = detailSaleService.findAll();
             return new ResponseEntity<>(detailSales, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -41,21 +57,34 @@ public class DetailSaleController {
 
     // READ BY ID
     @GetMapping("/{id}")
-    public ResponseEntity<DetailSale> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(@PathVariable Long id, @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                return new ResponseEntity<>(fieldProjectionService.findById(DetailSale.class, fields, id), HttpStatus.OK);
+            }
             DetailSale detailSale = detailSaleService.findById(id);
-            return new ResponseEntity<>(detailSale, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(detailSale.getVersion())).body(detailSale);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
     }
 
-    // UPDATE
+    // UPDATE - condicional con If-Match: 412 y la versión actual si otro la cambió antes
     @PutMapping("/{id}")
-    public ResponseEntity<DetailSale> update(@PathVariable Long id, @RequestBody DetailSale detailSale) {
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody DetailSale detailSale,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (concurrency.isMissing(ifMatch, detailSale.getVersion())) {
+            return new ResponseEntity<>(Map.of("error", "If-Match header or version is required"),
+                    HttpStatus.PRECONDITION_REQUIRED);
+        }
         try {
-            DetailSale updated = detailSaleService.update(id, detailSale);
-            return new ResponseEntity<>(updated, HttpStatus.OK);
+            DetailSale updated = detailSaleService.update(id, detailSale,
+                    concurrency.expectedVersion(ifMatch, detailSale.getVersion()));
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return concurrency.preconditionFailed(() -> detailSaleService.findById(id), DetailSale::getVersion);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
@@ -0,0 +1,80 @@
+package com.neexcorp.motorcycles.controller;
+
+import com.neexcorp.motorcycles.model.DocumentJob;
+import com.neexcorp.motorcycles.service.DocumentJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = "*")
+public class DocumentJobController {
+
+    @Autowired
+    private DocumentJobService documentJobService;
+
+    // CREATE - encola una factura o un reporte; responde 202 con el trabajo
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody DocumentJob request) {
+        try {
+            DocumentJob job = documentJobService.submit(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/jobs/" + job.getId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Demasiados trabajos en cola, inténtelo más tarde"));
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // READ BY ID - estado del trabajo
+    @GetMapping("/{id}")
+    public ResponseEntity<DocumentJob> getById(@PathVariable Long id) {
+        try {
+            return new ResponseEntity<>(documentJobService.findById(id), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // DOWNLOAD - 409 mientras el trabajo no haya terminado
+    @GetMapping("/{id}/download")
+    public ResponseEntity<?> download(@PathVariable Long id) {
+        try {
+            DocumentJob job = documentJobService.findById(id);
+            Path file = documentJobService.getFile(job);
+            MediaType contentType = job.getFormat() == DocumentJob.JobFormat.PDF
+                    ? MediaType.APPLICATION_PDF
+                    : new MediaType("text", "csv", StandardCharsets.UTF_8);
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .contentLength(job.getFileSize())
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(job.getFileName())
+                            .build()
+                            .toString())
+                    .body(new FileSystemResource(file));
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+    }
+}
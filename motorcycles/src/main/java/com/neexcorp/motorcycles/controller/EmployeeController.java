@@ -1,13 +1,19 @@
 package com.neexcorp.motorcycles.controller;
 
 import com.neexcorp.motorcycles.model.Employee;
+import com.neexcorp.motorcycles.service.FieldProjectionService;
 import com.neexcorp.motorcycles.service.EmployeeService;
+import com.neexcorp.motorcycles.service.OptimisticConcurrency;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -17,23 +23,39 @@ public class EmployeeController {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private FieldProjectionService fieldProjectionService;
+
+    @Autowired
+    private OptimisticConcurrency concurrency;
+
     // CREATE
     @PostMapping
-    public ResponseEntity<Employee> create(@RequestBody Employee employee) {
+    public ResponseEntity<?> create(@RequestBody Employee employee) {
         try {
             Employee created = employeeService.create(employee);
             return new ResponseEntity<>(created, HttpStatus.CREATED);
+        } catch (DuplicateKeyException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
     }
 
-    // READ ALL
+    // READ ALL (o varios por id: ?ids=1,2,3; solo algunos campos: ?fields=id,email; con archivados: ?includeArchived=true)
     @GetMapping
-    public ResponseEntity<List<Employee>> getAll() {
+    public ResponseEntity<?> getAll(@RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            List<Employee> employees = employeeService.findAll();
+            if (fields != null) {
+                return new ResponseEntity<>(fieldProjectionService.findAll(Employee.class, fields, ids, includeArchived),
+                        HttpStatus.OK);
+            }
+            List<Employee> employees = ids != null ? employeeService.findAllById(ids) : employeeService.findAll(includeArchived);
             return new ResponseEntity<>(employees, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -41,21 +63,80 @@ public class EmployeeController {
 
     // READ BY ID
     @GetMapping("/{id}")
-    public ResponseEntity<Employee> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(@PathVariable Long id, @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                return new ResponseEntity<>(fieldProjectionService.findById(Employee.class, fields, id), HttpStatus.OK);
+            }
             Employee employee = employeeService.findById(id);
-            return new ResponseEntity<>(employee, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(employee.getVersion())).body(employee);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
     }
 
-    // UPDATE
+    // READ BY EMAIL - 404 si no existe
+    @GetMapping("/by-email/{email}")
+    public ResponseEntity<Employee> getByEmail(@PathVariable String email) {
+        try {
+            return employeeService.findByEmail(email)
+                    .map(found -> new ResponseEntity<>(found, HttpStatus.OK))
+                    .orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // EXISTS BY EMAIL - HEAD: 200 si ya está en uso, 404 si está libre
+    @RequestMapping(value = "/by-email/{email}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> existsByEmail(@PathVariable String email) {
+        try {
+            return new ResponseEntity<>(employeeService.existsByEmail(email) ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // READ BY DOCUMENT - 404 si no existe
+    @GetMapping("/by-document/{documentNumber}")
+    public ResponseEntity<Employee> getByDocumentNumber(@PathVariable String documentNumber) {
+        try {
+            return employeeService.findByDocumentNumber(documentNumber)
+                    .map(found -> new ResponseEntity<>(found, HttpStatus.OK))
+                    .orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // EXISTS BY DOCUMENT - HEAD: 200 si ya está en uso, 404 si está libre
+    @RequestMapping(value = "/by-document/{documentNumber}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> existsByDocumentNumber(@PathVariable String documentNumber) {
+        try {
+            return new ResponseEntity<>(employeeService.existsByDocumentNumber(documentNumber) ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // UPDATE - condicional con If-Match: 412 y la versión actual si otro la cambió antes
     @PutMapping("/{id}")
-    public ResponseEntity<Employee> update(@PathVariable Long id, @RequestBody Employee employee) {
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Employee employee,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (concurrency.isMissing(ifMatch, employee.getVersion())) {
+            return new ResponseEntity<>(Map.of("error", "If-Match header or version is required"),
+                    HttpStatus.PRECONDITION_REQUIRED);
+        }
         try {
-            Employee updated = employeeService.update(id, employee);
-            return new ResponseEntity<>(updated, HttpStatus.OK);
+            Employee updated = employeeService.update(id, employee,
+                    concurrency.expectedVersion(ifMatch, employee.getVersion()));
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return concurrency.preconditionFailed(() -> employeeService.findById(id), Employee::getVersion);
+        } catch (DuplicateKeyException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
@@ -0,0 +1,48 @@
+package com.neexcorp.motorcycles.controller;
+
+import com.neexcorp.motorcycles.service.ChangeFeedService;
+import com.neexcorp.motorcycles.service.WarmupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/health")
+@CrossOrigin(origins = "*")
+public class HealthController {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private WarmupService warmupService;
+
+    // LIVENESS - no consulta la base de datos
+    @GetMapping
+    public ResponseEntity<?> health() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", "UP");
+        response.put("timestamp", LocalDateTime.now());
+        response.put("lastEventId", changeFeedService.getCurrentEventId());
+        return ResponseEntity.ok(response);
+    }
+
+    // READINESS - 503 mientras dura el calentamiento de arranque (o hasta warmup.timeout-ms)
+    @GetMapping("/ready")
+    public ResponseEntity<?> ready() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        boolean ready = warmupService.isReady();
+        response.put("status", ready ? "READY" : "WARMING_UP");
+        response.put("warmupFinished", warmupService.isFinished());
+        if (warmupService.getDurationMillis() >= 0) {
+            response.put("warmupMs", warmupService.getDurationMillis());
+        }
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+}
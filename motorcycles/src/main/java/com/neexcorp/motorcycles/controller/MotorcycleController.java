@@ -1,61 +1,261 @@
 package com.neexcorp.motorcycles.controller;
 
+import com.neexcorp.motorcycles.model.InventoryMovement;
 import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.service.CatalogSnapshot;
+import com.neexcorp.motorcycles.service.FieldProjectionService;
+import com.neexcorp.motorcycles.service.InventoryService;
 import com.neexcorp.motorcycles.service.MotorcycleService;
+import com.neexcorp.motorcycles.service.OptimisticConcurrency;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/motorcycles")
 @CrossOrigin(origins = "*")
 public class MotorcycleController {
 
+    private static final List<MediaType> CATALOG_FORMATS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.valueOf("application/x-jackson-smile"), MediaType.APPLICATION_CBOR);
+
     @Autowired
     private MotorcycleService motorcycleService;
 
+    @Autowired
+    private FieldProjectionService fieldProjectionService;
+
+    @Autowired
+    private OptimisticConcurrency concurrency;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ContentNegotiationManager contentNegotiationManager;
+
     // CREATE
     @PostMapping
-    public ResponseEntity<Motorcycle> create(@RequestBody Motorcycle motorcycle) {
+    public ResponseEntity<?> create(@RequestBody Motorcycle motorcycle) {
         try {
             Motorcycle created = motorcycleService.create(motorcycle);
             return new ResponseEntity<>(created, HttpStatus.CREATED);
+        } catch (DuplicateKeyException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
     }
 
-    // READ ALL
+    // READ ALL - bytes JSON pre-serializados con ETag (o varias por id: ?ids=1,2,3)
     @GetMapping
-    public ResponseEntity<List<Motorcycle>> getAll() {
+    public ResponseEntity<?> getAll(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            NativeWebRequest request) {
         try {
-            List<Motorcycle> motorcycles = motorcycleService.findAll();
-            return new ResponseEntity<>(motorcycles, HttpStatus.OK);
+            if (fields != null) {
+                return new ResponseEntity<>(fieldProjectionService.findAll(Motorcycle.class, fields, ids), HttpStatus.OK);
+            }
+            if (ids != null) {
+                return new ResponseEntity<>(motorcycleService.findAllById(ids), HttpStatus.OK);
+            }
+            // El formato se elige antes de comparar el ETag: cada formato tiene el suyo
+            MediaType format = catalogFormat(request);
+            CatalogSnapshot catalog = motorcycleService.getCatalog();
+            String etag = etag(catalog, format);
+            if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(format)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+            // Smile y CBOR se serializan en cada petición; los bytes pre-serializados son JSON
+            if (!format.equals(MediaType.APPLICATION_JSON)) {
+                return response.body(catalog.getMotorcycles());
+            }
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalog.getGzip());
+            }
+            return response.body(catalog.getJson());
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_ACCEPTABLE);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Formato del catálogo según la negociación de Spring MVC (Accept con calidades); JSON si no pide ninguno
+    private MediaType catalogFormat(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> accepted = new ArrayList<>(contentNegotiationManager.resolveMediaTypes(request));
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType acceptable : accepted) {
+            for (MediaType format : CATALOG_FORMATS) {
+                if (acceptable.isCompatibleWith(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // Un ETag por formato, para que ninguna caché sirva Smile o CBOR a quien pidió JSON
+    private static String etag(CatalogSnapshot catalog, MediaType format) {
+        String etag = catalog.getEtag();
+        if (format.equals(MediaType.APPLICATION_JSON)) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + format.getSubtype() + "\"";
+    }
+
     // READ BY ID
     @GetMapping("/{id}")
-    public ResponseEntity<Motorcycle> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(@PathVariable Long id, @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                return new ResponseEntity<>(fieldProjectionService.findById(Motorcycle.class, fields, id), HttpStatus.OK);
+            }
             Motorcycle motorcycle = motorcycleService.findById(id);
-            return new ResponseEntity<>(motorcycle, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(motorcycle.getVersion())).body(motorcycle);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
     }
 
-    // UPDATE
+    // STOCK ACTUAL O A UNA FECHA (?asOf=2025-01-31T23:59:59)
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<Map<String, Object>> getStock(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        if (!motorcycleService.isVisible(id)) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        try {
+            LocalDateTime at = asOf != null ? asOf : LocalDateTime.now();
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("motorcycleId", id);
+            body.put("asOf", at);
+            body.put("stock", inventoryService.stockAsOf(id, at));
+            return new ResponseEntity<>(body, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // HISTORIAL DE MOVIMIENTOS DE STOCK en (from, to]
+    @GetMapping("/{id}/stock-history")
+    public ResponseEntity<Map<String, Object>> getStockHistory(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!motorcycleService.isVisible(id)) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        try {
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from : end.minusDays(30);
+            if (start.isAfter(end)) {
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+            }
+            List<InventoryMovement> movements = inventoryService.history(id, start, end);
+            int opening = inventoryService.stockAsOf(id, start);
+            int closing = opening + movements.stream().mapToInt(InventoryMovement::getQuantity).sum();
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("motorcycleId", id);
+            body.put("from", start);
+            body.put("to", end);
+            body.put("openingStock", opening);
+            body.put("closingStock", closing);
+            body.put("movements", movements);
+            return new ResponseEntity<>(body, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // REGISTRAR ENTRADA, DEVOLUCIÓN O AJUSTE
+    @PostMapping("/{id}/stock-movements")
+    public ResponseEntity<?> addStockMovement(@PathVariable Long id, @RequestBody InventoryMovement movement) {
+        try {
+            motorcycleService.findById(id);
+            movement.setMotorcycleId(id);
+            return new ResponseEntity<>(inventoryService.record(movement), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // READ BY CODE - 404 si no existe
+    @GetMapping("/by-code/{code}")
+    public ResponseEntity<Motorcycle> getByCode(@PathVariable String code) {
+        try {
+            return motorcycleService.findByCode(code)
+                    .map(found -> new ResponseEntity<>(found, HttpStatus.OK))
+                    .orElseGet(() -> new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // EXISTS BY CODE - HEAD: 200 si ya está en uso, 404 si está libre
+    @RequestMapping(value = "/by-code/{code}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> existsByCode(@PathVariable String code) {
+        try {
+            return new ResponseEntity<>(motorcycleService.existsByCode(code) ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // UPDATE - condicional con If-Match: 412 y la versión actual si otro la cambió antes
     @PutMapping("/{id}")
-    public ResponseEntity<Motorcycle> update(@PathVariable Long id, @RequestBody Motorcycle motorcycle) {
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Motorcycle motorcycle,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (concurrency.isMissing(ifMatch, motorcycle.getVersion())) {
+            return new ResponseEntity<>(Map.of("error", "If-Match header or version is required"),
+                    HttpStatus.PRECONDITION_REQUIRED);
+        }
         try {
-            Motorcycle updated = motorcycleService.update(id, motorcycle);
-            return new ResponseEntity<>(updated, HttpStatus.OK);
+            Motorcycle updated = motorcycleService.update(id, motorcycle,
+                    concurrency.expectedVersion(ifMatch, motorcycle.getVersion()));
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return concurrency.preconditionFailed(() -> motorcycleService.findById(id), Motorcycle::getVersion);
+        } catch (DuplicateKeyException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
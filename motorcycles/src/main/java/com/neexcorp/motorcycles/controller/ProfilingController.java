@@ -0,0 +1,95 @@
+package com.neexcorp.motorcycles.controller;
+
+import com.neexcorp.motorcycles.profiling.ProfilingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Grabaciones JFR bajo demanda. Solo existe con profiling.enabled=true y cada
+ * petición necesita el token de administración (ProfilingAccessFilter); no se
+ * expone a otros orígenes por CORS.
+ */
+@RestController
+@RequestMapping("/api/admin/profiling")
+@ConditionalOnProperty(prefix = "profiling", name = "enabled", havingValue = "true")
+public class ProfilingController {
+
+    @Autowired
+    private ProfilingService profilingService;
+
+    // ESTADO - grabación continua y última grabación puntual
+    @GetMapping
+    public ResponseEntity<?> status() {
+        return ResponseEntity.ok(profilingService.status());
+    }
+
+    // START - ?durationSeconds=60&settings=profile; 409 si ya hay una en curso
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam(required = false) Long durationSeconds,
+            @RequestParam(required = false) String settings) {
+        try {
+            return ResponseEntity.ok(profilingService.start(durationSeconds, settings));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
+        }
+    }
+
+    // STOP - 409 si no hay ninguna en curso
+    @PostMapping("/stop")
+    public ResponseEntity<?> stop() {
+        try {
+            return ResponseEntity.ok(profilingService.stop());
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
+        }
+    }
+
+    // DOWNLOAD - .jfr de la última grabación puntual; 409 mientras siga en curso
+    @GetMapping("/download")
+    public ResponseEntity<?> download() {
+        try {
+            return file(profilingService.getRecordingFile());
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // DOWNLOAD CONTINUOUS - volcado de la grabación continua (última hora)
+    @GetMapping("/continuous")
+    public ResponseEntity<?> downloadContinuous() {
+        try {
+            return file(profilingService.dumpContinuous());
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private ResponseEntity<?> file(Path file) throws Exception {
+        if (file == null) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(file))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName().toString())
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(file));
+    }
+}
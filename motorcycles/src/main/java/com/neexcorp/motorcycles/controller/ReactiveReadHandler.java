@@ -0,0 +1,132 @@
+package com.neexcorp.motorcycles.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neexcorp.motorcycles.service.ReactiveReadService;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lecturas en streaming sobre R2DBC, servidas por StreamingConfiguration con
+ * E/S de servlet no bloqueante: cada fragmento se escribe cuando el socket
+ * acepta más datos, así que un cliente lento no ocupa ningún hilo mientras
+ * lee, y las filas se piden a la base de datos a su ritmo.
+ *
+ * Las rutas son relativas a /api/reactive.
+ */
+@Component
+public class ReactiveReadHandler implements WebHandler {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    @Autowired
+    private ReactiveReadService reactiveReadService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${admission.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange) {
+        // TenantFilter solo fija el tenant mientras dura la llamada del servlet: se lee antes de suscribirse
+        String tenant = TenantContext.current();
+        ServerHttpResponse response = exchange.getResponse();
+        if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+            response.getHeaders().setAllow(Set.of(HttpMethod.GET));
+            return error(response, HttpStatus.METHOD_NOT_ALLOWED, "Método no permitido");
+        }
+
+        Flux<String> body;
+        try {
+            switch (exchange.getRequest().getPath().pathWithinApplication().value()) {
+                // READ ALL - una venta por línea, con cliente, empleado y líneas de venta
+                case "/sales" -> {
+                    response.getHeaders().setContentType(NDJSON);
+                    body = reactiveReadService.streamSales(tenant);
+                }
+                // READ ALL - catálogo, una motocicleta por línea
+                case "/motorcycles" -> {
+                    response.getHeaders().setContentType(NDJSON);
+                    body = reactiveReadService.streamMotorcycles(tenant);
+                }
+                // EXPORT - líneas de venta entre from y to (ambas incluidas) en CSV, sin pasar por un trabajo
+                case "/sales/export" -> {
+                    MultiValueMap<String, String> params = exchange.getRequest().getQueryParams();
+                    LocalDate from = date(params.getFirst("from"), "from");
+                    LocalDate to = date(params.getFirst("to"), "to");
+                    body = reactiveReadService.exportSales(tenant, from, to);
+                    response.getHeaders().setContentType(CSV);
+                    response.getHeaders().set(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"ventas-" + from + "-" + to + ".csv\"");
+                }
+                default -> {
+                    return error(response, HttpStatus.NOT_FOUND, "Recurso no encontrado");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return error(response, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        // Un fragmento por escritura y flush: NDJSON un registro, CSV un bloque de filas
+        return response.writeAndFlushWith(body.map(chunk -> Mono.just(buffer(response, chunk))))
+                .onErrorResume(DataAccessResourceFailureException.class, e -> response.isCommitted()
+                        ? Mono.error(e) : unavailable(response));
+    }
+
+    private static LocalDate date(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("El parámetro " + name + " es obligatorio");
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("El parámetro " + name + " debe ser una fecha ISO (yyyy-MM-dd)");
+        }
+    }
+
+    // Sin conexión libre en el pool R2DBC dentro de reactive.pool.max-acquire-ms: mismo 503 que el control de admisión
+    private Mono<Void> unavailable(ServerHttpResponse response) {
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getHeaders().remove(HttpHeaders.CONTENT_DISPOSITION);
+        return error(response, HttpStatus.SERVICE_UNAVAILABLE,
+                "Servidor saturado (reactive-reads), intente de nuevo en " + retryAfterSeconds + " s");
+    }
+
+    private Mono<Void> error(ServerHttpResponse response, HttpStatus status, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(Map.of("error", message));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(json)));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private static DataBuffer buffer(ServerHttpResponse response, String chunk) {
+        return response.bufferFactory().wrap(chunk.getBytes(StandardCharsets.UTF_8));
+    }
+}
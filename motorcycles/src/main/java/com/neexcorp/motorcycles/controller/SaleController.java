@@ -1,13 +1,21 @@
 package com.neexcorp.motorcycles.controller;
 
+import com.neexcorp.motorcycles.dto.SaleBatchResult;
+import com.neexcorp.motorcycles.dto.SaleGraph;
 import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.service.FieldProjectionService;
+import com.neexcorp.motorcycles.service.OptimisticConcurrency;
+import com.neexcorp.motorcycles.service.SaleBatchService;
 import com.neexcorp.motorcycles.service.SaleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +27,15 @@ public class SaleController {
     @Autowired
     private SaleService saleService;
 
+    @Autowired
+    private SaleBatchService saleBatchService;
+
+    @Autowired
+    private FieldProjectionService fieldProjectionService;
+
+    @Autowired
+    private OptimisticConcurrency concurrency;
+
     // CREATE
     @PostMapping
     public ResponseEntity<?> create(@RequestBody Sale sale) {
@@ -32,12 +49,40 @@ public class SaleController {
         }
     }
 
-    // READ ALL
+    // CREATE BATCH - resultados por venta, con fallos parciales
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBatch(@RequestBody List<Sale> sales) {
+        try {
+            List<SaleBatchResult> results = saleBatchService.createAll(sales);
+            long created = results.stream().filter(r -> r.getStatus() == SaleBatchResult.Status.CREATED).count();
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("created", created);
+            response.put("failed", results.size() - created);
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al crear el lote de ventas: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // READ ALL (o varias por id: ?ids=1,2,3; campos anidados: ?fields=saleNumber,customer.email,details.motorcycle.code;
+    // clientes, empleados y motocicletas una sola vez al final: ?sideTables=true)
     @GetMapping
-    public ResponseEntity<?> getAll() {
+    public ResponseEntity<?> getAll(@RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean sideTables) {
         try {
-            List<Sale> sales = saleService.findAll();
-            return ResponseEntity.ok(sales);
+            if (fields != null) {
+                return ResponseEntity.ok(fieldProjectionService.findAll(Sale.class, fields, ids));
+            }
+            List<Sale> sales = ids != null ? saleService.findAllById(ids) : saleService.findAll();
+            return ResponseEntity.ok(sideTables ? new SaleGraph(sales) : sales);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al obtener las ventas: " + e.getMessage());
@@ -47,10 +92,17 @@ public class SaleController {
 
     // READ BY ID
     @GetMapping("/{id}")
-    public ResponseEntity<?> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(@PathVariable Long id, @RequestParam(required = false) String fields) {
         try {
+            if (fields != null) {
+                return ResponseEntity.ok(fieldProjectionService.findById(Sale.class, fields, id));
+            }
             Sale sale = saleService.findById(id);
-            return ResponseEntity.ok(sale);
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(sale.getVersion())).body(sale);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Venta no encontrada");
@@ -63,7 +115,7 @@ public class SaleController {
     public ResponseEntity<?> getByIdWithDetails(@PathVariable Long id) {
         try {
             Sale sale = saleService.findByIdWithDetails(id);
-            return ResponseEntity.ok(sale);
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(sale.getVersion())).body(sale);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Venta no encontrada");
@@ -71,12 +123,19 @@ public class SaleController {
         }
     }
 
-    // UPDATE
+    // UPDATE - condicional con If-Match: 412 y la versión actual si otro la cambió antes
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Sale sale) {
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Sale sale,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (concurrency.isMissing(ifMatch, sale.getVersion())) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                    .body(Map.of("error", "If-Match header or version is required"));
+        }
         try {
-            Sale updated = saleService.update(id, sale);
-            return ResponseEntity.ok(updated);
+            Sale updated = saleService.update(id, sale, concurrency.expectedVersion(ifMatch, sale.getVersion()));
+            return ResponseEntity.ok().eTag(OptimisticConcurrency.etag(updated.getVersion())).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return concurrency.preconditionFailed(() -> saleService.findByIdWithDetails(id), Sale::getVersion);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al actualizar la venta: " + e.getMessage());
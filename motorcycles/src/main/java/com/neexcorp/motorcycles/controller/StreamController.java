@@ -0,0 +1,22 @@
+package com.neexcorp.motorcycles.controller;
+
+import com.neexcorp.motorcycles.service.ChangeFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "*")
+public class StreamController {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    // SUBSCRIBE (Server-Sent Events)
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeFeedService.subscribe(lastEventId == null || lastEventId.isBlank() ? null : lastEventId.trim());
+    }
+}
@@ -0,0 +1,43 @@
+package com.neexcorp.motorcycles.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de una venta dentro de POST /api/sales/batch.
+ * index es la posición de la venta en la petición.
+ */
+@Data
+public class SaleBatchResult {
+
+    private int index;
+    private String saleNumber;
+    private Status status;
+    private Long id;
+    private BigDecimal total;
+    private String error;
+
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    public static SaleBatchResult created(int index, String saleNumber, Long id, BigDecimal total) {
+        SaleBatchResult result = new SaleBatchResult();
+        result.setIndex(index);
+        result.setSaleNumber(saleNumber);
+        result.setStatus(Status.CREATED);
+        result.setId(id);
+        result.setTotal(total);
+        return result;
+    }
+
+    public static SaleBatchResult failed(int index, String saleNumber, String error) {
+        SaleBatchResult result = new SaleBatchResult();
+        result.setIndex(index);
+        result.setSaleNumber(saleNumber);
+        result.setStatus(Status.FAILED);
+        result.setError(error);
+        return result;
+    }
+}
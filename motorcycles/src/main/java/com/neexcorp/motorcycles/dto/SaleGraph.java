@@ -0,0 +1,97 @@
+package com.neexcorp.motorcycles.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.model.Employee;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.model.Sale;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Respuesta de GET /api/sales?sideTables=true: las ventas llevan solo el id de
+ * su cliente, su empleado y la motocicleta de cada detalle, y cada uno de
+ * ellos se serializa una sola vez en customers, employees y motorcycles
+ * (objetos indexados por id) al final de la respuesta.
+ *
+ *   {"sales": [{"id": 1, "customer": 4, "employee": 2, "details": [{"motorcycle": 7, ...}]}],
+ *    "customers": {"4": {...}}, "employees": {"2": {...}}, "motorcycles": {"7": {...}}}
+ */
+@JsonSerialize(using = SaleGraph.Serializer.class)
+public class SaleGraph {
+
+    private static final String SIDE_TABLES = SaleGraph.class.getName() + ".sideTables";
+
+    private final List<Sale> sales;
+
+    public SaleGraph(List<Sale> sales) {
+        this.sales = sales;
+    }
+
+    public List<Sale> getSales() {
+        return sales;
+    }
+
+    // Entidades referenciadas durante la serialización de las ventas, por tabla y por id
+    private static final class SideTables {
+        private final Map<Long, Customer> customers = new LinkedHashMap<>();
+        private final Map<Long, Employee> employees = new LinkedHashMap<>();
+        private final Map<Long, Motorcycle> motorcycles = new LinkedHashMap<>();
+    }
+
+    public static class Serializer extends JsonSerializer<SaleGraph> {
+
+        @Override
+        public void serialize(SaleGraph graph, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            SideTables tables = new SideTables();
+            provider.setAttribute(SIDE_TABLES, tables);
+            generator.writeStartObject();
+            provider.defaultSerializeField("sales", graph.sales, generator);
+            // Las entidades de las tablas se escriben completas: ya no hay tablas activas
+            provider.setAttribute(SIDE_TABLES, null);
+            provider.defaultSerializeField("customers", tables.customers, generator);
+            provider.defaultSerializeField("employees", tables.employees, generator);
+            provider.defaultSerializeField("motorcycles", tables.motorcycles, generator);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializador de Sale.customer, Sale.employee y DetailSale.motorcycle:
+     * dentro de un SaleGraph escribe el id y guarda la entidad en su tabla;
+     * en cualquier otra respuesta escribe el objeto completo como siempre.
+     */
+    public static class ReferenceSerializer extends JsonSerializer<Object> {
+
+        @Override
+        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            if (!(provider.getAttribute(SIDE_TABLES) instanceof SideTables tables)) {
+                provider.defaultSerializeValue(value, generator);
+                return;
+            }
+            Long id;
+            if (value instanceof Customer customer) {
+                id = customer.getId();
+                tables.customers.putIfAbsent(id, customer);
+            } else if (value instanceof Employee employee) {
+                id = employee.getId();
+                tables.employees.putIfAbsent(id, employee);
+            } else if (value instanceof Motorcycle motorcycle) {
+                id = motorcycle.getId();
+                tables.motorcycles.putIfAbsent(id, motorcycle);
+            } else {
+                provider.defaultSerializeValue(value, generator);
+                return;
+            }
+            generator.writeNumber(id);
+        }
+    }
+}
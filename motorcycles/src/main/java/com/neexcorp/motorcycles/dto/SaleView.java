@@ -0,0 +1,55 @@
+package com.neexcorp.motorcycles.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Venta tal como la emite GET /api/reactive/sales: una línea NDJSON por venta
+ * con su cliente, su empleado y sus líneas. Se lee con R2DBC directamente de
+ * las tablas, sin entidades de JPA, así que solo lleva los campos que usan
+ * los listados.
+ */
+@Data
+public class SaleView {
+
+    private Long id;
+    private Long version;
+    private String saleNumber;
+    private LocalDateTime saleDate;
+    private String status;
+    private BigDecimal total;
+    private String paymentMethod;
+    private Party customer;
+    private Party employee;
+    private List<Line> details = new ArrayList<>();
+
+    @Data
+    public static class Party {
+        private Long id;
+        private String firstName;
+        private String lastName;
+        private String email;
+    }
+
+    @Data
+    public static class Line {
+        private Long id;
+        private Product motorcycle;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal discount;
+        private BigDecimal subtotal;
+    }
+
+    @Data
+    public static class Product {
+        private Long id;
+        private String code;
+        private String name;
+        private String brand;
+    }
+}
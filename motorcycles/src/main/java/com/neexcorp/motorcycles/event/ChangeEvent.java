@@ -0,0 +1,40 @@
+package com.neexcorp.motorcycles.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Evento compacto de cambio que se envía por el stream SSE.
+ * Solo lleva la identidad de la entidad y los campos que cambiaron;
+ * el cliente decide si necesita volver a pedir el recurso.
+ */
+@Value
+public class ChangeEvent {
+
+    // Id del evento SSE: "instancia-secuencia"
+    String id;
+
+    // Orden dentro de la instancia que emitió el evento
+    @JsonIgnore
+    long sequence;
+
+    String entity;
+    Long entityId;
+    Action action;
+    Object version;
+    Set<String> fields;
+
+    // Solo se entrega a los suscriptores del mismo concesionario
+    @JsonIgnore
+    String tenant;
+
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+
+    public String key() {
+        return entity + ":" + entityId;
+    }
+}
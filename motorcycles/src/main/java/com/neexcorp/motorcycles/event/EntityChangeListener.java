@@ -0,0 +1,124 @@
+package com.neexcorp.motorcycles.event;
+
+import com.neexcorp.motorcycles.service.ChangeFeedService;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.beans.Introspector;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Traduce las escrituras confirmadas por Hibernate en eventos del feed de cambios.
+ *
+ * Se registra como listener post-commit, así que cubre cualquier escritura de
+ * los servicios (Motorcycle, Customer, Employee, Sale y DetailSale) y nunca
+ * anuncia cambios de una transacción que terminó en rollback.
+ */
+@Component
+public class EntityChangeListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final String ARCHIVED_PREFIX = "Archived";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        EntityPersister persister = event.getPersister();
+        publish(event.getSession(), persister, event.getId(), event.getEntity(), ChangeEvent.Action.CREATED,
+                new LinkedHashSet<>(Arrays.asList(persister.getPropertyNames())));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        Set<String> fields = new LinkedHashSet<>();
+        int[] dirty = event.getDirtyProperties();
+        if (dirty != null) {
+            String[] names = persister.getPropertyNames();
+            for (int index : dirty) {
+                fields.add(names[index]);
+            }
+        }
+        publish(event.getSession(), persister, event.getId(), event.getEntity(), ChangeEvent.Action.UPDATED, fields);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getSession(), event.getPersister(), event.getId(), event.getEntity(), ChangeEvent.Action.DELETED,
+                new LinkedHashSet<>());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nada que anunciar si la transacción no se confirmó
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nada que anunciar si la transacción no se confirmó
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nada que anunciar si la transacción no se confirmó
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private void publish(EventSource session, EntityPersister persister, Object id, Object entity,
+            ChangeEvent.Action action, Set<String> fields) {
+        Object version = persister.isVersioned() ? persister.getVersion(entity) : null;
+        // El tenant no es un campo visible para el cliente
+        fields.remove("tenantId");
+        changeFeedService.publish(tenant(session), entityName(persister), (Long) id, action, version, fields);
+    }
+
+    public static String tenant(EventSource session) {
+        Object tenant = session.getTenantIdentifierValue();
+        return tenant != null ? tenant.toString() : TenantContext.current();
+    }
+
+    // Las filas archivadas se anuncian con la entidad activa: un ArchivedCustomer es un "customer"
+    public static String entityName(EntityPersister persister) {
+        String name = persister.getRootEntityName();
+        name = name.substring(name.lastIndexOf('.') + 1);
+        if (name.startsWith(ARCHIVED_PREFIX)) {
+            name = name.substring(ARCHIVED_PREFIX.length());
+        }
+        return Introspector.decapitalize(name);
+    }
+}
@@ -0,0 +1,44 @@
+package com.neexcorp.motorcycles.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+/**
+ * Cliente inactivo o bloqueado que ArchiveService movió a customers_archive.
+ *
+ * Es una entidad aparte de Customer con las mismas columnas (CustomerBase) y
+ * el mismo id. CustomerService y las lecturas de ventas solo la consultan
+ * cuando el id no está en la tabla activa, y la devuelven como un Customer con
+ * archivedAt (toCustomer). Los listados solo la incluyen con
+ * ?includeArchived=true.
+ */
+@Entity
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@Table(name = "customers_archive", indexes = {
+        @Index(name = "idx_customers_archive_tenant", columnList = "tenant_id, id"),
+        @Index(name = "idx_customers_archive_email", columnList = "tenant_id, email"),
+        @Index(name = "idx_customers_archive_document", columnList = "tenant_id, document_number")
+})
+public class ArchivedCustomer extends CustomerBase {
+
+    // Mismo id que tenía en customers
+    @Id
+    private Long id;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    // Copia desacoplada para la API; las escrituras se hacen sobre esta entidad
+    public Customer toCustomer() {
+        Customer customer = new Customer();
+        copyTo(customer);
+        customer.setId(id);
+        customer.setArchivedAt(archivedAt);
+        return customer;
+    }
+}
@@ -0,0 +1,44 @@
+package com.neexcorp.motorcycles.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+/**
+ * Empleado dado de baja que ArchiveService movió a employees_archive.
+ *
+ * Es una entidad aparte de Employee con las mismas columnas (EmployeeBase) y
+ * el mismo id. EmployeeService y las lecturas de ventas solo la consultan
+ * cuando el id no está en la tabla activa, y la devuelven como un Employee con
+ * archivedAt (toEmployee). Los listados solo la incluyen con
+ * ?includeArchived=true.
+ */
+@Entity
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@Table(name = "employees_archive", indexes = {
+        @Index(name = "idx_employees_archive_tenant", columnList = "tenant_id, id"),
+        @Index(name = "idx_employees_archive_email", columnList = "tenant_id, email"),
+        @Index(name = "idx_employees_archive_document", columnList = "tenant_id, document_number")
+})
+public class ArchivedEmployee extends EmployeeBase {
+
+    // Mismo id que tenía en employees
+    @Id
+    private Long id;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    // Copia desacoplada para la API; las escrituras se hacen sobre esta entidad
+    public Employee toEmployee() {
+        Employee employee = new Employee();
+        copyTo(employee);
+        employee.setId(id);
+        employee.setArchivedAt(archivedAt);
+        return employee;
+    }
+}
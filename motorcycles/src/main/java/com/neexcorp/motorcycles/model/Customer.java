@@ -1,57 +1,33 @@
 package com.neexcorp.motorcycles.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import lombok.Data;
-import java.time.LocalDate;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "customers")
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@Table(name = "customers", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_customers_tenant_email", columnNames = { "tenant_id", "email" }),
+        @UniqueConstraint(name = "uk_customers_tenant_document", columnNames = { "tenant_id", "document_number" })
+}, indexes = @Index(name = "idx_customers_tenant", columnList = "tenant_id, id"))
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
-public class Customer {
+public class Customer extends CustomerBase {
 
+    // Identidad de la columna id; el archivo conserva los ids y la restauración (SQL nativo) los reinserta tal cual
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
-    private String firstName;
-
-    @Column(nullable = false)
-    private String lastName;
-
-    @Column(unique = true, nullable = false)
-    private String email;
-
-    @Column(nullable = false)
-    private String phone;
-
-    @Column(unique = true)
-    private String documentNumber;
-
-    @Enumerated(EnumType.STRING)
-    private DocumentType documentType;
-
-    private String address;
-    private String city;
-    private String state;
-    private String zipCode;
-    private String country;
-
-    private LocalDate birthDate;
-
-    @Enumerated(EnumType.STRING)
-    private CustomerStatus status = CustomerStatus.ACTIVE;
-
-    private String notes;
-
-    @Column(name = "created_at")
-    private LocalDateTime createdAt = LocalDateTime.now();
-
-    @Column(name = "updated_at")
-    private LocalDateTime updatedAt = LocalDateTime.now();
+    // Solo en las copias leídas del archivo (ArchivedCustomer.toCustomer); customers no tiene esta columna
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime archivedAt;
 
     public enum DocumentType {
         DNI, CEDULA, PASSPORT, DRIVER_LICENSE
@@ -60,8 +36,4 @@ public class Customer {
     public enum CustomerStatus {
         ACTIVE, INACTIVE, BLOCKED
     }
-
-    public String getFullName() {
-        return firstName + " " + lastName;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.neexcorp.motorcycles.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Columnas comunes de customers y customers_archive.
+ *
+ * Customer y ArchivedCustomer son entidades separadas que heredan este mapeo:
+ * las lecturas de clientes (y el cliente de una venta) solo tocan la tabla
+ * activa, y el archivo se consulta aparte cuando el id no está en ella.
+ */
+@MappedSuperclass
+@Data
+@JsonPropertyOrder({ "id", "version" })
+public abstract class CustomerBase {
+
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    // Concurrencia optimista: se expone como ETag y se comprueba en el WHERE de cada UPDATE
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private String firstName;
+
+    @Column(nullable = false)
+    private String lastName;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private String phone;
+
+    private String documentNumber;
+
+    @Enumerated(EnumType.STRING)
+    private Customer.DocumentType documentType;
+
+    private String address;
+    private String city;
+    private String state;
+    private String zipCode;
+    private String country;
+
+    private LocalDate birthDate;
+
+    @Enumerated(EnumType.STRING)
+    private Customer.CustomerStatus status = Customer.CustomerStatus.ACTIVE;
+
+    private String notes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public abstract Long getId();
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+
+    // Copia los datos del cliente, sin id ni fecha de archivo
+    protected void copyTo(CustomerBase target) {
+        target.setTenantId(tenantId);
+        target.setVersion(version);
+        target.setFirstName(firstName);
+        target.setLastName(lastName);
+        target.setEmail(email);
+        target.setPhone(phone);
+        target.setDocumentNumber(documentNumber);
+        target.setDocumentType(documentType);
+        target.setAddress(address);
+        target.setCity(city);
+        target.setState(state);
+        target.setZipCode(zipCode);
+        target.setCountry(country);
+        target.setBirthDate(birthDate);
+        target.setStatus(status);
+        target.setNotes(notes);
+        target.setCreatedAt(createdAt);
+        target.setUpdatedAt(updatedAt);
+    }
+}
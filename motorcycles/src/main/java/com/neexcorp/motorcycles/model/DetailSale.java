@@ -1,14 +1,21 @@
 package com.neexcorp.motorcycles.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.neexcorp.motorcycles.dto.SaleGraph;
+import com.neexcorp.motorcycles.util.Money;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
 import java.math.BigDecimal;
 
 @Entity
 @Data
-@Table(name = "detail_sales")
+@Table(name = "detail_sales", indexes = @Index(name = "idx_detail_sales_tenant", columnList = "tenant_id, sale_id"))
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class DetailSale {
 
@@ -16,6 +23,17 @@ public class DetailSale {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sale_id", nullable = false)
     @JsonBackReference
@@ -23,6 +41,8 @@ public class DetailSale {
 
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "motorcycle_id", nullable = false)
+    // Con ?sideTables=true solo el id (ver SaleGraph)
+    @JsonSerialize(using = SaleGraph.ReferenceSerializer.class)
     private Motorcycle motorcycle;
 
     @Column(nullable = false)
@@ -39,12 +59,24 @@ public class DetailSale {
 
     private String notes;
 
+    // La venta no se lee del JSON (referencia inversa): en las escrituras directas de líneas se indica con saleId
+    @JsonProperty(value = "saleId", access = JsonProperty.Access.WRITE_ONLY)
+    public void setSaleId(Long saleId) {
+        if (saleId == null) {
+            this.sale = null;
+            return;
+        }
+        Sale reference = new Sale();
+        reference.setId(saleId);
+        this.sale = reference;
+    }
+
     @PrePersist
     @PreUpdate
     public void calculateSubtotal() {
         if (unitPrice != null && quantity != null) {
-            BigDecimal total = unitPrice.multiply(BigDecimal.valueOf(quantity));
-            this.subtotal = total.subtract(discount != null ? discount : BigDecimal.ZERO);
+            long subtotalMinor = Money.lineSubtotal(Money.toMinor(unitPrice), quantity, Money.toMinor(discount));
+            this.subtotal = Money.toDecimal(subtotalMinor);
         }
     }
 }
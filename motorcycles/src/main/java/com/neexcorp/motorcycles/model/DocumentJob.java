@@ -0,0 +1,87 @@
+package com.neexcorp.motorcycles.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Trabajo asíncrono de generación de documentos: la factura de una venta o el
+ * reporte de ventas de un rango de fechas, en PDF o CSV.
+ */
+@Entity
+@Data
+@Table(name = "document_jobs", indexes = @Index(name = "idx_document_jobs_tenant", columnList = "tenant_id, id"))
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+public class DocumentJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobFormat format;
+
+    // INVOICE
+    @Column(name = "sale_id")
+    private Long saleId;
+
+    // SALES_REPORT: ventas con fecha en [fromDate, toDate]
+    @Column(name = "from_date")
+    private LocalDate fromDate;
+
+    @Column(name = "to_date")
+    private LocalDate toDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status = JobStatus.QUEUED;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @JsonIgnore
+    @Column(name = "storage_key")
+    private String storageKey;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum JobType {
+        INVOICE, SALES_REPORT
+    }
+
+    public enum JobFormat {
+        PDF, CSV
+    }
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -1,66 +1,33 @@
 package com.neexcorp.motorcycles.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import lombok.Data;
-import java.math.BigDecimal;
-import java.time.LocalDate;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "employees")
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@Table(name = "employees", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_employees_tenant_email", columnNames = { "tenant_id", "email" }),
+        @UniqueConstraint(name = "uk_employees_tenant_document", columnNames = { "tenant_id", "document_number" })
+}, indexes = @Index(name = "idx_employees_tenant", columnList = "tenant_id, id"))
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
-public class Employee {
+public class Employee extends EmployeeBase {
 
+    // Identidad de la columna id; el archivo conserva los ids y la restauración (SQL nativo) los reinserta tal cual
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
-    private String firstName;
-
-    @Column(nullable = false)
-    private String lastName;
-
-    @Column(unique = true, nullable = false)
-    private String email;
-
-    private String phone;
-
-    @Column(unique = true)
-    private String documentNumber; // DNI, Cedula, etc.
-
-    @Enumerated(EnumType.STRING)
-    private DocumentType documentType;
-
-    private String address;
-    private String city;
-    private String state;
-    private String zipCode;
-    private String country;
-
-    @Column(nullable = false)
-    private String jobTitle;
-
-    private BigDecimal salary;
-
-    @Column(name = "hire_date")
-    private LocalDate hireDate;
-
-    @Column(name = "termination_date")
-    private LocalDate terminationDate;
-
-    @Enumerated(EnumType.STRING)
-    private EmployeeStatus status = EmployeeStatus.ACTIVE;
-
-    private String notes;
-
-    @Column(name = "created_at")
-    private LocalDateTime createdAt = LocalDateTime.now();
-
-    @Column(name = "updated_at")
-    private LocalDateTime updatedAt = LocalDateTime.now();
+    // Solo en las copias leídas del archivo (ArchivedEmployee.toEmployee); employees no tiene esta columna
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime archivedAt;
 
     public enum EmployeeStatus {
         ACTIVE, INACTIVE, TERMINATED
@@ -69,13 +36,4 @@ public class Employee {
     public enum DocumentType {
         DNI, CEDULA, PASSPORT, DRIVER_LICENSE
     }
-
-    @PreUpdate
-    public void preUpdate() {
-        this.updatedAt = LocalDateTime.now();
-    }
-
-    public String getFullName() {
-        return firstName + " " + lastName;
-    }
 }
@@ -0,0 +1,115 @@
+package com.neexcorp.motorcycles.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Columnas comunes de employees y employees_archive.
+ *
+ * Employee y ArchivedEmployee son entidades separadas que heredan este mapeo:
+ * las lecturas de empleados (y el vendedor de una venta) solo tocan la tabla
+ * activa, y el archivo se consulta aparte cuando el id no está en ella.
+ */
+@MappedSuperclass
+@Data
+@JsonPropertyOrder({ "id", "version" })
+public abstract class EmployeeBase {
+
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private String firstName;
+
+    @Column(nullable = false)
+    private String lastName;
+
+    @Column(nullable = false)
+    private String email;
+
+    private String phone;
+
+    private String documentNumber; // DNI, Cedula, etc.
+
+    @Enumerated(EnumType.STRING)
+    private Employee.DocumentType documentType;
+
+    private String address;
+    private String city;
+    private String state;
+    private String zipCode;
+    private String country;
+
+    @Column(nullable = false)
+    private String jobTitle;
+
+    private BigDecimal salary;
+
+    @Column(name = "hire_date")
+    private LocalDate hireDate;
+
+    @Column(name = "termination_date")
+    private LocalDate terminationDate;
+
+    @Enumerated(EnumType.STRING)
+    private Employee.EmployeeStatus status = Employee.EmployeeStatus.ACTIVE;
+
+    private String notes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public abstract Long getId();
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+
+    // Copia los datos del empleado, sin id ni fecha de archivo
+    protected void copyTo(EmployeeBase target) {
+        target.setTenantId(tenantId);
+        target.setVersion(version);
+        target.setFirstName(firstName);
+        target.setLastName(lastName);
+        target.setEmail(email);
+        target.setPhone(phone);
+        target.setDocumentNumber(documentNumber);
+        target.setDocumentType(documentType);
+        target.setAddress(address);
+        target.setCity(city);
+        target.setState(state);
+        target.setZipCode(zipCode);
+        target.setCountry(country);
+        target.setJobTitle(jobTitle);
+        target.setSalary(salary);
+        target.setHireDate(hireDate);
+        target.setTerminationDate(terminationDate);
+        target.setStatus(status);
+        target.setNotes(notes);
+        target.setCreatedAt(createdAt);
+        target.setUpdatedAt(updatedAt);
+    }
+}
@@ -0,0 +1,48 @@
+package com.neexcorp.motorcycles.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento del libro de inventario. Las filas solo se insertan: el stock de
+ * una motocicleta es la suma de sus movimientos (ver StockSnapshot).
+ * quantity lleva signo: las ventas restan, entradas y devoluciones suman.
+ */
+@Entity
+@Data
+@Table(name = "inventory_movements", indexes = {
+        @Index(name = "idx_inventory_movements_motorcycle", columnList = "motorcycle_id, id"),
+        @Index(name = "idx_inventory_movements_motorcycle_date", columnList = "motorcycle_id, created_at")
+})
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "motorcycle_id", nullable = false, updatable = false)
+    private Long motorcycleId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private MovementType type;
+
+    @Column(nullable = false, updatable = false)
+    private Integer quantity;
+
+    @Column(name = "sale_id", updatable = false)
+    private Long saleId;
+
+    @Column(updatable = false)
+    private String note;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public enum MovementType {
+        RECEIPT, SALE, RETURN, ADJUSTMENT
+    }
+}
@@ -1,20 +1,36 @@
 package com.neexcorp.motorcycles.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
 import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "motorcycles")
+@Table(name = "motorcycles", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_motorcycles_tenant_code", columnNames = { "tenant_id", "code" })
+}, indexes = @Index(name = "idx_motorcycles_tenant", columnList = "tenant_id, id"))
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Motorcycle {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
     private String code;
 
     @Column(nullable = false)
@@ -34,7 +50,11 @@ public class Motorcycle {
     private String model;
     private Integer year;
     private String color;
+
+    // Último stock compactado del libro de inventario; solo lo escribe StockSnapshotService
+    @Column(updatable = false)
     private Integer stock;
+
     private Boolean available = true;
 
     @Column(name = "created_at")
@@ -1,16 +1,30 @@
 package com.neexcorp.motorcycles.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.neexcorp.motorcycles.dto.SaleGraph;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NotFound;
+import org.hibernate.annotations.NotFoundAction;
+import org.hibernate.annotations.TenantId;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Data
-@Table(name = "sales")
+@Table(name = "sales", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_tenant_sale_number", columnNames = { "tenant_id", "sale_number" })
+}, indexes = {
+        @Index(name = "idx_sales_tenant", columnList = "tenant_id, id"),
+        @Index(name = "idx_sales_tenant_date", columnList = "tenant_id, sale_date"),
+        @Index(name = "idx_sales_customer", columnList = "customer_id"),
+        @Index(name = "idx_sales_employee", columnList = "employee_id")
+})
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Sale {
 
@@ -18,17 +32,43 @@ public class Sale {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    @JsonIgnore
+    private String tenantId;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
     private String saleNumber;
 
+    // Sin clave foránea: el cliente puede estar archivado; la integridad la mantienen triggers (ArchiveSchemaMigration).
+    // La carga solo mira la tabla activa: si está archivado llega vacío y ArchiveService lo completa con customerId.
+    // El NOT NULL va en customerId; en el @JoinColumn haría que Hibernate cargara la venta con un inner join
     @ManyToOne(fetch = FetchType.EAGER)
-    @JoinColumn(name = "customer_id", nullable = false)
+    @NotFound(action = NotFoundAction.IGNORE)
+    @JoinColumn(name = "customer_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @JsonSerialize(using = SaleGraph.ReferenceSerializer.class)
     private Customer customer;
 
+    @Column(name = "customer_id", nullable = false, insertable = false, updatable = false)
+    @JsonIgnore
+    private Long customerId;
+
     @ManyToOne(fetch = FetchType.EAGER)
-    @JoinColumn(name = "employee_id", nullable = false)
+    @NotFound(action = NotFoundAction.IGNORE)
+    @JoinColumn(name = "employee_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @JsonSerialize(using = SaleGraph.ReferenceSerializer.class)
     private Employee employee;
 
+    @Column(name = "employee_id", nullable = false, insertable = false, updatable = false)
+    @JsonIgnore
+    private Long employeeId;
+
     @Column(name = "sale_date", nullable = false)
     private LocalDateTime saleDate = LocalDateTime.now();
 
@@ -0,0 +1,35 @@
+package com.neexcorp.motorcycles.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Stock compactado de una motocicleta: la suma de todos sus movimientos hasta
+ * lastMovementId. Cada compactación añade una fila nueva por motocicleta con
+ * movimientos, así que las filas antiguas sirven para consultas a una fecha.
+ */
+@Entity
+@Data
+@Table(name = "stock_snapshots", indexes = {
+        @Index(name = "idx_stock_snapshots_motorcycle", columnList = "motorcycle_id, id"),
+        @Index(name = "idx_stock_snapshots_last_movement", columnList = "last_movement_id")
+})
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "motorcycle_id", nullable = false)
+    private Long motorcycleId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
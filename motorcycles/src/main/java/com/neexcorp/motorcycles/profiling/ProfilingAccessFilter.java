@@ -0,0 +1,61 @@
+package com.neexcorp.motorcycles.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Protege /api/admin/profiling con el token de profiling.admin-token, que se
+ * envía en la cabecera X-Admin-Token. Las grabaciones contienen variables de
+ * entorno, propiedades del sistema y argumentos de la JVM, así que sin token
+ * configurado la aplicación no arranca con el perfilado activado.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@ConditionalOnProperty(prefix = "profiling", name = "enabled", havingValue = "true")
+public class ProfilingAccessFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private final byte[] token;
+
+    public ProfilingAccessFilter(@Value("${profiling.admin-token:}") String token) {
+        if (token.isBlank()) {
+            throw new IllegalStateException("profiling.enabled=true requiere profiling.admin-token");
+        }
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/admin/profiling");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String provided = request.getHeader(HEADER);
+        // Comparación en tiempo constante para no revelar el token por la latencia
+        if (provided == null || !MessageDigest.isEqual(token, provided.getBytes(StandardCharsets.UTF_8))) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\":\"Token de administración no válido\"}");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
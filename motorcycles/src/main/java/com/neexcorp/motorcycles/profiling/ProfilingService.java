@@ -0,0 +1,219 @@
+package com.neexcorp.motorcycles.profiling;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Grabaciones de JDK Flight Recorder.
+ *
+ * Una grabación continua con la configuración "default" (sobrecarga ~1%) está
+ * siempre activa y guarda en disco solo la última hora; se puede volcar en
+ * cualquier momento. Además se puede lanzar una grabación puntual, acotada en
+ * duración y tamaño, normalmente con la configuración "profile". Solo hay una
+ * grabación puntual a la vez.
+ *
+ * Desactivado por defecto (profiling.enabled): sin él no hay grabación
+ * continua ni endpoints de perfilado. Los eventos SaleRequest y SalePhase se
+ * emiten igualmente, y JFR los descarta si nadie graba.
+ */
+@Service
+@ConditionalOnProperty(prefix = "profiling", name = "enabled", havingValue = "true")
+public class ProfilingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfilingService.class);
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${profiling.directory:${java.io.tmpdir}/motorcycles-profiling}")
+    private String directoryName;
+
+    @Value("${profiling.continuous.enabled:true}")
+    private boolean continuousEnabled;
+
+    @Value("${profiling.continuous.max-age-minutes:60}")
+    private long continuousMaxAgeMinutes;
+
+    @Value("${profiling.continuous.max-size-mb:100}")
+    private long continuousMaxSizeMb;
+
+    @Value("${profiling.recording.default-duration-seconds:60}")
+    private long defaultDurationSeconds;
+
+    @Value("${profiling.recording.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    @Value("${profiling.recording.max-size-mb:200}")
+    private long recordingMaxSizeMb;
+
+    private Path directory;
+    private Recording continuous;
+    private Recording recording;
+    private Path recordingFile;
+    private String recordingSettings;
+
+    @PostConstruct
+    public void init() {
+        directory = Paths.get(directoryName).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de grabaciones " + directory, e);
+        }
+        if (!continuousEnabled) {
+            return;
+        }
+        try {
+            continuous = new Recording(Configuration.getConfiguration("default"));
+            continuous.setName("motorcycles-continuous");
+            continuous.setToDisk(true);
+            continuous.setMaxAge(Duration.ofMinutes(continuousMaxAgeMinutes));
+            continuous.setMaxSize(continuousMaxSizeMb * 1024 * 1024);
+            continuous.start();
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            // Sin JFR la aplicación sigue funcionando; solo se pierde el perfilado
+            log.warn("No se pudo iniciar la grabación JFR continua: {}", e.getMessage());
+            continuous = null;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+        }
+        if (continuous != null) {
+            continuous.close();
+        }
+    }
+
+    /**
+     * Inicia una grabación puntual que se detiene sola al cumplir la duración.
+     * IllegalStateException si ya hay una en curso.
+     */
+    public synchronized Map<String, Object> start(Long durationSeconds, String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("Ya hay una grabación en curso: " + recording.getName());
+        }
+        long seconds = durationSeconds != null ? durationSeconds : defaultDurationSeconds;
+        if (seconds <= 0 || seconds > maxDurationSeconds) {
+            throw new IllegalArgumentException("La duración debe estar entre 1 y " + maxDurationSeconds + " segundos");
+        }
+        String configName = settings != null ? settings : "profile";
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(configName);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Configuración JFR no válida: " + configName);
+        }
+
+        discard();
+        String name = "sale-profiling-" + LocalDateTime.now().format(FILE_TIME);
+        Path file = directory.resolve(name + ".jfr");
+        Recording created = new Recording(configuration);
+        try {
+            created.setName(name);
+            created.setToDisk(true);
+            created.setDuration(Duration.ofSeconds(seconds));
+            created.setMaxSize(recordingMaxSizeMb * 1024 * 1024);
+            created.setDestination(file);
+            created.start();
+        } catch (IOException | RuntimeException e) {
+            created.close();
+            throw new IllegalStateException("No se pudo iniciar la grabación: " + e.getMessage(), e);
+        }
+        recording = created;
+        recordingFile = file;
+        recordingSettings = configName;
+        log.info("Grabación JFR {} iniciada ({} s, configuración {})", name, seconds, configName);
+        return status();
+    }
+
+    /** Detiene la grabación puntual; IllegalStateException si no hay ninguna en curso. */
+    public synchronized Map<String, Object> stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No hay ninguna grabación en curso");
+        }
+        recording.stop();
+        log.info("Grabación JFR {} detenida", recording.getName());
+        return status();
+    }
+
+    /**
+     * Fichero .jfr de la última grabación puntual. IllegalStateException si
+     * sigue en curso; null si no hay ninguna.
+     */
+    public synchronized Path getRecordingFile() {
+        if (recording == null) {
+            return null;
+        }
+        if (recording.getState() == RecordingState.NEW || recording.getState() == RecordingState.RUNNING
+                || recording.getState() == RecordingState.DELAYED) {
+            throw new IllegalStateException("La grabación " + recording.getName() + " sigue en curso");
+        }
+        return Files.exists(recordingFile) ? recordingFile : null;
+    }
+
+    /** Vuelca la grabación continua a un fichero; null si está desactivada. */
+    public synchronized Path dumpContinuous() throws IOException {
+        if (continuous == null) {
+            return null;
+        }
+        Path file = directory.resolve("continuous.jfr");
+        continuous.dump(file);
+        return file;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("continuous", continuous != null ? continuous.getState() : "DISABLED");
+        if (recording == null) {
+            status.put("recording", null);
+            return status;
+        }
+        Map<String, Object> current = new LinkedHashMap<>();
+        current.put("name", recording.getName());
+        current.put("state", recording.getState());
+        current.put("settings", recordingSettings);
+        current.put("startTime", recording.getStartTime());
+        current.put("stopTime", recording.getStopTime());
+        current.put("duration", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+        current.put("size", recording.getSize());
+        status.put("recording", current);
+        return status;
+    }
+
+    // Solo se conserva la última grabación puntual
+    private void discard() {
+        if (recording == null) {
+            return;
+        }
+        recording.close();
+        try {
+            Files.deleteIfExists(recordingFile);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar la grabación {}: {}", recordingFile, e.getMessage());
+        }
+        recording = null;
+        recordingFile = null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.neexcorp.motorcycles.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR para cada fase de una venta: lectura del JSON, validación y
+ * precios, inserción, flush/commit y escritura de la respuesta.
+ */
+@Name("com.neexcorp.motorcycles.SalePhase")
+@Label("Sale Phase")
+@Category({"Motorcycles", "Sales"})
+@Description("Duración de una fase del alta de una venta")
+@StackTrace(false)
+public class SalePhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Sale Id")
+    long saleId;
+
+    @Label("Sale Number")
+    String saleNumber;
+
+    @Label("Lines")
+    int lines;
+
+    @Label("Tenant")
+    String tenant;
+
+    @Label("Success")
+    boolean success;
+}
@@ -0,0 +1,149 @@
+package com.neexcorp.motorcycles.profiling;
+
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Emite los eventos JFR de las fases de una venta. Si ninguna grabación tiene
+ * los eventos activos, el coste es crear un objeto y comprobar isEnabled().
+ *
+ * La lectura y la escritura del cuerpo empiezan y terminan en callbacks
+ * distintos de Spring, así que la fase abierta se guarda por hilo mientras
+ * dura la petición (SaleProfilingFilter la abre y la cierra).
+ */
+public final class SaleProfiling {
+
+    public enum Phase {
+        DESERIALIZE, VALIDATE, PERSIST, COMMIT, SERIALIZE
+    }
+
+    private static final ThreadLocal<Trace> TRACE = new ThreadLocal<>();
+
+    private static final class Trace {
+        private SalePhaseEvent pending;
+        private long saleId;
+    }
+
+    private SaleProfiling() {
+    }
+
+    public static void run(Phase phase, Sale sale, Runnable action) {
+        call(phase, sale, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Los datos de la venta se leen al terminar la fase, cuando ya puede tener id
+    public static <T> T call(Phase phase, Sale sale, Supplier<T> action) {
+        SalePhaseEvent event = new SalePhaseEvent();
+        if (!event.isEnabled()) {
+            return action.get();
+        }
+        event.phase = phase.name();
+        event.begin();
+        boolean success = false;
+        try {
+            T result = action.get();
+            success = true;
+            return result;
+        } finally {
+            finish(event, sale, success);
+        }
+    }
+
+    // Flush y commit: desde beforeCommit hasta afterCompletion de la transacción en curso
+    public static void profileCommit(Sale sale) {
+        SalePhaseEvent event = new SalePhaseEvent();
+        if (!event.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        event.phase = Phase.COMMIT.name();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean started;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                started = true;
+                event.begin();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (started) {
+                    finish(event, sale, status == STATUS_COMMITTED);
+                }
+            }
+        });
+    }
+
+    static void startTrace() {
+        TRACE.set(new Trace());
+    }
+
+    // Cierra la fase pendiente (normalmente la escritura de la respuesta) y devuelve el id de la venta
+    static long finishTrace(boolean success) {
+        Trace trace = TRACE.get();
+        TRACE.remove();
+        if (trace == null) {
+            return 0;
+        }
+        if (trace.pending != null) {
+            finish(trace.pending, null, success);
+        }
+        return trace.saleId;
+    }
+
+    static void beginPending(Phase phase, Sale sale) {
+        Trace trace = TRACE.get();
+        if (trace == null) {
+            return;
+        }
+        SalePhaseEvent event = new SalePhaseEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.phase = phase.name();
+        describe(event, sale);
+        event.begin();
+        trace.pending = event;
+    }
+
+    static void endPending(Sale sale) {
+        Trace trace = TRACE.get();
+        if (trace == null || trace.pending == null) {
+            return;
+        }
+        finish(trace.pending, sale, true);
+        trace.pending = null;
+    }
+
+    private static void finish(SalePhaseEvent event, Sale sale, boolean success) {
+        event.end();
+        if (sale != null && sale.getId() != null) {
+            Trace trace = TRACE.get();
+            if (trace != null) {
+                trace.saleId = sale.getId();
+            }
+        }
+        if (event.shouldCommit()) {
+            describe(event, sale);
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    private static void describe(SalePhaseEvent event, Sale sale) {
+        event.tenant = TenantContext.current();
+        if (sale == null) {
+            return;
+        }
+        event.saleId = sale.getId() != null ? sale.getId() : 0;
+        event.saleNumber = sale.getSaleNumber();
+        event.lines = sale.getDetails() != null ? sale.getDetails().size() : 0;
+    }
+}
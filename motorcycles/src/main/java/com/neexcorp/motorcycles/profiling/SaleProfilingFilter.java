@@ -0,0 +1,53 @@
+package com.neexcorp.motorcycles.profiling;
+
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Abre un SaleRequestEvent por cada alta de venta (POST /api/sales). Va detrás
+ * de TenantFilter y delante del control de admisión, así la espera en la cola
+ * del bulkhead también queda dentro del evento.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 7)
+public class SaleProfilingFilter extends OncePerRequestFilter {
+
+    private static final String PATH = "/api/sales";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SaleRequestEvent event = new SaleRequestEvent();
+        event.begin();
+        SaleProfiling.startTrace();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long saleId = SaleProfiling.finishTrace(response.getStatus() < 400);
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.path = request.getRequestURI();
+                event.status = response.getStatus();
+                event.saleId = saleId;
+                event.tenant = TenantContext.current();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.neexcorp.motorcycles.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR que cubre la petición completa de alta de una venta, incluida la
+ * espera en el control de admisión. Sus fases son eventos SalePhase del mismo hilo.
+ */
+@Name("com.neexcorp.motorcycles.SaleRequest")
+@Label("Sale Request")
+@Category({"Motorcycles", "Sales"})
+@Description("Petición HTTP de alta de una venta")
+@StackTrace(false)
+public class SaleRequestEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    int status;
+
+    @Label("Sale Id")
+    long saleId;
+
+    @Label("Tenant")
+    String tenant;
+}
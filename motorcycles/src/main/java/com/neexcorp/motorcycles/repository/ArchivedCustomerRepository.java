@@ -0,0 +1,23 @@
+package com.neexcorp.motorcycles.repository;
+
+import com.neexcorp.motorcycles.model.ArchivedCustomer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ArchivedCustomerRepository extends JpaRepository<ArchivedCustomer, Long> {
+    // Búsquedas por clave natural, servidas por los índices (tenant_id, ...) del archivo
+    Optional<ArchivedCustomer> findByEmail(String email);
+
+    @Query("select c.id from ArchivedCustomer c where c.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    Optional<ArchivedCustomer> findByDocumentNumber(String documentNumber);
+
+    @Query("select c.id from ArchivedCustomer c where c.documentNumber = :documentNumber")
+    Optional<Long> findIdByDocumentNumber(@Param("documentNumber") String documentNumber);
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.neexcorp.motorcycles.repository;
+
+import com.neexcorp.motorcycles.model.ArchivedEmployee;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ArchivedEmployeeRepository extends JpaRepository<ArchivedEmployee, Long> {
+    // Búsquedas por clave natural, servidas por los índices (tenant_id, ...) del archivo
+    Optional<ArchivedEmployee> findByEmail(String email);
+
+    @Query("select e.id from ArchivedEmployee e where e.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    Optional<ArchivedEmployee> findByDocumentNumber(String documentNumber);
+
+    @Query("select e.id from ArchivedEmployee e where e.documentNumber = :documentNumber")
+    Optional<Long> findIdByDocumentNumber(@Param("documentNumber") String documentNumber);
+}
\ No newline at end of file
@@ -1,11 +1,28 @@
 package com.neexcorp.motorcycles.repository;
 
 import com.neexcorp.motorcycles.model.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
-    // Solo CRUD básico heredado de JpaRepository:
-    // save(), findAll(), findById(), deleteById(), etc.
-}
\ No newline at end of file
+    // Búsquedas por clave natural, servidas por los índices únicos (tenant_id, ...)
+    Optional<Customer> findByEmail(String email);
+
+    @Query("select c.id from Customer c where c.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    Optional<Customer> findByDocumentNumber(String documentNumber);
+
+    @Query("select c.id from Customer c where c.documentNumber = :documentNumber")
+    Optional<Long> findIdByDocumentNumber(@Param("documentNumber") String documentNumber);
+
+    @Query("select c.id from Customer c order by c.id desc")
+    List<Long> findRecentIds(Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.neexcorp.motorcycles.repository;
+
+import com.neexcorp.motorcycles.model.DocumentJob;
+import com.neexcorp.motorcycles.model.DocumentJob.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DocumentJobRepository extends JpaRepository<DocumentJob, Long> {
+
+        List<DocumentJob> findByCreatedAtBefore(LocalDateTime createdAt);
+
+        List<DocumentJob> findByStatusInOrderByCreatedAtAsc(Collection<JobStatus> statuses);
+}
@@ -0,0 +1,19 @@
+package com.neexcorp.motorcycles.repository;
+
+import com.neexcorp.motorcycles.model.InventoryMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+        @Query("select m from InventoryMovement m where m.motorcycleId = :motorcycleId "
+                        + "and m.createdAt > :from and m.createdAt <= :to order by m.id")
+        List<InventoryMovement> findHistory(@Param("motorcycleId") Long motorcycleId,
+                        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
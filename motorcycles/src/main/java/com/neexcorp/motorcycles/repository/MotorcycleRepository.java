@@ -2,10 +2,17 @@ package com.neexcorp.motorcycles.repository;
 
 import com.neexcorp.motorcycles.model.Motorcycle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface MotorcycleRepository extends JpaRepository<Motorcycle, Long> {
-    // Solo CRUD básico heredado de JpaRepository:
-    // save(), findAll(), findById(), deleteById(), etc.
+    // Búsquedas por clave natural, servidas por los índices únicos (tenant_id, ...)
+    Optional<Motorcycle> findByCode(String code);
+
+    @Query("select m.id from Motorcycle m where m.code = :code")
+    Optional<Long> findIdByCode(@Param("code") String code);
 }
\ No newline at end of file
@@ -1,11 +1,28 @@
 package com.neexcorp.motorcycles.repository;
 
 import com.neexcorp.motorcycles.model.Sale;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
         // Solo CRUD básico heredado de JpaRepository:
         // save(), findAll(), findById(), deleteById(), etc.
+
+        // left join: el cliente o el empleado de la venta pueden estar archivados
+        @Query("select distinct s from Sale s left join fetch s.customer left join fetch s.employee "
+                        + "left join fetch s.details d left join fetch d.motorcycle where s.id in :ids")
+        List<Sale> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+        @Query("select s.id from Sale s order by s.id desc")
+        List<Long> findRecentIds(Pageable pageable);
+
+        @Query("select s.saleNumber from Sale s where s.saleNumber in :saleNumbers")
+        List<String> findExistingSaleNumbers(@Param("saleNumbers") Collection<String> saleNumbers);
 }
\ No newline at end of file
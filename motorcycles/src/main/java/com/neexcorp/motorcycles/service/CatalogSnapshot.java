@@ -0,0 +1,169 @@
+package com.neexcorp.motorcycles.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Foto inmutable del catálogo de motocicletas junto con su JSON ya serializado
+ * (plano y gzip) y su ETag. Nunca se modifica: cada escritura construye una
+ * foto nueva a partir de la anterior y se reemplaza de forma atómica.
+ *
+ * La foto guarda copias propias de las motocicletas, nunca las entidades que
+ * gestiona un EntityManager, y no deben mutarse. Una motocicleta con una
+ * versión más antigua que la de la foto se ignora: una relectura lenta o una
+ * invalidación que llega tarde no pisa un cambio más reciente.
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<Motorcycle> BY_ID = Comparator.comparing(Motorcycle::getId);
+
+    private final List<Motorcycle> motorcycles;
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String etag;
+
+    private CatalogSnapshot(List<Motorcycle> motorcycles, byte[] json, byte[] gzip, String etag) {
+        this.motorcycles = motorcycles;
+        this.json = json;
+        this.gzip = gzip;
+        this.etag = etag;
+    }
+
+    public static CatalogSnapshot of(List<Motorcycle> motorcycles, ObjectMapper objectMapper) {
+        List<Motorcycle> copies = new ArrayList<>(motorcycles.size());
+        motorcycles.forEach(motorcycle -> copies.add(copy(motorcycle)));
+        return build(copies, objectMapper);
+    }
+
+    private static CatalogSnapshot build(List<Motorcycle> motorcycles, ObjectMapper objectMapper) {
+        List<Motorcycle> sorted = new ArrayList<>(motorcycles);
+        sorted.sort(BY_ID);
+        List<Motorcycle> frozen = Collections.unmodifiableList(sorted);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(frozen);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return new CatalogSnapshot(frozen, json, gzip(json), etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo", e);
+        }
+    }
+
+    /** Copia con la motocicleta añadida o reemplazada; la misma foto si su versión no es más reciente. */
+    public CatalogSnapshot with(Motorcycle motorcycle, ObjectMapper objectMapper) {
+        List<Motorcycle> next = new ArrayList<>(motorcycles.size() + 1);
+        for (Motorcycle current : motorcycles) {
+            if (!current.getId().equals(motorcycle.getId())) {
+                next.add(current);
+            } else if (!isNewer(motorcycle, current)) {
+                return this;
+            }
+        }
+        next.add(copy(motorcycle));
+        return build(next, objectMapper);
+    }
+
+    /** Copia sin la motocicleta indicada. */
+    public CatalogSnapshot without(Long id, ObjectMapper objectMapper) {
+        List<Motorcycle> next = new ArrayList<>(motorcycles.size());
+        for (Motorcycle current : motorcycles) {
+            if (!current.getId().equals(id)) {
+                next.add(current);
+            }
+        }
+        return build(next, objectMapper);
+    }
+
+    /**
+     * Copia con las motocicletas de ids reemplazadas por current, leídas de la
+     * base de datos (las que falten se quitan). Se mantiene la de la foto si la
+     * leída es más antigua; con la misma versión se toma la leída.
+     */
+    public CatalogSnapshot replace(Collection<Long> ids, Collection<Motorcycle> current, ObjectMapper objectMapper) {
+        Set<Long> replaced = new HashSet<>(ids);
+        Map<Long, Motorcycle> held = new HashMap<>();
+        List<Motorcycle> next = new ArrayList<>(motorcycles.size() + current.size());
+        for (Motorcycle motorcycle : motorcycles) {
+            if (replaced.contains(motorcycle.getId())) {
+                held.put(motorcycle.getId(), motorcycle);
+            } else {
+                next.add(motorcycle);
+            }
+        }
+        for (Motorcycle motorcycle : current) {
+            Motorcycle previous = held.get(motorcycle.getId());
+            boolean older = previous != null && previous.getVersion() != null && motorcycle.getVersion() != null
+                    && motorcycle.getVersion() < previous.getVersion();
+            next.add(older ? previous : copy(motorcycle));
+        }
+        return build(next, objectMapper);
+    }
+
+    private static boolean isNewer(Motorcycle incoming, Motorcycle current) {
+        return incoming.getVersion() == null || current.getVersion() == null
+                || incoming.getVersion() > current.getVersion();
+    }
+
+    // Copia desasociada: la foto no comparte objetos con la sesión de Hibernate ni con quien la llama
+    private static Motorcycle copy(Motorcycle source) {
+        Motorcycle copy = new Motorcycle();
+        copy.setId(source.getId());
+        copy.setTenantId(source.getTenantId());
+        copy.setVersion(source.getVersion());
+        copy.setCode(source.getCode());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setBrand(source.getBrand());
+        copy.setPrice(source.getPrice());
+        copy.setType(source.getType());
+        copy.setModel(source.getModel());
+        copy.setYear(source.getYear());
+        copy.setColor(source.getColor());
+        copy.setStock(source.getStock());
+        copy.setAvailable(source.getAvailable());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public List<Motorcycle> getMotorcycles() {
+        return motorcycles;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+}
@@ -0,0 +1,298 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.event.ChangeEvent;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feed de cambios confirmados que se reparte a los clientes conectados por SSE.
+ *
+ * Cada conexión tiene un buffer acotado donde los eventos de la misma entidad
+ * se fusionan; el buffer se vacía periódicamente. Si un cliente se queda atrás
+ * más allá del buffer, o pide reanudar desde un Last-Event-ID que ya no está
+ * en el historial, recibe un evento "resync" y debe recargar sus listados.
+ *
+ * Las tareas programadas solo encolan el envío: los emitters se escriben en un
+ * pool propio y acotado, con a lo sumo un envío en curso por conexión, para
+ * que un cliente lento no retrase a los demás ni al resto de tareas @Scheduled.
+ *
+ * Los ids de evento son "instancia-secuencia". Cada instancia numera por su
+ * cuenta también los cambios que recibe de otras por LISTEN/NOTIFY, así que
+ * una secuencia solo es comparable dentro de la instancia que la emitió: un
+ * Last-Event-ID de otra instancia (o de antes de un reinicio) recibe "resync".
+ */
+@Service
+public class ChangeFeedService {
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Deque<ChangeEvent> history = new ArrayDeque<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    @Value("${stream.history-size:1024}")
+    private int historySize;
+
+    @Value("${stream.max-buffered-events:256}")
+    private int maxBufferedEvents;
+
+    @Value("${stream.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMillis;
+
+    @Value("${stream.send-threads:4}")
+    private int sendThreads;
+
+    private ThreadPoolExecutor sender;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        // Cada conexión tiene como mucho una tarea encolada, así que la cola no crece con los eventos
+        sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1024), runnable -> {
+                    Thread thread = new Thread(runnable, "change-feed-send-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    // PUBLISH - para el concesionario actual
+    public ChangeEvent publish(String entity, Long entityId, ChangeEvent.Action action, Object version,
+            Set<String> fields) {
+        return publish(TenantContext.current(), entity, entityId, action, version, fields);
+    }
+
+    public ChangeEvent publish(String tenant, String entity, Long entityId, ChangeEvent.Action action,
+            Object version, Set<String> fields) {
+        // Secuencia, historial y buffers en el mismo bloqueo: los ids llegan en orden y una
+        // suscripción que se une a la vez recibe el evento por el replay o por offer, no por ninguno
+        synchronized (history) {
+            long next = sequence.incrementAndGet();
+            ChangeEvent event = new ChangeEvent(eventId(next), next, entity, entityId, action, version,
+                    fields, tenant);
+            history.addLast(event);
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscription subscription : subscriptions) {
+                if (subscription.tenant.equals(tenant)) {
+                    subscription.offer(event);
+                }
+            }
+            return event;
+        }
+    }
+
+    // SUBSCRIBE - recibe solo los cambios del concesionario actual
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscription subscription = new Subscription(TenantContext.current(), emitter, maxBufferedEvents);
+
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(error -> subscriptions.remove(subscription));
+        synchronized (history) {
+            if (lastEventId != null) {
+                replay(subscription, lastEventId);
+            }
+            subscriptions.add(subscription);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public String getCurrentEventId() {
+        return eventId(sequence.get());
+    }
+
+    private String eventId(long sequence) {
+        return instanceId + "-" + sequence;
+    }
+
+    // Secuencia de un id emitido por esta instancia, o null si es de otra, de antes de un reinicio o no válido
+    private Long localSequence(String eventId) {
+        String prefix = instanceId + "-";
+        if (!eventId.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Llamado con el bloqueo de history
+    private void replay(Subscription subscription, String lastEventId) {
+        Long lastSequence = localSequence(lastEventId);
+        if (lastSequence == null) {
+            subscription.requireResync();
+            return;
+        }
+        ChangeEvent oldest = history.peekFirst();
+        boolean covered = lastSequence <= sequence.get()
+                && (oldest == null ? lastSequence == sequence.get() : lastSequence >= oldest.getSequence() - 1);
+        if (!covered) {
+            subscription.requireResync();
+            return;
+        }
+        for (ChangeEvent event : history) {
+            if (event.getSequence() > lastSequence && event.getTenant().equals(subscription.tenant)) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stream.flush-interval-ms:250}")
+    public void flush() {
+        for (Subscription subscription : subscriptions) {
+            dispatch(subscription);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.heartbeatDue = true;
+            dispatch(subscription);
+        }
+    }
+
+    // Encola el envío si la conexión no tiene ya uno en curso; lo pendiente se envía en la siguiente pasada
+    private void dispatch(Subscription subscription) {
+        if (!subscription.hasWork() || !subscription.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> {
+                try {
+                    subscription.flush(getCurrentEventId());
+                } catch (IOException | IllegalStateException e) {
+                    subscriptions.remove(subscription);
+                    subscription.emitter.completeWithError(e);
+                } finally {
+                    subscription.sending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            subscription.sending.set(false);
+        }
+    }
+
+    private static class Subscription {
+
+        private final String tenant;
+        private final SseEmitter emitter;
+        private final int maxBuffered;
+        private final Map<String, ChangeEvent> pending = new LinkedHashMap<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private boolean resyncRequired;
+
+        Subscription(String tenant, SseEmitter emitter, int maxBuffered) {
+            this.tenant = tenant;
+            this.emitter = emitter;
+            this.maxBuffered = maxBuffered;
+        }
+
+        synchronized void offer(ChangeEvent event) {
+            if (resyncRequired) {
+                return;
+            }
+            ChangeEvent previous = pending.remove(event.key());
+            pending.put(event.key(), previous == null ? event : coalesce(previous, event));
+            if (pending.size() > maxBuffered) {
+                requireResync();
+            }
+        }
+
+        synchronized void requireResync() {
+            pending.clear();
+            resyncRequired = true;
+        }
+
+        synchronized boolean hasWork() {
+            return heartbeatDue || resyncRequired || !pending.isEmpty();
+        }
+
+        void flush(String currentEventId) throws IOException {
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                emitter.send(SseEmitter.event().comment("ping"));
+            }
+            List<ChangeEvent> batch;
+            boolean resync;
+            synchronized (this) {
+                if (pending.isEmpty() && !resyncRequired) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                resync = resyncRequired;
+                pending.clear();
+                resyncRequired = false;
+            }
+
+            if (resync) {
+                emitter.send(SseEmitter.event()
+                        .id(currentEventId)
+                        .name("resync")
+                        .data(""));
+                return;
+            }
+            for (ChangeEvent event : batch) {
+                emitter.send(SseEmitter.event()
+                        .id(event.getId())
+                        .name("change")
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+
+        private static ChangeEvent coalesce(ChangeEvent previous, ChangeEvent next) {
+            ChangeEvent.Action action = next.getAction();
+            if (previous.getAction() == ChangeEvent.Action.CREATED && action == ChangeEvent.Action.UPDATED) {
+                action = ChangeEvent.Action.CREATED;
+            }
+            Set<String> fields = new LinkedHashSet<>();
+            if (previous.getFields() != null) {
+                fields.addAll(previous.getFields());
+            }
+            if (next.getFields() != null) {
+                fields.addAll(next.getFields());
+            }
+            return new ChangeEvent(next.getId(), next.getSequence(), next.getEntity(), next.getEntityId(), action,
+                    next.getVersion(), fields, next.getTenant());
+        }
+    }
+}
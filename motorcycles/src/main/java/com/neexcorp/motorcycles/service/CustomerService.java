@@ -1,44 +1,143 @@
 package com.neexcorp.motorcycles.service;
 
+import com.neexcorp.motorcycles.archive.ArchiveService;
+import com.neexcorp.motorcycles.cache.LocalCache;
+import com.neexcorp.motorcycles.model.ArchivedCustomer;
 import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.model.CustomerBase;
+import com.neexcorp.motorcycles.repository.ArchivedCustomerRepository;
 import com.neexcorp.motorcycles.repository.CustomerRepository;
+import com.neexcorp.motorcycles.service.UniqueKeyFilter.Key;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
+/**
+ * Los clientes archivados (ArchivedCustomer) se buscan en customers_archive
+ * solo cuando el id o la clave natural no están en la tabla activa, y se
+ * devuelven como Customer con archivedAt. Email y documento son únicos entre
+ * las dos tablas, para que un archivado siempre pueda volver.
+ */
 @Service
 @Transactional
-public class CustomerService {
+public class CustomerService implements LocalCache {
 
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private ArchivedCustomerRepository archivedCustomerRepository;
+
+    @Autowired
+    private RequestBatchLoader batchLoader;
+
+    @Autowired
+    private UniqueKeyFilter uniqueKeys;
+
+    @Autowired
+    private ArchiveService archiveService;
+
     // CREATE
     public Customer create(Customer customer) {
+        reserveUniqueKeys(null, customer);
+        customer.setVersion(null);
         customer.setCreatedAt(LocalDateTime.now());
         customer.setUpdatedAt(LocalDateTime.now());
         return customerRepository.save(customer);
     }
 
-    // READ ALL
+    // READ ALL - solo la tabla activa salvo includeArchived
+    @Transactional(readOnly = true)
+    public List<Customer> findAll(boolean includeArchived) {
+        List<Customer> customers = customerRepository.findAll();
+        if (includeArchived) {
+            archivedCustomerRepository.findAll().forEach(customer -> customers.add(customer.toCustomer()));
+            customers.sort(Comparator.comparing(Customer::getId));
+        }
+        return customers;
+    }
+
+    // READ RECENT - los últimos de la tabla activa, por la misma consulta que READ BY IDS
+    @Transactional(readOnly = true)
+    public List<Customer> findRecent(int limit) {
+        return findAllById(customerRepository.findRecentIds(PageRequest.of(0, limit)));
+    }
+
+    // READ BY IDS - una consulta IN a la tabla activa y otra al archivo solo para los que falten
     @Transactional(readOnly = true)
-    public List<Customer> findAll() {
-        return customerRepository.findAll();
+    public List<Customer> findAllById(Collection<Long> ids) {
+        Map<Long, Customer> found = batchLoader.loadAll(Customer.class, ids);
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return new ArrayList<>(found.values());
+        }
+        Map<Long, ArchivedCustomer> archived = batchLoader.loadAll(ArchivedCustomer.class, missing);
+        List<Customer> customers = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (found.containsKey(id)) {
+                customers.add(found.get(id));
+            } else if (archived.containsKey(id)) {
+                customers.add(archived.get(id).toCustomer());
+            }
+        }
+        return customers;
     }
 
     // READ BY ID
     @Transactional(readOnly = true)
     public Customer findById(Long id) {
-        return customerRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Customer not found with ID: " + id));
+        CustomerBase customer = load(id);
+        return customer instanceof ArchivedCustomer archived ? archived.toCustomer() : (Customer) customer;
+    }
+
+    // READ BY EMAIL / DOCUMENT - sin consulta cuando el filtro descarta el valor
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Customer> findByEmail(String email) {
+        if (!uniqueKeys.mightExist(Key.CUSTOMER_EMAIL, email)) {
+            return Optional.empty();
+        }
+        return customerRepository.findByEmail(email)
+                .or(() -> archivedCustomerRepository.findByEmail(email).map(ArchivedCustomer::toCustomer));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Customer> findByDocumentNumber(String documentNumber) {
+        if (!uniqueKeys.mightExist(Key.CUSTOMER_DOCUMENT, documentNumber)) {
+            return Optional.empty();
+        }
+        return customerRepository.findByDocumentNumber(documentNumber)
+                .or(() -> archivedCustomerRepository.findByDocumentNumber(documentNumber)
+                        .map(ArchivedCustomer::toCustomer));
     }
 
-    // UPDATE
-    public Customer update(Long id, Customer customerDetails) {
-        Customer existingCustomer = findById(id);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean existsByEmail(String email) {
+        return uniqueKeys.mightExist(Key.CUSTOMER_EMAIL, email) && findIdByEmail(email).isPresent();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean existsByDocumentNumber(String documentNumber) {
+        return uniqueKeys.mightExist(Key.CUSTOMER_DOCUMENT, documentNumber)
+                && findIdByDocumentNumber(documentNumber).isPresent();
+    }
+
+    // UPDATE - sobre la fila activa o la archivada, según dónde esté
+    public Customer update(Long id, Customer customerDetails, Long expectedVersion) {
+        CustomerBase existingCustomer = load(id);
+        OptimisticConcurrency.check(Customer.class, id, existingCustomer.getVersion(), expectedVersion);
+        reserveUniqueKeys(existingCustomer, customerDetails);
 
         existingCustomer.setFirstName(customerDetails.getFirstName());
         existingCustomer.setLastName(customerDetails.getLastName());
@@ -56,12 +155,80 @@ public class CustomerService {
         existingCustomer.setNotes(customerDetails.getNotes());
         existingCustomer.setUpdatedAt(LocalDateTime.now());
 
-        return customerRepository.save(existingCustomer);
+        if (existingCustomer instanceof ArchivedCustomer archived) {
+            // Reactivado desde el archivo: vuelve a la tabla activa sin esperar a la siguiente pasada
+            if (!archiveService.isCold(archived)) {
+                return archiveService.restore(archived);
+            }
+            // Sigue archivado: flush para devolver la versión nueva
+            return archivedCustomerRepository.saveAndFlush(archived).toCustomer();
+        }
+        return customerRepository.save((Customer) existingCustomer);
     }
 
     // DELETE
     public void delete(Long id) {
-        Customer customer = findById(id);
-        customerRepository.delete(customer);
+        CustomerBase customer = load(id);
+        if (customer instanceof ArchivedCustomer archived) {
+            archivedCustomerRepository.delete(archived);
+            batchLoader.evict(ArchivedCustomer.class, id);
+        } else {
+            customerRepository.delete((Customer) customer);
+            batchLoader.evict(Customer.class, id);
+        }
+    }
+
+    // Entidad gestionada de la tabla activa o, si no está en ella, del archivo
+    private CustomerBase load(Long id) {
+        Optional<? extends CustomerBase> customer = batchLoader.load(Customer.class, id);
+        if (customer.isEmpty()) {
+            customer = batchLoader.load(ArchivedCustomer.class, id);
+        }
+        return customer.orElseThrow(() -> new RuntimeException("Customer not found with ID: " + id));
+    }
+
+    private Optional<Long> findIdByEmail(String email) {
+        return customerRepository.findIdByEmail(email).or(() -> archivedCustomerRepository.findIdByEmail(email));
+    }
+
+    private Optional<Long> findIdByDocumentNumber(String documentNumber) {
+        return customerRepository.findIdByDocumentNumber(documentNumber)
+                .or(() -> archivedCustomerRepository.findIdByDocumentNumber(documentNumber));
+    }
+
+    // Email y documento libres (o sin cambios) en la tabla activa y en el archivo antes de escribir
+    private void reserveUniqueKeys(CustomerBase existing, Customer customer) {
+        Long id = existing != null ? existing.getId() : null;
+        if (existing == null || !Objects.equals(existing.getEmail(), customer.getEmail())) {
+            uniqueKeys.reserve(Key.CUSTOMER_EMAIL, customer.getEmail(), id, this::findIdByEmail);
+        }
+        if (existing == null || !Objects.equals(existing.getDocumentNumber(), customer.getDocumentNumber())) {
+            uniqueKeys.reserve(Key.CUSTOMER_DOCUMENT, customer.getDocumentNumber(), id, this::findIdByDocumentNumber);
+        }
+    }
+
+    @Override
+    public String cachedEntity() {
+        return "customer";
+    }
+
+    // Alta o cambio en otra instancia: sus claves pasan al filtro si ya estaba cargado
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void invalidate(Long id) {
+        if (!uniqueKeys.isLoaded(Key.CUSTOMER_EMAIL) && !uniqueKeys.isLoaded(Key.CUSTOMER_DOCUMENT)) {
+            return;
+        }
+        customerRepository.findById(id).map(CustomerBase.class::cast)
+                .or(() -> archivedCustomerRepository.findById(id))
+                .ifPresent(customer -> {
+                    uniqueKeys.addIfLoaded(Key.CUSTOMER_EMAIL, customer.getEmail());
+                    uniqueKeys.addIfLoaded(Key.CUSTOMER_DOCUMENT, customer.getDocumentNumber());
+                });
+    }
+
+    @Override
+    public void invalidateAll() {
+        uniqueKeys.invalidateAll(Customer.class);
     }
-}
\ No newline at end of file
+}
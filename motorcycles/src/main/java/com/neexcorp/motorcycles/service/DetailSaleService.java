@@ -1,13 +1,22 @@
 package com.neexcorp.motorcycles.service;
 
 import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.model.InventoryMovement.MovementType;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.model.Sale;
 import com.neexcorp.motorcycles.repository.DetailSaleRepository;
+import com.neexcorp.motorcycles.repository.SaleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+/**
+ * Altas, cambios y bajas directas de líneas de venta. Igual que en
+ * SaleService, el precio de la línea y el total de su venta se calculan en el
+ * servidor, en la misma transacción.
+ */
 @Service
 @Transactional
 public class DetailSaleService {
@@ -15,9 +24,33 @@ public class DetailSaleService {
     @Autowired
     private DetailSaleRepository detailSaleRepository;
 
-    // CREATE
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private RequestBatchLoader batchLoader;
+
+    @Autowired
+    private PricingService pricingService;
+
+    // CREATE - la línea se precia en el servidor y el total de su venta se recalcula
     public DetailSale create(DetailSale detailSale) {
-        return detailSaleRepository.save(detailSale);
+        Sale sale = owningSale(saleId(detailSale));
+        resolveMotorcycle(detailSale);
+        detailSale.setVersion(null);
+        // Precio antes de asociarla: la consulta del catálogo provoca un flush
+        pricingService.price(detailSale);
+        detailSale.setSale(sale);
+        sale.getDetails().add(detailSale);
+        pricingService.reprice(sale);
+
+        DetailSale created = detailSaleRepository.save(detailSale);
+        inventoryService.recordAll(InventoryService.saleMovements(sale.getId(), List.of(created),
+                MovementType.SALE, null));
+        return created;
     }
 
     // READ ALL
@@ -33,11 +66,18 @@ public class DetailSaleService {
                 .orElseThrow(() -> new RuntimeException("DetailSale not found with ID: " + id));
     }
 
-    // UPDATE
-    public DetailSale update(Long id, DetailSale detailSaleDetails) {
+    // UPDATE - sin saleId la línea sigue en su venta; si cambia de venta se recalculan las dos
+    public DetailSale update(Long id, DetailSale detailSaleDetails, Long expectedVersion) {
         DetailSale existingDetailSale = findById(id);
+        OptimisticConcurrency.check(DetailSale.class, id, existingDetailSale.getVersion(), expectedVersion);
+        resolveMotorcycle(detailSaleDetails);
+        Sale previousSale = existingDetailSale.getSale();
+        Sale sale = saleId(detailSaleDetails) != null ? owningSale(saleId(detailSaleDetails)) : previousSale;
+        inventoryService.reverseSale(previousSale.getId(), List.of(existingDetailSale), "Detalle modificado");
 
-        existingDetailSale.setSale(detailSaleDetails.getSale());
+        // Precio antes de tocar la línea guardada: la consulta del catálogo provoca un flush. El subtotal
+        // enviado se sustituye por el calculado y, sin precio unitario, se toma el del catálogo
+        pricingService.price(detailSaleDetails);
         existingDetailSale.setMotorcycle(detailSaleDetails.getMotorcycle());
         existingDetailSale.setQuantity(detailSaleDetails.getQuantity());
         existingDetailSale.setUnitPrice(detailSaleDetails.getUnitPrice());
@@ -45,12 +85,50 @@ public class DetailSaleService {
         existingDetailSale.setSubtotal(detailSaleDetails.getSubtotal());
         existingDetailSale.setNotes(detailSaleDetails.getNotes());
 
-        return detailSaleRepository.save(existingDetailSale);
+        if (!sale.getId().equals(previousSale.getId())) {
+            previousSale.getDetails().removeIf(detail -> detail == existingDetailSale);
+            existingDetailSale.setSale(sale);
+            sale.getDetails().add(existingDetailSale);
+            pricingService.reprice(previousSale);
+        }
+        pricingService.reprice(sale);
+
+        DetailSale updated = detailSaleRepository.save(existingDetailSale);
+        inventoryService.recordAll(InventoryService.saleMovements(sale.getId(), List.of(updated),
+                MovementType.SALE, null));
+        return updated;
     }
 
-    // DELETE
+    // DELETE - el total de la venta deja de contar la línea
     public void delete(Long id) {
         DetailSale detailSale = findById(id);
+        Sale sale = detailSale.getSale();
+        inventoryService.reverseSale(sale.getId(), List.of(detailSale), "Detalle eliminado");
+        sale.getDetails().removeIf(detail -> detail == detailSale);
         detailSaleRepository.delete(detailSale);
+        pricingService.reprice(sale);
+    }
+
+    // La venta se busca en el concesionario actual
+    private Sale owningSale(Long saleId) {
+        if (saleId == null) {
+            throw new IllegalArgumentException("El detalle debe indicar su venta (saleId)");
+        }
+        return saleRepository.findById(saleId)
+                .orElseThrow(() -> new IllegalArgumentException("Sale not found with ID: " + saleId));
+    }
+
+    // La motocicleta debe ser del concesionario actual; la línea se asocia a la entidad cargada, no a la referencia del JSON
+    private void resolveMotorcycle(DetailSale detailSale) {
+        if (detailSale.getMotorcycle() == null || detailSale.getMotorcycle().getId() == null) {
+            return;
+        }
+        Long motorcycleId = detailSale.getMotorcycle().getId();
+        detailSale.setMotorcycle(batchLoader.load(Motorcycle.class, motorcycleId)
+                .orElseThrow(() -> new IllegalArgumentException("Motorcycle not found with ID: " + motorcycleId)));
+    }
+
+    private static Long saleId(DetailSale detailSale) {
+        return detailSale.getSale() != null ? detailSale.getSale().getId() : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,245 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.model.DocumentJob;
+import com.neexcorp.motorcycles.model.DocumentJob.JobFormat;
+import com.neexcorp.motorcycles.model.DocumentJob.JobStatus;
+import com.neexcorp.motorcycles.model.DocumentJob.JobType;
+import com.neexcorp.motorcycles.repository.DocumentJobRepository;
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola de trabajos de documentos (facturas y reportes).
+ *
+ * Los trabajos se guardan en document_jobs y se ejecutan en un pool fijo de
+ * workers con una cola acotada; si la cola está llena la petición se rechaza
+ * en lugar de acumular trabajo. No es @Transactional a nivel de clase: el
+ * trabajo debe estar confirmado antes de que un worker lo recoja.
+ *
+ * Los trabajos que quedaron en cola o en curso al parar la aplicación se
+ * vuelven a encolar al arrancar. Eso, igual que la descarga desde el disco
+ * local (jobs.storage-dir), supone una sola instancia procesando trabajos.
+ */
+@Service
+public class DocumentJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentJobService.class);
+
+    // Longitud de la columna error (VARCHAR(255))
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    @Autowired
+    private DocumentJobRepository jobRepository;
+
+    @Autowired
+    private DocumentRenderer renderer;
+
+    @Autowired
+    private DocumentStore store;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    @Value("${jobs.workers:2}")
+    private int workers;
+
+    @Value("${jobs.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${jobs.max-report-days:366}")
+    private int maxReportDays;
+
+    @Value("${jobs.retention-hours:24}")
+    private long retentionHours;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "document-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // CREATE - encola el trabajo; RejectedExecutionException si la cola está llena
+    public DocumentJob submit(DocumentJob request) {
+        DocumentJob job = new DocumentJob();
+        job.setType(request.getType());
+        job.setFormat(request.getFormat() != null ? request.getFormat() : JobFormat.PDF);
+        job.setSaleId(request.getSaleId());
+        job.setFromDate(request.getFromDate());
+        job.setToDate(request.getToDate());
+        validate(job);
+        job.setFileName(renderer.fileName(job));
+
+        DocumentJob saved = jobRepository.save(job);
+        String tenant = TenantContext.current();
+        try {
+            enqueue(tenant, saved.getId());
+        } catch (RejectedExecutionException e) {
+            jobRepository.delete(saved);
+            throw e;
+        }
+        return saved;
+    }
+
+    // Reanuda los trabajos que un reinicio dejó en QUEUED o RUNNING, en cada ruta de datos
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOrphaned() {
+        TenantContext.runAs(TenantContext.ROOT, this::resumeRoute);
+        for (String tenant : tenancyProperties.getRoutes().keySet()) {
+            TenantContext.runAs(tenant, this::resumeRoute);
+        }
+    }
+
+    private void resumeRoute() {
+        List<DocumentJob> orphaned = jobRepository.findByStatusInOrderByCreatedAtAsc(
+                List.of(JobStatus.QUEUED, JobStatus.RUNNING));
+        for (DocumentJob job : orphaned) {
+            TenantContext.runAs(job.getTenantId(), () -> {
+                job.setStatus(JobStatus.QUEUED);
+                job.setStartedAt(null);
+                DocumentJob saved = jobRepository.save(job);
+                try {
+                    enqueue(saved.getTenantId(), saved.getId());
+                } catch (RejectedExecutionException e) {
+                    fail(saved, "La cola estaba llena al reanudar el trabajo tras un reinicio");
+                }
+            });
+        }
+        if (!orphaned.isEmpty()) {
+            log.info("Reanudados {} trabajos de documentos interrumpidos", orphaned.size());
+        }
+    }
+
+    private void enqueue(String tenant, Long jobId) {
+        executor.execute(() -> TenantContext.runAs(tenant, () -> run(jobId)));
+    }
+
+    // READ BY ID
+    public DocumentJob findById(Long id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Job not found with ID: " + id));
+    }
+
+    // Fichero de un trabajo terminado; IllegalStateException si aún no está listo
+    public Path getFile(DocumentJob job) {
+        if (job.getStatus() != JobStatus.COMPLETED) {
+            throw new IllegalStateException("El trabajo " + job.getId() + " está en estado " + job.getStatus());
+        }
+        if (!DocumentStore.belongsTo(job.getStorageKey(), job.getTenantId())) {
+            throw new RuntimeException("Document not found for job: " + job.getId());
+        }
+        Path file = store.resolve(job.getStorageKey());
+        if (!Files.exists(file)) {
+            throw new RuntimeException("Document not found for job: " + job.getId());
+        }
+        return file;
+    }
+
+    // Borra trabajos y documentos más antiguos que la retención, en cada ruta de datos
+    @Scheduled(fixedDelayString = "${jobs.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        TenantContext.runAs(TenantContext.ROOT, this::cleanupRoute);
+        for (String tenant : tenancyProperties.getRoutes().keySet()) {
+            TenantContext.runAs(tenant, this::cleanupRoute);
+        }
+    }
+
+    private void cleanupRoute() {
+        for (DocumentJob job : jobRepository.findByCreatedAtBefore(LocalDateTime.now().minusHours(retentionHours))) {
+            if (job.getStatus() == JobStatus.QUEUED || job.getStatus() == JobStatus.RUNNING) {
+                continue;
+            }
+            // Solo se borran documentos bajo el directorio del concesionario del trabajo
+            if (DocumentStore.belongsTo(job.getStorageKey(), job.getTenantId())) {
+                store.delete(job.getStorageKey());
+            }
+            // El borrado se hace como el tenant del trabajo, nunca como ROOT
+            TenantContext.runAs(job.getTenantId(), () -> jobRepository.delete(job));
+        }
+    }
+
+    private void run(Long jobId) {
+        DocumentJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        job.setStatus(JobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        String key = DocumentStore.key(job.getTenantId(), job.getId(), job.getFormat() == JobFormat.PDF ? "pdf" : "csv");
+        try {
+            DocumentJob current = job;
+            long size = store.write(key, out -> renderer.render(current, out));
+            job.setStorageKey(key);
+            job.setFileSize(size);
+            job.setStatus(JobStatus.COMPLETED);
+        } catch (Exception e) {
+            log.warn("Trabajo de documento {} fallido: {}", jobId, e.getMessage());
+            fail(job, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            return;
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    // El mensaje se recorta a la columna: si el guardado fallase, el trabajo se quedaría en RUNNING
+    private void fail(DocumentJob job, String error) {
+        job.setStatus(JobStatus.FAILED);
+        job.setError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        job.setFinishedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    private void validate(DocumentJob job) {
+        if (job.getType() == null) {
+            throw new IllegalArgumentException("El tipo de trabajo es obligatorio (INVOICE o SALES_REPORT)");
+        }
+        if (job.getType() == JobType.INVOICE) {
+            if (job.getSaleId() == null) {
+                throw new IllegalArgumentException("saleId es obligatorio para una factura");
+            }
+            return;
+        }
+        if (job.getFromDate() == null || job.getToDate() == null) {
+            throw new IllegalArgumentException("fromDate y toDate son obligatorios para un reporte");
+        }
+        if (job.getFromDate().isAfter(job.getToDate())) {
+            throw new IllegalArgumentException("fromDate no puede ser posterior a toDate");
+        }
+        if (job.getFromDate().plusDays(maxReportDays).isBefore(job.getToDate())) {
+            throw new IllegalArgumentException("El reporte no puede superar " + maxReportDays + " días");
+        }
+    }
+}
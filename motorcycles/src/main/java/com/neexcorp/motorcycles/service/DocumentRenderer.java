@@ -0,0 +1,374 @@
+package com.neexcorp.motorcycles.service;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import com.neexcorp.motorcycles.model.DocumentJob;
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import com.neexcorp.motorcycles.tenant.TenantRoutingDataSource;
+import com.neexcorp.motorcycles.util.Money;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Genera facturas y reportes de ventas en PDF o CSV.
+ *
+ * Lee con JDBC sobre un pool propio y pequeño (uno por worker), separado del
+ * pool de la API, así los trabajos pesados nunca dejan sin conexiones a las
+ * peticiones interactivas. Las filas del reporte se leen con un cursor
+ * (fetch size) y se escriben al fichero a medida que llegan, sin cargar el
+ * mes completo en memoria.
+ *
+ * Hay un pool por ruta de datos (el compartido y uno por cada concesionario
+ * con base propia) y las consultas filtran siempre por el tenant del trabajo.
+ */
+@Component
+public class DocumentRenderer {
+
+    // Clientes y empleados de las ventas antiguas pueden estar ya en las tablas de archivo
+    private static final String PARTIES = "FROM sales s "
+            + "JOIN (SELECT id, first_name, last_name, document_type, document_number, email, phone, address, city "
+            + "FROM customers UNION ALL SELECT id, first_name, last_name, document_type, document_number, email, phone, "
+            + "address, city FROM customers_archive) c ON c.id = s.customer_id "
+            + "JOIN (SELECT id, first_name, last_name FROM employees UNION ALL "
+            + "SELECT id, first_name, last_name FROM employees_archive) e ON e.id = s.employee_id ";
+
+    private static final String INVOICE_HEADER = "SELECT s.sale_number, s.sale_date, s.status, s.payment_method, "
+            + "s.total, c.first_name, c.last_name, c.document_type, c.document_number, c.email, c.phone, "
+            + "c.address, c.city, e.first_name AS employee_first_name, e.last_name AS employee_last_name "
+            + PARTIES + "WHERE s.id = ? AND s.tenant_id = ?";
+
+    private static final String INVOICE_LINES = "SELECT m.code, m.name, d.quantity, d.unit_price, d.discount, "
+            + "d.subtotal FROM detail_sales d JOIN motorcycles m ON m.id = d.motorcycle_id "
+            + "WHERE d.sale_id = ? ORDER BY d.id";
+
+    private static final String REPORT_LINES = "SELECT s.sale_number, s.sale_date, s.status, s.payment_method, "
+            + "c.first_name || ' ' || c.last_name AS customer, e.first_name || ' ' || e.last_name AS employee, "
+            + "m.code, m.name, d.quantity, d.unit_price, d.discount, d.subtotal "
+            + PARTIES + "JOIN detail_sales d ON d.sale_id = s.id JOIN motorcycles m ON m.id = d.motorcycle_id "
+            + "WHERE s.tenant_id = ? AND s.sale_date >= ? AND s.sale_date < ? ORDER BY s.sale_date, s.id, d.id";
+
+    // Columnas del reporte de ventas; las comparte la exportación CSV en streaming
+    static final String[] REPORT_COLUMNS = { "Venta", "Fecha", "Estado", "Pago", "Cliente", "Vendedor", "Código",
+            "Motocicleta", "Cantidad", "Precio unitario", "Descuento", "Subtotal" };
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    // Filas acumuladas en la tabla PDF antes de volcarlas al documento
+    private static final int PDF_FLUSH_ROWS = 200;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    @Value("${jobs.workers:2}")
+    private int workers;
+
+    @Value("${jobs.fetch-size:500}")
+    private int fetchSize;
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private JdbcTemplate sharedTemplate;
+    private final Map<String, JdbcTemplate> routeTemplates = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        sharedTemplate = template("document-jobs", null);
+        tenancyProperties.getRoutes().forEach((tenant, route) ->
+                routeTemplates.put(tenant, template("document-jobs-" + tenant, route)));
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    private JdbcTemplate template(String poolName, TenancyProperties.Route route) {
+        HikariConfig config = TenantRoutingDataSource.config(poolName, route, dataSourceProperties);
+        config.setMaximumPoolSize(workers);
+        // El driver de PostgreSQL solo usa cursor (fetch size) fuera de autocommit
+        config.setAutoCommit(false);
+        config.setReadOnly(true);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        dataSources.add(dataSource);
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        return template;
+    }
+
+    public String fileName(DocumentJob job) {
+        String extension = job.getFormat() == DocumentJob.JobFormat.PDF ? ".pdf" : ".csv";
+        if (job.getType() == DocumentJob.JobType.INVOICE) {
+            return "factura-" + job.getSaleId() + extension;
+        }
+        return "ventas-" + job.getFromDate() + "-" + job.getToDate() + extension;
+    }
+
+    public void render(DocumentJob job, OutputStream out) throws Exception {
+        JdbcTemplate jdbcTemplate = routeTemplates.getOrDefault(job.getTenantId(), sharedTemplate);
+        try (Sink sink = job.getFormat() == DocumentJob.JobFormat.PDF ? new PdfSink(out, job.getType())
+                : new CsvSink(out)) {
+            if (job.getType() == DocumentJob.JobType.INVOICE) {
+                renderInvoice(jdbcTemplate, job, sink);
+            } else {
+                renderReport(jdbcTemplate, job, sink);
+            }
+        }
+    }
+
+    private void renderInvoice(JdbcTemplate jdbcTemplate, DocumentJob job, Sink sink) {
+        Long saleId = job.getSaleId();
+        List<Map<String, Object>> headers = jdbcTemplate.queryForList(INVOICE_HEADER, saleId, job.getTenantId());
+        if (headers.isEmpty()) {
+            throw new IllegalArgumentException("Sale not found with ID: " + saleId);
+        }
+        Map<String, Object> sale = headers.get(0);
+        sink.title("Factura " + sale.get("sale_number"), List.of(
+                "Fecha: " + format(sale.get("sale_date")),
+                "Cliente: " + sale.get("first_name") + " " + sale.get("last_name")
+                        + (sale.get("document_number") != null
+                                ? " (" + sale.get("document_type") + " " + sale.get("document_number") + ")" : ""),
+                "Contacto: " + sale.get("email") + " / " + sale.get("phone"),
+                "Dirección: " + text(sale.get("address")) + " " + text(sale.get("city")),
+                "Vendedor: " + sale.get("employee_first_name") + " " + sale.get("employee_last_name"),
+                "Forma de pago: " + text(sale.get("payment_method")) + " - Estado: " + sale.get("status")));
+        sink.columns("Código", "Motocicleta", "Cantidad", "Precio unitario", "Descuento", "Subtotal");
+        jdbcTemplate.query(INVOICE_LINES, (ResultSet rs) -> {
+            sink.row(rs.getString("code"), rs.getString("name"), rs.getInt("quantity"),
+                    rs.getBigDecimal("unit_price"), rs.getBigDecimal("discount"), rs.getBigDecimal("subtotal"));
+        }, saleId);
+        sink.summary(List.of("Total: " + ((BigDecimal) sale.get("total")).toPlainString()));
+    }
+
+    private void renderReport(JdbcTemplate jdbcTemplate, DocumentJob job, Sink sink) {
+        sink.title("Reporte de ventas " + job.getFromDate() + " a " + job.getToDate(), List.of());
+        sink.columns(REPORT_COLUMNS);
+
+        ReportTotals totals = new ReportTotals();
+        jdbcTemplate.query(REPORT_LINES, (ResultSet rs) -> {
+            String saleNumber = rs.getString("sale_number");
+            int quantity = rs.getInt("quantity");
+            BigDecimal subtotal = rs.getBigDecimal("subtotal");
+            totals.add(saleNumber, quantity, subtotal);
+            sink.row(saleNumber, rs.getTimestamp("sale_date"), rs.getString("status"),
+                    rs.getString("payment_method"), rs.getString("customer"), rs.getString("employee"),
+                    rs.getString("code"), rs.getString("name"), quantity, rs.getBigDecimal("unit_price"),
+                    rs.getBigDecimal("discount"), subtotal);
+        }, job.getTenantId(), Timestamp.valueOf(job.getFromDate().atStartOfDay()),
+                Timestamp.valueOf(job.getToDate().plusDays(1).atStartOfDay()));
+
+        sink.summary(List.of(
+                "Ventas: " + totals.sales,
+                "Unidades: " + totals.units,
+                "Total vendido: " + Money.toDecimal(totals.revenueMinor).toPlainString()));
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().format(DATE_TIME);
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.format(DATE_TIME);
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static class ReportTotals {
+        private String lastSale;
+        private long sales;
+        private long units;
+        private long revenueMinor;
+
+        // Las filas llegan ordenadas por venta, así que basta con detectar el cambio
+        void add(String saleNumber, int quantity, BigDecimal subtotal) {
+            if (!saleNumber.equals(lastSale)) {
+                sales++;
+                lastSale = saleNumber;
+            }
+            units += quantity;
+            revenueMinor = Math.addExact(revenueMinor, Money.toMinor(subtotal));
+        }
+    }
+
+    // Una fila CSV terminada en CRLF
+    static String csvRow(Object... values) {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            row.append(CsvSink.escape(format(values[i])));
+        }
+        return row.append("\r\n").toString();
+    }
+
+    /** Destino de las filas: CSV o una tabla PDF. */
+    private interface Sink extends AutoCloseable {
+        void title(String title, List<String> lines);
+
+        void columns(String... names);
+
+        void row(Object... values);
+
+        void summary(List<String> lines);
+
+        @Override
+        void close() throws IOException;
+    }
+
+    // CSV plano: una cabecera y una fila por línea de venta; título y resumen se omiten
+    private static class CsvSink implements Sink {
+        private final BufferedWriter writer;
+
+        CsvSink(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void title(String title, List<String> lines) {
+        }
+
+        @Override
+        public void columns(String... names) {
+            row((Object[]) names);
+        }
+
+        @Override
+        public void row(Object... values) {
+            try {
+                writer.write(csvRow(values));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void summary(List<String> lines) {
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    // La tabla se marca incompleta y se vuelca cada PDF_FLUSH_ROWS filas para no retenerla en memoria
+    private static class PdfSink implements Sink {
+        private static final Font TITLE = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+        private static final Font BOLD = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8);
+        private static final Font NORMAL = FontFactory.getFont(FontFactory.HELVETICA, 8);
+
+        private final Document document;
+        private PdfPTable table;
+        private int pending;
+
+        PdfSink(OutputStream out, DocumentJob.JobType type) {
+            this.document = new Document(type == DocumentJob.JobType.SALES_REPORT ? PageSize.A4.rotate() : PageSize.A4,
+                    36, 36, 36, 36);
+            PdfWriter.getInstance(document, out);
+            document.open();
+        }
+
+        @Override
+        public void title(String title, List<String> lines) {
+            document.add(new Paragraph(title, TITLE));
+            for (String line : lines) {
+                document.add(new Paragraph(line, NORMAL));
+            }
+            document.add(new Paragraph(" "));
+        }
+
+        @Override
+        public void columns(String... names) {
+            table = new PdfPTable(names.length);
+            table.setWidthPercentage(100);
+            table.setHeaderRows(1);
+            table.setComplete(false);
+            for (String name : names) {
+                PdfPCell cell = new PdfPCell(new Phrase(name, BOLD));
+                cell.setGrayFill(0.9f);
+                table.addCell(cell);
+            }
+        }
+
+        @Override
+        public void row(Object... values) {
+            for (Object value : values) {
+                PdfPCell cell = new PdfPCell(new Phrase(format(value), NORMAL));
+                if (value instanceof Number) {
+                    cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+                }
+                table.addCell(cell);
+            }
+            if (++pending >= PDF_FLUSH_ROWS) {
+                document.add(table);
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void summary(List<String> lines) {
+            table.setComplete(true);
+            document.add(table);
+            document.add(new Paragraph(" "));
+            for (String line : lines) {
+                document.add(new Paragraph(line, BOLD));
+            }
+        }
+
+        @Override
+        public void close() {
+            document.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.neexcorp.motorcycles.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Almacén local de los documentos generados. Cada documento se escribe primero
+ * en un fichero temporal y se mueve a su nombre final al terminar, así una
+ * descarga nunca ve un fichero a medias.
+ *
+ * Las claves van bajo un subdirectorio por concesionario (key()): cada ruta de
+ * datos numera sus trabajos con su propia secuencia, así que el id solo no
+ * basta para distinguir el documento de un concesionario del de otro.
+ */
+@Component
+public class DocumentStore {
+
+    private final Path directory;
+
+    public DocumentStore(@Value("${jobs.storage-dir:${java.io.tmpdir}/motorcycles-documents}") String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de documentos " + this.directory, e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream out) throws Exception;
+    }
+
+    // Clave de almacenamiento del documento de un trabajo: <tenant>/<id>.<extensión>
+    public static String key(String tenant, Long jobId, String extension) {
+        return tenant + "/" + jobId + "." + extension;
+    }
+
+    // Las claves anteriores al prefijo (<id>.<extensión>) pueden ser de cualquier concesionario
+    public static boolean belongsTo(String key, String tenant) {
+        return key != null && key.startsWith(tenant + "/");
+    }
+
+    /** Escribe el documento y devuelve su tamaño en bytes. */
+    public long write(String key, Writer writer) throws Exception {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                writer.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Files.size(target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Path resolve(String key) {
+        Path path = directory.resolve(key).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IllegalArgumentException("Clave de documento no válida: " + key);
+        }
+        return path;
+    }
+
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,44 +1,143 @@
 package com.neexcorp.motorcycles.service;
 
+import com.neexcorp.motorcycles.archive.ArchiveService;
+import com.neexcorp.motorcycles.cache.LocalCache;
+import com.neexcorp.motorcycles.model.ArchivedEmployee;
 import com.neexcorp.motorcycles.model.Employee;
+import com.neexcorp.motorcycles.model.EmployeeBase;
+import com.neexcorp.motorcycles.repository.ArchivedEmployeeRepository;
 import com.neexcorp.motorcycles.repository.EmployeeRepository;
+import com.neexcorp.motorcycles.service.UniqueKeyFilter.Key;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
+/**
+ * Los empleados archivados (ArchivedEmployee) se buscan en employees_archive
+ * solo cuando el id o la clave natural no están en la tabla activa, y se
+ * devuelven como Employee con archivedAt. Email y documento son únicos entre
+ * las dos tablas, para que un archivado siempre pueda volver.
+ */
 @Service
 @Transactional
-public class EmployeeService {
+public class EmployeeService implements LocalCache {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private ArchivedEmployeeRepository archivedEmployeeRepository;
+
+    @Autowired
+    private RequestBatchLoader batchLoader;
+
+    @Autowired
+    private UniqueKeyFilter uniqueKeys;
+
+    @Autowired
+    private ArchiveService archiveService;
+
     // CREATE
     public Employee create(Employee employee) {
+        reserveUniqueKeys(null, employee);
+        employee.setVersion(null);
         employee.setCreatedAt(LocalDateTime.now());
         employee.setUpdatedAt(LocalDateTime.now());
         return employeeRepository.save(employee);
     }
 
-    // READ ALL
+    // READ ALL - solo la tabla activa salvo includeArchived
+    @Transactional(readOnly = true)
+    public List<Employee> findAll(boolean includeArchived) {
+        List<Employee> employees = employeeRepository.findAll();
+        if (includeArchived) {
+            archivedEmployeeRepository.findAll().forEach(employee -> employees.add(employee.toEmployee()));
+            employees.sort(Comparator.comparing(Employee::getId));
+        }
+        return employees;
+    }
+
+    // READ RECENT - los últimos de la tabla activa, por la misma consulta que READ BY IDS
+    @Transactional(readOnly = true)
+    public List<Employee> findRecent(int limit) {
+        return findAllById(employeeRepository.findRecentIds(PageRequest.of(0, limit)));
+    }
+
+    // READ BY IDS - una consulta IN a la tabla activa y otra al archivo solo para los que falten
     @Transactional(readOnly = true)
-    public List<Employee> findAll() {
-        return employeeRepository.findAll();
+    public List<Employee> findAllById(Collection<Long> ids) {
+        Map<Long, Employee> found = batchLoader.loadAll(Employee.class, ids);
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return new ArrayList<>(found.values());
+        }
+        Map<Long, ArchivedEmployee> archived = batchLoader.loadAll(ArchivedEmployee.class, missing);
+        List<Employee> employees = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (found.containsKey(id)) {
+                employees.add(found.get(id));
+            } else if (archived.containsKey(id)) {
+                employees.add(archived.get(id).toEmployee());
+            }
+        }
+        return employees;
     }
 
     // READ BY ID
     @Transactional(readOnly = true)
     public Employee findById(Long id) {
-        return employeeRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Employee not found with ID: " + id));
+        EmployeeBase employee = load(id);
+        return employee instanceof ArchivedEmployee archived ? archived.toEmployee() : (Employee) employee;
+    }
+
+    // READ BY EMAIL / DOCUMENT - sin consulta cuando el filtro descarta el valor
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Employee> findByEmail(String email) {
+        if (!uniqueKeys.mightExist(Key.EMPLOYEE_EMAIL, email)) {
+            return Optional.empty();
+        }
+        return employeeRepository.findByEmail(email)
+                .or(() -> archivedEmployeeRepository.findByEmail(email).map(ArchivedEmployee::toEmployee));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Employee> findByDocumentNumber(String documentNumber) {
+        if (!uniqueKeys.mightExist(Key.EMPLOYEE_DOCUMENT, documentNumber)) {
+            return Optional.empty();
+        }
+        return employeeRepository.findByDocumentNumber(documentNumber)
+                .or(() -> archivedEmployeeRepository.findByDocumentNumber(documentNumber)
+                        .map(ArchivedEmployee::toEmployee));
     }
 
-    // UPDATE
-    public Employee update(Long id, Employee employeeDetails) {
-        Employee existingEmployee = findById(id);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean existsByEmail(String email) {
+        return uniqueKeys.mightExist(Key.EMPLOYEE_EMAIL, email) && findIdByEmail(email).isPresent();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean existsByDocumentNumber(String documentNumber) {
+        return uniqueKeys.mightExist(Key.EMPLOYEE_DOCUMENT, documentNumber)
+                && findIdByDocumentNumber(documentNumber).isPresent();
+    }
+
+    // UPDATE - sobre la fila activa o la archivada, según dónde esté
+    public Employee update(Long id, Employee employeeDetails, Long expectedVersion) {
+        EmployeeBase existingEmployee = load(id);
+        OptimisticConcurrency.check(Employee.class, id, existingEmployee.getVersion(), expectedVersion);
+        reserveUniqueKeys(existingEmployee, employeeDetails);
 
         existingEmployee.setFirstName(employeeDetails.getFirstName());
         existingEmployee.setLastName(employeeDetails.getLastName());
@@ -59,12 +158,80 @@ public class EmployeeService {
         existingEmployee.setNotes(employeeDetails.getNotes());
         existingEmployee.setUpdatedAt(LocalDateTime.now());
 
-        return employeeRepository.save(existingEmployee);
+        if (existingEmployee instanceof ArchivedEmployee archived) {
+            // Reactivado desde el archivo: vuelve a la tabla activa sin esperar a la siguiente pasada
+            if (!archiveService.isCold(archived)) {
+                return archiveService.restore(archived);
+            }
+            // Sigue archivado: flush para devolver la versión nueva
+            return archivedEmployeeRepository.saveAndFlush(archived).toEmployee();
+        }
+        return employeeRepository.save((Employee) existingEmployee);
     }
 
     // DELETE
     public void delete(Long id) {
-        Employee employee = findById(id);
-        employeeRepository.delete(employee);
+        EmployeeBase employee = load(id);
+        if (employee instanceof ArchivedEmployee archived) {
+            archivedEmployeeRepository.delete(archived);
+            batchLoader.evict(ArchivedEmployee.class, id);
+        } else {
+            employeeRepository.delete((Employee) employee);
+            batchLoader.evict(Employee.class, id);
+        }
+    }
+
+    // Entidad gestionada de la tabla activa o, si no está en ella, del archivo
+    private EmployeeBase load(Long id) {
+        Optional<? extends EmployeeBase> employee = batchLoader.load(Employee.class, id);
+        if (employee.isEmpty()) {
+            employee = batchLoader.load(ArchivedEmployee.class, id);
+        }
+        return employee.orElseThrow(() -> new RuntimeException("Employee not found with ID: " + id));
+    }
+
+    private Optional<Long> findIdByEmail(String email) {
+        return employeeRepository.findIdByEmail(email).or(() -> archivedEmployeeRepository.findIdByEmail(email));
+    }
+
+    private Optional<Long> findIdByDocumentNumber(String documentNumber) {
+        return employeeRepository.findIdByDocumentNumber(documentNumber)
+                .or(() -> archivedEmployeeRepository.findIdByDocumentNumber(documentNumber));
+    }
+
+    // Email y documento libres (o sin cambios) en la tabla activa y en el archivo antes de escribir
+    private void reserveUniqueKeys(EmployeeBase existing, Employee employee) {
+        Long id = existing != null ? existing.getId() : null;
+        if (existing == null || !Objects.equals(existing.getEmail(), employee.getEmail())) {
+            uniqueKeys.reserve(Key.EMPLOYEE_EMAIL, employee.getEmail(), id, this::findIdByEmail);
+        }
+        if (existing == null || !Objects.equals(existing.getDocumentNumber(), employee.getDocumentNumber())) {
+            uniqueKeys.reserve(Key.EMPLOYEE_DOCUMENT, employee.getDocumentNumber(), id, this::findIdByDocumentNumber);
+        }
+    }
+
+    @Override
+    public String cachedEntity() {
+        return "employee";
+    }
+
+    // Alta o cambio en otra instancia: sus claves pasan al filtro si ya estaba cargado
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void invalidate(Long id) {
+        if (!uniqueKeys.isLoaded(Key.EMPLOYEE_EMAIL) && !uniqueKeys.isLoaded(Key.EMPLOYEE_DOCUMENT)) {
+            return;
+        }
+        employeeRepository.findById(id).map(EmployeeBase.class::cast)
+                .or(() -> archivedEmployeeRepository.findById(id))
+                .ifPresent(employee -> {
+                    uniqueKeys.addIfLoaded(Key.EMPLOYEE_EMAIL, employee.getEmail());
+                    uniqueKeys.addIfLoaded(Key.EMPLOYEE_DOCUMENT, employee.getDocumentNumber());
+                });
+    }
+
+    @Override
+    public void invalidateAll() {
+        uniqueKeys.invalidateAll(Employee.class);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,363 @@
+package com.neexcorp.motorcycles.service;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.neexcorp.motorcycles.model.ArchivedCustomer;
+import com.neexcorp.motorcycles.model.ArchivedEmployee;
+import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.model.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Proyecciones para el parámetro ?fields= de los endpoints de lectura.
+ *
+ * Los campos pedidos se validan contra el metamodelo JPA y se traducen a una
+ * consulta Criteria de tuplas que solo selecciona esas columnas; las
+ * asociaciones a uno ("customer.email") se resuelven con joins en la misma
+ * consulta. Una colección de la raíz ("details.motorcycle.code") se carga con
+ * una segunda consulta de tuplas filtrada por los ids de la primera. Clientes
+ * y empleados archivados se leen de su archivo solo cuando la tabla activa no
+ * tiene el id pedido o la fila a la que apunta una venta.
+ * El id de cada entidad se incluye siempre. Solo se admiten los campos que
+ * Jackson serializaría en la respuesta completa: los @JsonIgnore (tenantId,
+ * rutas de almacenamiento) y las referencias inversas se rechazan.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FieldProjectionService {
+
+    private static final int MAX_IN_CLAUSE = 1000;
+
+    // Entidad del archivo de cada entidad activa: mismas columnas y mismos ids
+    private static final Map<Class<?>, Class<?>> ARCHIVES = Map.of(
+            Customer.class, ArchivedCustomer.class,
+            Employee.class, ArchivedEmployee.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Class<?>, Set<String>> serializable = new ConcurrentHashMap<>();
+
+    public List<Map<String, Object>> findAll(Class<?> type, String fields, Collection<Long> ids) {
+        return findAll(type, fields, ids, false);
+    }
+
+    // Las entidades con archivo solo leen el archivo para los ids que faltan o con includeArchived
+    public List<Map<String, Object>> findAll(Class<?> type, String fields, Collection<Long> ids,
+            boolean includeArchived) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(type);
+        Node root = parse(entityType, fields);
+
+        Query query = new Query(entityType, root);
+        if (ids != null) {
+            if (ids.isEmpty()) {
+                return new ArrayList<>();
+            }
+            query.criteria.where(query.root.get("id").in(ids));
+        }
+        query.criteria.orderBy(query.builder.asc(query.root.get("id")));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Map<Object, Map<String, Object>> byId = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query.select()).getResultList()) {
+            Map<String, Object> row = query.toMap(tuple);
+            rows.add(row);
+            byId.put(row.get("id"), row);
+        }
+        loadArchived(query);
+
+        Class<?> archive = ARCHIVES.get(type);
+        List<Long> missing = ids == null ? List.of()
+                : ids.stream().filter(id -> !byId.containsKey(id)).distinct().toList();
+        if (archive != null && (ids == null ? includeArchived : !missing.isEmpty())) {
+            Query archived = new Query(entityManager.getMetamodel().entity(archive), root);
+            if (ids != null) {
+                archived.criteria.where(archived.root.get("id").in(missing));
+            }
+            for (Tuple tuple : entityManager.createQuery(archived.select()).getResultList()) {
+                Map<String, Object> row = archived.toMap(tuple);
+                rows.add(row);
+                byId.put(row.get("id"), row);
+            }
+            loadArchived(archived);
+            rows.sort(Comparator.comparing(row -> (Long) row.get("id")));
+        }
+
+        for (Node child : root.children.values()) {
+            if (child.collection != null) {
+                loadCollection(child, byId);
+            }
+        }
+        return rows;
+    }
+
+    public Map<String, Object> findById(Class<?> type, String fields, Long id) {
+        List<Map<String, Object>> rows = findAll(type, fields, List.of(id));
+        if (rows.isEmpty()) {
+            throw new RuntimeException(type.getSimpleName() + " not found with ID: " + id);
+        }
+        return rows.get(0);
+    }
+
+    private void loadCollection(Node node, Map<Object, Map<String, Object>> parents) {
+        for (Map<String, Object> parent : parents.values()) {
+            parent.put(node.name, new ArrayList<>());
+        }
+        if (parents.isEmpty()) {
+            return;
+        }
+
+        Query query = new Query(node.collection, node);
+        Path<Object> parentId = query.root.get(node.mappedBy).get("id");
+        int parentIndex = query.selections.size();
+        query.selections.add(parentId);
+        query.criteria.where(parentId.in(parents.keySet()));
+        query.criteria.orderBy(query.builder.asc(query.root.get("id")));
+
+        for (Tuple tuple : entityManager.createQuery(query.select()).getResultList()) {
+            Map<String, Object> parent = parents.get(tuple.get(parentIndex));
+            @SuppressWarnings("unchecked")
+            List<Object> items = (List<Object>) parent.get(node.name);
+            items.add(query.toMap(tuple));
+        }
+        loadArchived(query);
+    }
+
+    // Asociaciones a uno con la fila en el archivo, que el join a la tabla activa dejó vacías: una consulta IN por nodo
+    private void loadArchived(Query query) {
+        query.archived.forEach((node, parents) -> {
+            List<Object> ids = new ArrayList<>(parents.keySet());
+            for (int from = 0; from < ids.size(); from += MAX_IN_CLAUSE) {
+                Query archived = new Query(entityManager.getMetamodel().entity(ARCHIVES.get(node.type.getJavaType())),
+                        node);
+                archived.criteria.where(archived.root.get("id")
+                        .in(ids.subList(from, Math.min(from + MAX_IN_CLAUSE, ids.size()))));
+                for (Tuple tuple : entityManager.createQuery(archived.select()).getResultList()) {
+                    Map<String, Object> row = archived.toMap(tuple);
+                    parents.get(row.get("id")).forEach(parent -> parent.put(node.name, row));
+                }
+            }
+        });
+    }
+
+    // Parsea "id,firstName,details.motorcycle.code" en un árbol validado contra el metamodelo
+    Node parse(EntityType<?> entityType, String fields) {
+        Node root = new Node(null, entityType);
+        root.child("id", entityType);
+        for (String raw : fields.split(",")) {
+            String field = raw.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            Node current = root;
+            String[] parts = field.split("\\.");
+            for (int i = 0; i < parts.length; i++) {
+                Attribute<?, ?> attribute = attribute(current.type, parts[i]);
+                if (!isSerializable(current.type.getJavaType(), parts[i])) {
+                    throw new IllegalArgumentException("Campo desconocido: " + parts[i]);
+                }
+                boolean last = i == parts.length - 1;
+                current = current.child(parts[i], current.type);
+                switch (attribute.getPersistentAttributeType()) {
+                    case BASIC:
+                    case EMBEDDED:
+                        if (!last) {
+                            throw new IllegalArgumentException("El campo " + parts[i] + " no tiene subcampos");
+                        }
+                        break;
+                    case MANY_TO_ONE:
+                    case ONE_TO_ONE:
+                        current.type = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+                        current.child("id", current.type);
+                        break;
+                    case ONE_TO_MANY:
+                        if (current.parent != root) {
+                            throw new IllegalArgumentException("Solo se admiten colecciones de primer nivel: " + field);
+                        }
+                        current.collection = (EntityType<?>) ((PluralAttribute<?, ?, ?>) attribute).getElementType();
+                        current.type = current.collection;
+                        current.mappedBy = mappedBy(attribute);
+                        current.child("id", current.type);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Campo no soportado: " + field);
+                }
+            }
+        }
+        return root;
+    }
+
+    // Mismas propiedades que escribe Jackson para la clase, con sus anotaciones y la configuración del mapper
+    private boolean isSerializable(Class<?> type, String name) {
+        return serializable.computeIfAbsent(type, key -> {
+            SerializationConfig config = objectMapper.getSerializationConfig();
+            BeanDescription description = config.introspect(config.constructType(key));
+            Set<String> ignored = config.getDefaultPropertyIgnorals(key, description.getClassInfo())
+                    .findIgnoredForSerialization();
+            Set<String> names = new HashSet<>();
+            for (BeanPropertyDefinition property : description.findProperties()) {
+                if (property.couldSerialize() && !ignored.contains(property.getName())
+                        && (property.findReferenceType() == null || property.findReferenceType().isManagedReference())) {
+                    names.add(property.getInternalName());
+                }
+            }
+            return names;
+        }).contains(name);
+    }
+
+    private static Attribute<?, ?> attribute(ManagedType<?> type, String name) {
+        try {
+            return type.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Campo desconocido: " + name);
+        }
+    }
+
+    private static boolean hasAttribute(ManagedType<?> type, String name) {
+        return type.getAttributes().stream().anyMatch(attribute -> attribute.getName().equals(name));
+    }
+
+    private static String mappedBy(Attribute<?, ?> attribute) {
+        OneToMany oneToMany = ((Field) attribute.getJavaMember()).getAnnotation(OneToMany.class);
+        if (oneToMany == null || oneToMany.mappedBy().isEmpty()) {
+            throw new IllegalArgumentException("Colección no soportada: " + attribute.getName());
+        }
+        return oneToMany.mappedBy();
+    }
+
+    static class Node {
+        private final Node parent;
+        private final String name;
+        private ManagedType<?> type;
+        private EntityType<?> collection;
+        private String mappedBy;
+        private int selectionIndex = -1;
+        // Clave foránea en la entidad dueña, para buscar en el archivo si el join no encuentra la fila
+        private int foreignKeyIndex = -1;
+        private final Map<String, Node> children = new LinkedHashMap<>();
+
+        Node(Node parent, String name, ManagedType<?> type) {
+            this.parent = parent;
+            this.name = name;
+            this.type = type;
+        }
+
+        Node(String name, ManagedType<?> type) {
+            this(null, name, type);
+        }
+
+        Node child(String childName, ManagedType<?> owner) {
+            return children.computeIfAbsent(childName, key -> new Node(this, key, owner));
+        }
+
+        boolean isAssociation() {
+            return !children.isEmpty();
+        }
+
+        Map<String, Node> getChildren() {
+            return children;
+        }
+
+        boolean isCollection() {
+            return collection != null;
+        }
+    }
+
+    /** Consulta de tuplas para un nodo del árbol; las colecciones se ignoran aquí. */
+    private class Query {
+        private final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        private final CriteriaQuery<Tuple> criteria = builder.createTupleQuery();
+        private final Root<?> root;
+        private final Node node;
+        private final List<Selection<?>> selections = new ArrayList<>();
+        // Nodo con archivo -> clave foránea -> mapas de las filas dueñas que esperan la fila archivada
+        private final Map<Node, Map<Object, List<Map<String, Object>>>> archived = new LinkedHashMap<>();
+
+        Query(EntityType<?> entityType, Node node) {
+            this.root = criteria.from(entityType);
+            this.node = node;
+            collect(node, root);
+        }
+
+        private void collect(Node current, From<?, ?> from) {
+            for (Node child : current.children.values()) {
+                if (child.collection != null) {
+                    continue;
+                }
+                if (child.isAssociation()) {
+                    if (ARCHIVES.containsKey(child.type.getJavaType()) && hasAttribute(current.type, child.name + "Id")) {
+                        child.foreignKeyIndex = selections.size();
+                        selections.add(from.get(child.name + "Id"));
+                    }
+                    collect(child, from.join(child.name, JoinType.LEFT));
+                } else {
+                    child.selectionIndex = selections.size();
+                    selections.add(from.get(child.name));
+                }
+            }
+        }
+
+        CriteriaQuery<Tuple> select() {
+            return criteria.multiselect(selections);
+        }
+
+        Map<String, Object> toMap(Tuple tuple) {
+            return toMap(node, tuple);
+        }
+
+        private Map<String, Object> toMap(Node current, Tuple tuple) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Node child : current.children.values()) {
+                if (child.collection != null) {
+                    continue;
+                }
+                if (child.isAssociation()) {
+                    Map<String, Object> nested = toMap(child, tuple);
+                    map.put(child.name, nested.get("id") == null ? null : nested);
+                    Object foreignKey = child.foreignKeyIndex < 0 ? null : tuple.get(child.foreignKeyIndex);
+                    if (nested.get("id") == null && foreignKey != null) {
+                        archived.computeIfAbsent(child, key -> new LinkedHashMap<>())
+                                .computeIfAbsent(foreignKey, key -> new ArrayList<>()).add(map);
+                    }
+                } else {
+                    map.put(child.name, tuple.get(child.selectionIndex));
+                }
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import com.neexcorp.motorcycles.tenant.TenantSchemaMigration;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Abre el libro de inventario para las motocicletas anteriores a él: las que
+ * tienen stock pero ningún movimiento reciben un ajuste "Saldo inicial" por
+ * ese stock.
+ *
+ * Se ejecuta al arrancar, antes de recibir tráfico, porque solo entonces "sin
+ * movimientos" significa "todo su stock es anterior al libro": una venta
+ * registrada antes del saldo inicial haría que la motocicleta nunca lo
+ * recibiera. Un bloqueo consultivo evita que dos instancias que arrancan a la
+ * vez lo inserten dos veces. Se repite por cada ruta de datos, como la
+ * compactación.
+ */
+@Component
+public class InventoryLedgerMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedgerMigration.class);
+
+    private static final String OPENING_BALANCE = "INSERT INTO inventory_movements "
+            + "(motorcycle_id, type, quantity, note, created_at) "
+            + "SELECT m.id, 'ADJUSTMENT', m.stock, 'Saldo inicial', COALESCE(m.created_at, now()) FROM motorcycles m "
+            + "WHERE COALESCE(m.stock, 0) <> 0 "
+            + "AND NOT EXISTS (SELECT 1 FROM inventory_movements i WHERE i.motorcycle_id = m.id) "
+            + "AND NOT EXISTS (SELECT 1 FROM stock_snapshots s WHERE s.motorcycle_id = m.id)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    // Se inyecta para ejecutar la migración después de que Hibernate cree las tablas del libro
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Se inyecta para ejecutar la migración después de comprobar que cada ruta tiene sus tablas
+    @Autowired
+    private TenantSchemaMigration tenantSchemaMigration;
+
+    @PostConstruct
+    public void seedOpeningBalances() {
+        TenantContext.runAs(TenantContext.ROOT, () -> seedRoute(TenantContext.ROOT));
+        for (String tenant : tenancyProperties.getRoutes().keySet()) {
+            TenantContext.runAs(tenant, () -> seedRoute(tenant));
+        }
+    }
+
+    private void seedRoute(String route) {
+        Integer seeded = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(hashtext('inventory_opening_balance'))",
+                    Object.class);
+            return jdbcTemplate.update(OPENING_BALANCE);
+        });
+        if (seeded != null && seeded > 0) {
+            log.info("Saldo inicial registrado en el libro de inventario para {} motocicletas ({})", seeded, route);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.model.InventoryMovement;
+import com.neexcorp.motorcycles.model.InventoryMovement.MovementType;
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.repository.InventoryMovementRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Libro de inventario: cada cambio de stock se registra como un movimiento
+ * nuevo en la misma transacción que la venta o la edición que lo provoca.
+ * Nunca se actualiza una fila compartida, así que las ventas concurrentes de
+ * la misma motocicleta no compiten por un bloqueo.
+ *
+ * El stock actual es la última foto compactada (StockSnapshotService) más los
+ * movimientos posteriores, que son pocos porque la compactación es periódica.
+ */
+@Service
+@Transactional
+public class InventoryService {
+
+    private static final String INSERT_MOVEMENT = "INSERT INTO inventory_movements "
+            + "(motorcycle_id, type, quantity, sale_id, note, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Última foto con taken_at <= ? más los movimientos posteriores con created_at <= ?
+    private static final String STOCK_AS_OF = "SELECT COALESCE(s.quantity, 0) + COALESCE(("
+            + "SELECT SUM(m.quantity) FROM inventory_movements m WHERE m.motorcycle_id = ? "
+            + "AND m.id > COALESCE(s.last_movement_id, 0) AND m.created_at <= ?), 0) "
+            + "FROM (SELECT 1) one LEFT JOIN LATERAL (SELECT quantity, last_movement_id FROM stock_snapshots "
+            + "WHERE motorcycle_id = ? AND taken_at <= ? ORDER BY id DESC LIMIT 1) s ON true";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    // Movimiento manual (entrada, devolución o ajuste)
+    public InventoryMovement record(InventoryMovement movement) {
+        if (movement.getType() == null || movement.getType() == MovementType.SALE) {
+            throw new IllegalArgumentException("Tipo de movimiento no permitido: " + movement.getType());
+        }
+        if (movement.getQuantity() == null || movement.getQuantity() == 0) {
+            throw new IllegalArgumentException("La cantidad del movimiento no puede ser 0");
+        }
+        if (movement.getType() != MovementType.ADJUSTMENT && movement.getQuantity() < 0) {
+            throw new IllegalArgumentException("Las entradas y devoluciones deben ser positivas");
+        }
+        movement.setId(null);
+        movement.setSaleId(null);
+        movement.setCreatedAt(LocalDateTime.now());
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_MOVEMENT, new String[] { "id" });
+            bind(ps, movement);
+            return ps;
+        }, keys);
+        movement.setId(keys.getKey().longValue());
+        return movement;
+    }
+
+    // Entrada inicial al dar de alta una motocicleta
+    public void recordReceipt(Long motorcycleId, Integer quantity, String note) {
+        if (quantity != null && quantity != 0) {
+            recordAll(List.of(movement(motorcycleId, MovementType.RECEIPT, quantity, null, note)));
+        }
+    }
+
+    // Ajuste por una diferencia conocida; nunca por un stock objetivo, que pisaría los movimientos concurrentes
+    public void adjustBy(Long motorcycleId, int delta, String note) {
+        if (delta != 0) {
+            recordAll(List.of(movement(motorcycleId, MovementType.ADJUSTMENT, delta, null, note)));
+        }
+    }
+
+    // Una salida por cada línea de la venta
+    public void recordSale(Sale sale) {
+        recordAll(saleMovements(sale.getId(), sale.getDetails(), MovementType.SALE, null));
+    }
+
+    // Devuelve al stock las líneas indicadas (venta modificada o eliminada)
+    public void reverseSale(Long saleId, Collection<DetailSale> details, String note) {
+        recordAll(saleMovements(saleId, details, MovementType.RETURN, note));
+    }
+
+    public void recordAll(List<InventoryMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT, movements, movements.size(), this::bind);
+    }
+
+    @Transactional(readOnly = true)
+    public int currentStock(Long motorcycleId) {
+        return stockAsOf(motorcycleId, LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public int stockAsOf(Long motorcycleId, LocalDateTime asOf) {
+        Timestamp at = Timestamp.valueOf(asOf);
+        Integer stock = jdbcTemplate.queryForObject(STOCK_AS_OF, Integer.class, motorcycleId, at, motorcycleId, at);
+        return stock != null ? stock : 0;
+    }
+
+    // Movimientos en (from, to], en orden de registro
+    @Transactional(readOnly = true)
+    public List<InventoryMovement> history(Long motorcycleId, LocalDateTime from, LocalDateTime to) {
+        return movementRepository.findHistory(motorcycleId, from, to);
+    }
+
+    public static InventoryMovement movement(Long motorcycleId, MovementType type, int quantity, Long saleId,
+            String note) {
+        InventoryMovement movement = new InventoryMovement();
+        movement.setMotorcycleId(motorcycleId);
+        movement.setType(type);
+        movement.setQuantity(quantity);
+        movement.setSaleId(saleId);
+        movement.setNote(note);
+        return movement;
+    }
+
+    public static List<InventoryMovement> saleMovements(Long saleId, Collection<DetailSale> details,
+            MovementType type, String note) {
+        List<InventoryMovement> movements = new ArrayList<>();
+        if (details == null) {
+            return movements;
+        }
+        int sign = type == MovementType.SALE ? -1 : 1;
+        for (DetailSale detail : details) {
+            if (detail.getMotorcycle() != null && detail.getQuantity() != null) {
+                movements.add(movement(detail.getMotorcycle().getId(), type, sign * detail.getQuantity(), saleId, note));
+            }
+        }
+        return movements;
+    }
+
+    private void bind(PreparedStatement ps, InventoryMovement movement) throws SQLException {
+        ps.setLong(1, movement.getMotorcycleId());
+        ps.setString(2, movement.getType().name());
+        ps.setInt(3, movement.getQuantity());
+        if (movement.getSaleId() != null) {
+            ps.setLong(4, movement.getSaleId());
+        } else {
+            ps.setNull(4, Types.BIGINT);
+        }
+        ps.setString(5, movement.getNote());
+        ps.setTimestamp(6, Timestamp.valueOf(movement.getCreatedAt()));
+    }
+}
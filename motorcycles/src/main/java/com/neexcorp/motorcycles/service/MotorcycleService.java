@@ -1,44 +1,122 @@
 package com.neexcorp.motorcycles.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neexcorp.motorcycles.cache.LocalCache;
 import com.neexcorp.motorcycles.model.Motorcycle;
 import com.neexcorp.motorcycles.repository.MotorcycleRepository;
+import com.neexcorp.motorcycles.service.UniqueKeyFilter.Key;
+import com.neexcorp.motorcycles.tenant.TenantContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Transactional
-public class MotorcycleService {
+public class MotorcycleService implements LocalCache {
 
     @Autowired
     private MotorcycleRepository motorcycleRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RequestBatchLoader batchLoader;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private UniqueKeyFilter uniqueKeys;
+
+    // Foto del catálogo por concesionario; se reemplaza completa tras cada escritura confirmada
+    private final Map<String, CatalogSnapshot> catalogs = new ConcurrentHashMap<>();
+
     // CREATE
     public Motorcycle create(Motorcycle motorcycle) {
+        uniqueKeys.reserve(Key.MOTORCYCLE_CODE, motorcycle.getCode(), null, motorcycleRepository::findIdByCode);
+        motorcycle.setVersion(null);
         motorcycle.setCreatedAt(LocalDateTime.now());
         motorcycle.setUpdatedAt(LocalDateTime.now());
-        return motorcycleRepository.save(motorcycle);
+        Motorcycle created = motorcycleRepository.save(motorcycle);
+        inventoryService.recordReceipt(created.getId(), created.getStock(), "Alta de la motocicleta");
+        afterCommit(() -> applyToCatalog(created));
+        return created;
     }
 
-    // READ ALL
-    @Transactional(readOnly = true)
+    // READ ALL - servido desde la foto en memoria, sin consultar la base de datos
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Motorcycle> findAll() {
-        return motorcycleRepository.findAll();
+        return getCatalog().getMotorcycles();
+    }
+
+    // READ ALL (bytes JSON ya serializados)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CatalogSnapshot getCatalog() {
+        CatalogSnapshot snapshot = catalogs.get(TenantContext.current());
+        return snapshot != null ? snapshot : reloadCatalog();
+    }
+
+    // READ BY IDS - filtrado sobre la foto del catálogo
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Motorcycle> findAllById(Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
+        List<Motorcycle> result = new ArrayList<>();
+        for (Motorcycle motorcycle : getCatalog().getMotorcycles()) {
+            if (wanted.contains(motorcycle.getId())) {
+                result.add(motorcycle);
+            }
+        }
+        return result;
     }
 
     // READ BY ID
     @Transactional(readOnly = true)
     public Motorcycle findById(Long id) {
-        return motorcycleRepository.findById(id)
+        return batchLoader.load(Motorcycle.class, id)
                 .orElseThrow(() -> new RuntimeException("Motorcycle not found with ID: " + id));
     }
 
+    // La motocicleta existe y pertenece al concesionario actual
+    public boolean isVisible(Long id) {
+        return batchLoader.load(Motorcycle.class, id).isPresent();
+    }
+
+    // READ BY CODE - sin consulta cuando el filtro descarta el código
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Motorcycle> findByCode(String code) {
+        return uniqueKeys.mightExist(Key.MOTORCYCLE_CODE, code)
+                ? motorcycleRepository.findByCode(code)
+                : Optional.empty();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean existsByCode(String code) {
+        return uniqueKeys.mightExist(Key.MOTORCYCLE_CODE, code) && motorcycleRepository.findIdByCode(code).isPresent();
+    }
+
     // UPDATE
-    public Motorcycle update(Long id, Motorcycle motorcycleDetails) {
+    public Motorcycle update(Long id, Motorcycle motorcycleDetails, Long expectedVersion) {
         Motorcycle existingMotorcycle = findById(id);
+        OptimisticConcurrency.check(Motorcycle.class, id, existingMotorcycle.getVersion(), expectedVersion);
+        if (!Objects.equals(existingMotorcycle.getCode(), motorcycleDetails.getCode())) {
+            uniqueKeys.reserve(Key.MOTORCYCLE_CODE, motorcycleDetails.getCode(), id,
+                    motorcycleRepository::findIdByCode);
+        }
 
         existingMotorcycle.setCode(motorcycleDetails.getCode());
         existingMotorcycle.setName(motorcycleDetails.getName());
@@ -49,16 +127,100 @@ public class MotorcycleService {
         existingMotorcycle.setModel(motorcycleDetails.getModel());
         existingMotorcycle.setYear(motorcycleDetails.getYear());
         existingMotorcycle.setColor(motorcycleDetails.getColor());
-        existingMotorcycle.setStock(motorcycleDetails.getStock());
+        // El stock no se sobrescribe: se registra como ajuste la diferencia con el stock de la versión que
+        // editó el cliente (la compactación sube la versión), así no se pierden las ventas concurrentes
+        if (motorcycleDetails.getStock() != null
+                && !Objects.equals(motorcycleDetails.getStock(), existingMotorcycle.getStock())) {
+            if (expectedVersion == null) {
+                throw new IllegalArgumentException("Para cambiar el stock indica la versión editada (If-Match o version) "
+                        + "o registra un ajuste en /api/motorcycles/" + id + "/stock-movements");
+            }
+            int current = existingMotorcycle.getStock() != null ? existingMotorcycle.getStock() : 0;
+            inventoryService.adjustBy(id, motorcycleDetails.getStock() - current, "Ajuste manual");
+            existingMotorcycle.setStock(motorcycleDetails.getStock());
+        }
         existingMotorcycle.setAvailable(motorcycleDetails.getAvailable());
         existingMotorcycle.setUpdatedAt(LocalDateTime.now());
 
-        return motorcycleRepository.save(existingMotorcycle);
+        Motorcycle updated = motorcycleRepository.save(existingMotorcycle);
+        afterCommit(() -> applyToCatalog(updated));
+        return updated;
     }
 
     // DELETE
     public void delete(Long id) {
         Motorcycle motorcycle = findById(id);
         motorcycleRepository.delete(motorcycle);
+        batchLoader.evict(Motorcycle.class, id);
+        afterCommit(() -> removeFromCatalog(id));
+    }
+
+    // Recarga completa de la foto desde la base de datos
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized CatalogSnapshot reloadCatalog() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(motorcycleRepository.findAll(), objectMapper);
+        catalogs.put(TenantContext.current(), snapshot);
+        return snapshot;
+    }
+
+    @Override
+    public String cachedEntity() {
+        return "motorcycle";
+    }
+
+    // Invalidación recibida de otra instancia: se relee solo esa moto
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void invalidate(Long id) {
+        refresh(List.of(id));
+        if (uniqueKeys.isLoaded(Key.MOTORCYCLE_CODE)) {
+            motorcycleRepository.findById(id)
+                    .ifPresent(motorcycle -> uniqueKeys.addIfLoaded(Key.MOTORCYCLE_CODE, motorcycle.getCode()));
+        }
+    }
+
+    // Relee de la base de datos las motos indicadas y las reemplaza en la foto
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void refresh(Collection<Long> ids) {
+        String tenant = TenantContext.current();
+        if (!catalogs.containsKey(tenant) || ids.isEmpty()) {
+            return;
+        }
+        List<Motorcycle> current = motorcycleRepository.findAllById(ids);
+        synchronized (this) {
+            catalogs.computeIfPresent(tenant, (key, snapshot) -> snapshot.replace(ids, current, objectMapper));
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void invalidateAll() {
+        uniqueKeys.invalidateAll(Motorcycle.class);
+        for (String tenant : catalogs.keySet()) {
+            TenantContext.runAs(tenant, this::reloadCatalog);
+        }
+    }
+
+    private synchronized void applyToCatalog(Motorcycle motorcycle) {
+        catalogs.computeIfPresent(TenantContext.current(),
+                (tenant, current) -> current.with(motorcycle, objectMapper));
+    }
+
+    private synchronized void removeFromCatalog(Long id) {
+        catalogs.computeIfPresent(TenantContext.current(), (tenant, current) -> current.without(id, objectMapper));
+    }
+
+    // La foto solo refleja cambios confirmados
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
-}
\ No newline at end of file
+}
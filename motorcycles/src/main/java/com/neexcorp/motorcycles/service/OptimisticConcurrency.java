@@ -0,0 +1,110 @@
+package com.neexcorp.motorcycles.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Concurrencia optimista de las modificaciones (PUT).
+ *
+ * Cada entidad tiene una columna version (@Version) que se expone como ETag
+ * ("3"). La modificación indica la versión que editó con If-Match (o, si no
+ * envía la cabecera, con el campo version del cuerpo): si ya no es la actual
+ * se responde 412 con la representación vigente. Sin ninguna de las dos se
+ * responde 428; quien quiera sobrescribir sin comprobar lo pide con
+ * If-Match: *. La versión leída se vuelve a
+ * comprobar en el WHERE del UPDATE que genera Hibernate, así que dos
+ * modificaciones simultáneas no se pisan y no hace falta SELECT ... FOR UPDATE.
+ */
+@Component
+public class OptimisticConcurrency {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private RequestBatchLoader batchLoader;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Solo para clientes que aún no envían la versión; desactivarlo vuelve a permitir pisar cambios
+    @Value("${concurrency.require-version:true}")
+    private boolean requireVersion;
+
+    public static String etag(Long version) {
+        return "\"" + (version != null ? version : 0) + "\"";
+    }
+
+    // true si la petición debe rechazarse con 428 por no traer If-Match ni version
+    public boolean isMissing(String ifMatch, Long bodyVersion) {
+        return requireVersion && ifMatch == null && bodyVersion == null;
+    }
+
+    /**
+     * Versión que espera la petición: la de If-Match, o la del cuerpo si no
+     * hay cabecera; null (o If-Match: *) no exige ninguna.
+     */
+    public Long expectedVersion(String ifMatch, Long bodyVersion) {
+        if (ifMatch == null) {
+            return bodyVersion;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            // Un ETag que no es una versión nunca coincide
+            return -1L;
+        }
+    }
+
+    // Se llama con la entidad recién leída, antes de modificarla
+    public static void check(Class<?> type, Long id, Long currentVersion, Long expectedVersion) {
+        if (expectedVersion != null && !Objects.equals(expectedVersion, currentVersion)) {
+            throw new ObjectOptimisticLockingFailureException(type, id);
+        }
+    }
+
+    /**
+     * 412 con la representación vigente y su ETag (404 si ya no existe).
+     *
+     * La entidad que recuerdan la petición (RequestBatchLoader) y el contexto
+     * de persistencia de open-in-view es la que se rechazó, con los cambios
+     * del cliente y la versión vieja; se descartan y current se lee de la
+     * base de datos en una transacción nueva.
+     */
+    public <T> ResponseEntity<?> preconditionFailed(Supplier<T> current, Function<T, Long> version) {
+        batchLoader.clear();
+        entityManager.clear();
+        TransactionTemplate reread = new TransactionTemplate(transactionManager);
+        reread.setReadOnly(true);
+        T entity;
+        try {
+            entity = reread.execute(status -> current.get());
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(etag(version.apply(entity)))
+                .body(entity);
+    }
+}
@@ -0,0 +1,126 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.repository.MotorcycleRepository;
+import com.neexcorp.motorcycles.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calcula en el servidor los subtotales, descuentos y el total de una venta.
+ * El total enviado por el cliente solo se acepta si coincide con el calculado.
+ */
+@Service
+public class PricingService {
+
+    @Autowired
+    private MotorcycleRepository motorcycleRepository;
+
+    public void price(Sale sale) {
+        price(sale, loadCatalogPrices(sale.getDetails()));
+    }
+
+    /**
+     * Igual que price(Sale) pero con el catálogo ya cargado, para procesar
+     * muchas ventas con una sola consulta de motocicletas.
+     */
+    public void price(Sale sale, Map<Long, Motorcycle> catalog) {
+        List<DetailSale> details = sale.getDetails();
+        long totalMinor = 0L;
+        if (details != null) {
+            for (int i = 0; i < details.size(); i++) {
+                totalMinor = Math.addExact(totalMinor, priceLine(details.get(i), i + 1, catalog));
+            }
+        }
+
+        if (sale.getTotal() != null && Money.toMinor(sale.getTotal()) != totalMinor) {
+            throw new IllegalArgumentException("El total enviado (" + sale.getTotal()
+                    + ") no coincide con el calculado (" + Money.toDecimal(totalMinor) + ")");
+        }
+        sale.setTotal(Money.toDecimal(totalMinor));
+    }
+
+    /**
+     * Precio de una línea suelta (alta o modificación directa de un detalle):
+     * completa el precio unitario desde el catálogo y calcula el subtotal.
+     */
+    public void price(DetailSale detail) {
+        priceLine(detail, 1, loadCatalogPrices(List.of(detail)));
+    }
+
+    /**
+     * Recalcula el total de una venta ya guardada a partir de sus líneas,
+     * después de añadir, modificar o quitar alguna.
+     */
+    public void reprice(Sale sale) {
+        sale.setTotal(null);
+        price(sale);
+    }
+
+    private long priceLine(DetailSale detail, int line, Map<Long, Motorcycle> catalog) {
+        if (detail.getMotorcycle() == null || detail.getMotorcycle().getId() == null) {
+            throw new IllegalArgumentException("El detalle " + line + " no tiene motocicleta");
+        }
+        Integer quantity = detail.getQuantity();
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("La cantidad del detalle " + line + " debe ser mayor a 0");
+        }
+
+        long unitPriceMinor;
+        if (detail.getUnitPrice() == null) {
+            Motorcycle motorcycle = catalog.get(detail.getMotorcycle().getId());
+            if (motorcycle == null) {
+                throw new IllegalArgumentException("Motorcycle not found with ID: " + detail.getMotorcycle().getId());
+            }
+            unitPriceMinor = Money.toMinor(motorcycle.getPrice());
+            detail.setUnitPrice(Money.toDecimal(unitPriceMinor));
+        } else {
+            unitPriceMinor = Money.toMinor(detail.getUnitPrice());
+        }
+        if (unitPriceMinor < 0) {
+            throw new IllegalArgumentException("El precio unitario del detalle " + line + " no puede ser negativo");
+        }
+
+        long discountMinor = Money.toMinor(detail.getDiscount());
+        long grossMinor = Math.multiplyExact(unitPriceMinor, (long) quantity);
+        if (discountMinor < 0 || discountMinor > grossMinor) {
+            throw new IllegalArgumentException("El descuento del detalle " + line + " debe estar entre 0 y el precio total");
+        }
+
+        long subtotalMinor = grossMinor - discountMinor;
+        detail.setDiscount(Money.toDecimal(discountMinor));
+        detail.setSubtotal(Money.toDecimal(subtotalMinor));
+        return subtotalMinor;
+    }
+
+    // Una sola consulta para todas las motocicletas sin precio unitario
+    private Map<Long, Motorcycle> loadCatalogPrices(List<DetailSale> details) {
+        if (details == null) {
+            return new HashMap<>();
+        }
+        Set<Long> ids = new HashSet<>();
+        for (DetailSale detail : details) {
+            if (detail.getUnitPrice() == null && detail.getMotorcycle() != null && detail.getMotorcycle().getId() != null) {
+                ids.add(detail.getMotorcycle().getId());
+            }
+        }
+        return loadCatalog(ids);
+    }
+
+    public Map<Long, Motorcycle> loadCatalog(Collection<Long> ids) {
+        Map<Long, Motorcycle> catalog = new HashMap<>();
+        if (!ids.isEmpty()) {
+            motorcycleRepository.findAllById(ids).forEach(motorcycle -> catalog.put(motorcycle.getId(), motorcycle));
+        }
+        return catalog;
+    }
+}
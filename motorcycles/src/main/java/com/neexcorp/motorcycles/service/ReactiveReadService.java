@@ -0,0 +1,351 @@
+package com.neexcorp.motorcycles.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neexcorp.motorcycles.dto.SaleView;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Lecturas no bloqueantes con R2DBC para los listados grandes: ventas con sus
+ * líneas, catálogo y exportación CSV de ventas.
+ *
+ * Se leen por páginas de page-size ventas (o motocicletas) con paginación por
+ * clave: cada consulta toma una conexión del pool, lee su página completa y la
+ * devuelve antes de que se escriba nada. La página siguiente solo se pide
+ * cuando el cliente ha consumido la anterior, así que un cliente lento no
+ * retiene ni una conexión ni más de dos páginas en memoria. El NDJSON se
+ * emite con un registro por elemento, cada uno con su salto de línea; el CSV
+ * en bloques de chunk-rows filas, y su cabecera solo cuando llega la primera
+ * fila, para que un pool agotado aún pueda responder 503.
+ *
+ * Usa su propio pool R2DBC por ruta de datos, igual que DocumentRenderer con
+ * JDBC, y filtra siempre por el tenant de la petición. Las escrituras siguen
+ * yendo por JPA.
+ */
+@Service
+public class ReactiveReadService {
+
+    // Los clientes y empleados de ventas antiguas pueden estar en las tablas de archivo
+    private static final String SALE_PARTIES = "JOIN (SELECT id, first_name, last_name, email FROM customers UNION ALL "
+            + "SELECT id, first_name, last_name, email FROM customers_archive) c ON c.id = s.customer_id "
+            + "JOIN (SELECT id, first_name, last_name, email FROM employees UNION ALL "
+            + "SELECT id, first_name, last_name, email FROM employees_archive) e ON e.id = s.employee_id ";
+
+    // Una fila por línea de venta (o una sin línea) de las :limit ventas siguientes a :after, ordenadas por
+    // venta para agruparlas; el tenant en el JOIN deja usar idx_detail_sales_tenant (tenant_id, sale_id)
+    private static final String SALE_ROWS = "SELECT s.id, s.version, s.sale_number, s.sale_date, s.status, "
+            + "s.total, s.payment_method, c.id AS customer_id, c.first_name AS customer_first_name, "
+            + "c.last_name AS customer_last_name, c.email AS customer_email, e.id AS employee_id, "
+            + "e.first_name AS employee_first_name, e.last_name AS employee_last_name, e.email AS employee_email, "
+            + "d.id AS detail_id, d.quantity, d.unit_price, d.discount, d.subtotal, m.id AS motorcycle_id, "
+            + "m.code, m.name, m.brand "
+            + "FROM (SELECT * FROM sales WHERE tenant_id = :tenant AND id > :after ORDER BY id LIMIT :limit) s "
+            + SALE_PARTIES + "LEFT JOIN detail_sales d ON d.tenant_id = s.tenant_id AND d.sale_id = s.id "
+            + "LEFT JOIN motorcycles m ON m.id = d.motorcycle_id "
+            + "ORDER BY s.id, d.id";
+
+    private static final String MOTORCYCLES = "SELECT id, version, code, name, description, brand, price, type, "
+            + "model, year, color, stock, available, created_at, updated_at FROM motorcycles "
+            + "WHERE tenant_id = :tenant AND id > :after ORDER BY id LIMIT :limit";
+
+    // Las ventas sin líneas también salen (con detail_id nulo) para que una página corta marque el final
+    private static final String REPORT_ROWS = "SELECT s.id AS sale_id, s.sale_number, s.sale_date, s.status, "
+            + "s.payment_method, c.first_name || ' ' || c.last_name AS customer, "
+            + "e.first_name || ' ' || e.last_name AS employee, d.id AS detail_id, m.code, m.name, d.quantity, "
+            + "d.unit_price, d.discount, d.subtotal "
+            + "FROM (SELECT * FROM sales WHERE tenant_id = :tenant AND sale_date < :to "
+            + "AND (sale_date, id) > (:afterDate, :afterId) ORDER BY sale_date, id LIMIT :limit) s "
+            + SALE_PARTIES + "LEFT JOIN detail_sales d ON d.tenant_id = s.tenant_id AND d.sale_id = s.id "
+            + "LEFT JOIN motorcycles m ON m.id = d.motorcycle_id "
+            + "ORDER BY s.sale_date, s.id, d.id";
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${reactive.pool.max-size:10}")
+    private int maxSize;
+
+    @Value("${reactive.pool.max-acquire-ms:1000}")
+    private long maxAcquireMillis;
+
+    @Value("${reactive.page-size:500}")
+    private int pageSize;
+
+    @Value("${reactive.chunk-rows:100}")
+    private int chunkRows;
+
+    @Value("${jobs.max-report-days:366}")
+    private int maxReportDays;
+
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private DatabaseClient sharedClient;
+    private final Map<String, DatabaseClient> routeClients = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        sharedClient = client("reactive-reads", null);
+        tenancyProperties.getRoutes().forEach((tenant, route) ->
+                routeClients.put(tenant, client("reactive-reads-" + tenant, route)));
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach(ConnectionPool::dispose);
+    }
+
+    private DatabaseClient client(String poolName, TenancyProperties.Route route) {
+        String url = route != null && route.getUrl() != null ? route.getUrl() : dataSourceProperties.determineUrl();
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcUrl(url)).mutate()
+                .option(ConnectionFactoryOptions.USER, route != null && route.getUsername() != null
+                        ? route.getUsername() : dataSourceProperties.determineUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, route != null && route.getPassword() != null
+                        ? route.getPassword() : dataSourceProperties.determinePassword());
+        if (route != null && route.getSchema() != null) {
+            options.option(PostgresqlConnectionFactoryProvider.SCHEMA, route.getSchema());
+        }
+        // Las conexiones se abren con la primera lectura, no al arrancar
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name(poolName)
+                .initialSize(0)
+                .maxSize(maxSize)
+                .maxAcquireTime(Duration.ofMillis(maxAcquireMillis))
+                .build());
+        pools.add(pool);
+        return DatabaseClient.create(pool);
+    }
+
+    // jdbc:postgresql://host:5432/base?opciones -> r2dbc:postgresql://host:5432/base
+    static String r2dbcUrl(String jdbcUrl) {
+        String url = jdbcUrl.startsWith("jdbc:") ? jdbcUrl.substring("jdbc:".length()) : jdbcUrl;
+        int query = url.indexOf('?');
+        return "r2dbc:" + (query >= 0 ? url.substring(0, query) : url);
+    }
+
+    private DatabaseClient clientFor(String tenant) {
+        return routeClients.getOrDefault(tenant, sharedClient);
+    }
+
+    /** Ventas del concesionario con sus líneas, en NDJSON. */
+    public Flux<String> streamSales(String tenant) {
+        DatabaseClient client = clientFor(tenant);
+        return paged(0L, after -> client.sql(SALE_ROWS)
+                .bind("tenant", tenant)
+                .bind("after", after)
+                .bind("limit", pageSize)
+                .map(ReactiveReadService::saleRow)
+                .all()
+                // Las filas de una venta llegan seguidas: se juntan sus líneas en la primera
+                .bufferUntilChanged(SaleView::getId)
+                .map(ReactiveReadService::merge)
+                .collectList()
+                .map(sales -> new Page<>(sales, sales.size() < pageSize ? null : sales.get(sales.size() - 1).getId())))
+                .map(this::ndjson);
+    }
+
+    /** Catálogo de motocicletas del concesionario, en NDJSON y con la misma forma que GET /api/motorcycles. */
+    public Flux<String> streamMotorcycles(String tenant) {
+        DatabaseClient client = clientFor(tenant);
+        return paged(0L, after -> client.sql(MOTORCYCLES)
+                .bind("tenant", tenant)
+                .bind("after", after)
+                .bind("limit", pageSize)
+                .map(ReactiveReadService::motorcycleRow)
+                .all()
+                .collectList()
+                .map(motorcycles -> new Page<>(motorcycles, motorcycles.size() < pageSize
+                        ? null : motorcycles.get(motorcycles.size() - 1).getId())))
+                .map(this::ndjson);
+    }
+
+    /** Líneas de venta entre dos fechas (ambas incluidas) en CSV, con las columnas del reporte de ventas. */
+    public Flux<String> exportSales(String tenant, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial");
+        }
+        if (from.plusDays(maxReportDays).isBefore(to)) {
+            throw new IllegalArgumentException("La exportación no puede superar " + maxReportDays + " días");
+        }
+        DatabaseClient client = clientFor(tenant);
+        // Los ids son positivos: (from, 0) deja fuera solo lo anterior a from
+        Flux<String> rows = paged(new SaleKey(from.atStartOfDay(), 0L), after -> client.sql(REPORT_ROWS)
+                .bind("tenant", tenant)
+                .bind("to", to.plusDays(1).atStartOfDay())
+                .bind("afterDate", after.saleDate())
+                .bind("afterId", after.id())
+                .bind("limit", pageSize)
+                .map(ReportRow::of)
+                .all()
+                .collectList()
+                .map(this::reportPage));
+        String header = DocumentRenderer.csvRow((Object[]) DocumentRenderer.REPORT_COLUMNS);
+        // La cabecera espera a la primera fila (o al final, si no hay ninguna): si la consulta falla
+        // antes, por ejemplo sin conexión libre, aún no se ha confirmado el 200
+        return rows.buffer(chunkRows)
+                .map(lines -> String.join("", lines))
+                .switchOnFirst((first, chunks) -> first.isOnError() ? chunks : chunks.startWith(header));
+    }
+
+    // Una página y la clave desde la que sigue la próxima, o null si es la última
+    record Page<T, K>(List<T> rows, K next) {
+    }
+
+    private record SaleKey(LocalDateTime saleDate, Long id) {
+    }
+
+    private record ReportRow(Long saleId, LocalDateTime saleDate, String line) {
+
+        static ReportRow of(Readable row) {
+            LocalDateTime saleDate = row.get("sale_date", LocalDateTime.class);
+            String line = row.get("detail_id", Long.class) == null ? null : DocumentRenderer.csvRow(
+                    row.get("sale_number", String.class), saleDate, row.get("status", String.class),
+                    row.get("payment_method", String.class), row.get("customer", String.class),
+                    row.get("employee", String.class), row.get("code", String.class),
+                    row.get("name", String.class), row.get("quantity", Integer.class),
+                    row.get("unit_price", BigDecimal.class), row.get("discount", BigDecimal.class),
+                    row.get("subtotal", BigDecimal.class));
+            return new ReportRow(row.get("sale_id", Long.class), saleDate, line);
+        }
+    }
+
+    // Las filas de la página son líneas de venta: el final se decide por ventas distintas, no por filas
+    private Page<String, SaleKey> reportPage(List<ReportRow> rows) {
+        List<String> lines = new ArrayList<>();
+        long sales = 0;
+        Long previous = null;
+        for (ReportRow row : rows) {
+            if (!row.saleId().equals(previous)) {
+                sales++;
+                previous = row.saleId();
+            }
+            if (row.line() != null) {
+                lines.add(row.line());
+            }
+        }
+        ReportRow last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        return new Page<>(lines, sales < pageSize ? null : new SaleKey(last.saleDate(), last.saleId()));
+    }
+
+    /*
+     * Recorre las páginas por clave. expand pide la página siguiente cuando la
+     * anterior ya se ha emitido, y collectList libera la conexión al terminar
+     * de leerla; concatMapIterable con prefetch 1 no emite la siguiente hasta
+     * que el cliente ha consumido todas las filas de la actual.
+     */
+    static <T, K> Flux<T> paged(K first, Function<K, Mono<Page<T, K>>> fetch) {
+        return Mono.defer(() -> fetch.apply(first))
+                .expand(page -> page.next() == null ? Mono.empty() : fetch.apply(page.next()))
+                .concatMapIterable(Page::rows, 1);
+    }
+
+    // Filas consecutivas de una misma venta -> una venta con todas sus líneas
+    static SaleView merge(List<SaleView> rows) {
+        SaleView sale = rows.get(0);
+        for (int i = 1; i < rows.size(); i++) {
+            sale.getDetails().addAll(rows.get(i).getDetails());
+        }
+        return sale;
+    }
+
+    private static SaleView saleRow(Readable row) {
+        SaleView sale = new SaleView();
+        sale.setId(row.get("id", Long.class));
+        sale.setVersion(row.get("version", Long.class));
+        sale.setSaleNumber(row.get("sale_number", String.class));
+        sale.setSaleDate(row.get("sale_date", LocalDateTime.class));
+        sale.setStatus(row.get("status", String.class));
+        sale.setTotal(row.get("total", BigDecimal.class));
+        sale.setPaymentMethod(row.get("payment_method", String.class));
+        sale.setCustomer(party(row, "customer_"));
+        sale.setEmployee(party(row, "employee_"));
+
+        Long detailId = row.get("detail_id", Long.class);
+        if (detailId != null) {
+            SaleView.Product motorcycle = new SaleView.Product();
+            motorcycle.setId(row.get("motorcycle_id", Long.class));
+            motorcycle.setCode(row.get("code", String.class));
+            motorcycle.setName(row.get("name", String.class));
+            motorcycle.setBrand(row.get("brand", String.class));
+
+            SaleView.Line line = new SaleView.Line();
+            line.setId(detailId);
+            line.setMotorcycle(motorcycle);
+            line.setQuantity(row.get("quantity", Integer.class));
+            line.setUnitPrice(row.get("unit_price", BigDecimal.class));
+            line.setDiscount(row.get("discount", BigDecimal.class));
+            line.setSubtotal(row.get("subtotal", BigDecimal.class));
+            sale.getDetails().add(line);
+        }
+        return sale;
+    }
+
+    private static SaleView.Party party(Readable row, String prefix) {
+        SaleView.Party party = new SaleView.Party();
+        party.setId(row.get(prefix + "id", Long.class));
+        party.setFirstName(row.get(prefix + "first_name", String.class));
+        party.setLastName(row.get(prefix + "last_name", String.class));
+        party.setEmail(row.get(prefix + "email", String.class));
+        return party;
+    }
+
+    private static Motorcycle motorcycleRow(Readable row) {
+        Motorcycle motorcycle = new Motorcycle();
+        motorcycle.setId(row.get("id", Long.class));
+        motorcycle.setVersion(row.get("version", Long.class));
+        motorcycle.setCode(row.get("code", String.class));
+        motorcycle.setName(row.get("name", String.class));
+        motorcycle.setDescription(row.get("description", String.class));
+        motorcycle.setBrand(row.get("brand", String.class));
+        motorcycle.setPrice(row.get("price", Double.class));
+        String type = row.get("type", String.class);
+        motorcycle.setType(type != null ? Motorcycle.MotorcycleType.valueOf(type) : null);
+        motorcycle.setModel(row.get("model", String.class));
+        motorcycle.setYear(row.get("year", Integer.class));
+        motorcycle.setColor(row.get("color", String.class));
+        motorcycle.setStock(row.get("stock", Integer.class));
+        motorcycle.setAvailable(row.get("available", Boolean.class));
+        motorcycle.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        motorcycle.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return motorcycle;
+    }
+
+    private String ndjson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value) + '\n';
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la fila", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Cargador por lotes con alcance de petición, al estilo DataLoader.
+ *
+ * Los ids pedidos con defer() se acumulan y se resuelven todos juntos con una
+ * única consulta "WHERE id IN (...)" por tipo de entidad la primera vez que se
+ * necesita alguno; load() y loadAll() también se llevan los pendientes de su
+ * tipo. Lo ya cargado (y lo que no existe) se recuerda hasta el final de la
+ * petición, así que las lecturas repetidas de la misma entidad no vuelven a
+ * consultar. Fuera de una petición HTTP no hay caché compartida: solo se
+ * agrupan los ids diferidos sobre el mismo lote.
+ */
+@Component
+public class RequestBatchLoader {
+
+    private static final String ATTRIBUTE = RequestBatchLoader.class.getName() + ".batches";
+    private static final int MAX_IN_CLAUSE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> Optional<T> load(Class<T> type, Long id) {
+        return Optional.ofNullable(loadAll(type, List.of(id)).get(id));
+    }
+
+    /**
+     * Registra el id para la próxima consulta de su tipo sin consultar
+     * todavía. El proveedor devuelto lanza, la primera vez que se invoca, una
+     * sola consulta con todos los ids pendientes de ese tipo.
+     */
+    public <T> Supplier<Optional<T>> defer(Class<T> type, Long id) {
+        if (id == null) {
+            return Optional::empty;
+        }
+        Batch<T> batch = batch(type);
+        batch.pending.add(id);
+        return () -> Optional.ofNullable(resolve(type, batch, List.of(id)).get(id));
+    }
+
+    /** Devuelve las entidades encontradas en el orden de los ids pedidos. */
+    public <T> Map<Long, T> loadAll(Class<T> type, Collection<Long> ids) {
+        return resolve(type, batch(type), ids);
+    }
+
+    public void evict(Class<?> type, Long id) {
+        Batch<?> batch = batch(type);
+        batch.loaded.remove(id);
+        batch.absent.remove(id);
+    }
+
+    // Olvida todo lo cargado en la petición; lo siguiente que se pida se vuelve a consultar
+    public void clear() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private <T> Map<Long, T> resolve(Class<T> type, Batch<T> batch, Collection<Long> ids) {
+        dispatch(type, batch, ids);
+
+        Map<Long, T> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            T entity = batch.loaded.get(id);
+            if (entity != null) {
+                result.put(id, entity);
+            }
+        }
+        return result;
+    }
+
+    // Consulta los ids pedidos junto con los diferidos del tipo que aún no se conocen
+    private <T> void dispatch(Class<T> type, Batch<T> batch, Collection<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(batch.pending);
+        requested.addAll(ids);
+        batch.pending.clear();
+
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            if (id != null && !batch.loaded.containsKey(id) && !batch.absent.contains(id)) {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        String entityName = entityManager.getMetamodel().entity(type).getName();
+        PersistenceUnitUtil unitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        for (int from = 0; from < missing.size(); from += MAX_IN_CLAUSE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + MAX_IN_CLAUSE, missing.size()));
+            List<T> found = entityManager
+                    .createQuery("select e from " + entityName + " e where e.id in :ids", type)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            for (T entity : found) {
+                batch.loaded.put((Long) unitUtil.getIdentifier(entity), entity);
+            }
+        }
+        for (Long id : missing) {
+            if (!batch.loaded.containsKey(id)) {
+                batch.absent.add(id);
+            }
+        }
+    }
+
+    // Un lote por concesionario y tipo: lo que ve un tenant (y lo que no encuentra) no vale para otro
+    @SuppressWarnings("unchecked")
+    private <T> Batch<T> batch(Class<T> type) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new Batch<>();
+        }
+        Map<List<Object>, Batch<?>> batches =
+                (Map<List<Object>, Batch<?>>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (batches == null) {
+            batches = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, batches, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Batch<T>) batches.computeIfAbsent(List.of(TenantContext.current(), type), key -> new Batch<>());
+    }
+
+    private static class Batch<T> {
+        private final Map<Long, T> loaded = new HashMap<>();
+        private final Set<Long> absent = new HashSet<>();
+        private final Set<Long> pending = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,316 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.cache.CacheInvalidationPublisher;
+import com.neexcorp.motorcycles.dto.SaleBatchResult;
+import com.neexcorp.motorcycles.event.ChangeEvent;
+import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.model.Employee;
+import com.neexcorp.motorcycles.model.InventoryMovement;
+import com.neexcorp.motorcycles.model.InventoryMovement.MovementType;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.repository.ArchivedCustomerRepository;
+import com.neexcorp.motorcycles.repository.ArchivedEmployeeRepository;
+import com.neexcorp.motorcycles.repository.CustomerRepository;
+import com.neexcorp.motorcycles.repository.EmployeeRepository;
+import com.neexcorp.motorcycles.repository.SaleRepository;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de ventas para la sincronización de tiendas sin conexión.
+ *
+ * Las referencias (clientes, empleados, motocicletas y números de venta ya
+ * usados) se resuelven con una consulta por tipo para todo el lote. Las ventas
+ * válidas se insertan por bloques, cada bloque en una transacción con
+ * batches JDBC para cabeceras y detalles. Si un bloque falla, por cualquier
+ * excepción, se reintenta venta a venta para aislar las que fallan sin perder
+ * el resto; cada fallo queda en el resultado de su venta.
+ */
+@Service
+public class SaleBatchService {
+
+    private static final String INSERT_SALE = "INSERT INTO sales "
+            + "(sale_number, customer_id, employee_id, sale_date, status, total, payment_method, tenant_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_DETAIL = "INSERT INTO detail_sales "
+            + "(sale_id, motorcycle_id, quantity, unit_price, discount, subtotal, notes, tenant_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ArchivedCustomerRepository archivedCustomerRepository;
+
+    @Autowired
+    private ArchivedEmployeeRepository archivedEmployeeRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sales.batch.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${sales.batch.max-size:5000}")
+    private int maxSize;
+
+    // CREATE BATCH
+    public List<SaleBatchResult> createAll(List<Sale> sales) {
+        if (sales == null || sales.isEmpty()) {
+            throw new IllegalArgumentException("El lote no contiene ventas");
+        }
+        if (sales.size() > maxSize) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + maxSize + " ventas");
+        }
+
+        SaleBatchResult[] results = new SaleBatchResult[sales.size()];
+        List<Integer> valid = validateAndPrice(sales, results);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            if (insertChunk(transaction, toSales(sales, chunk))) {
+                chunk.forEach(index -> results[index] = created(index, sales.get(index)));
+                continue;
+            }
+            // Aislar las ventas que fallan reintentando una a una
+            for (Integer index : chunk) {
+                Sale sale = sales.get(index);
+                try {
+                    transaction.executeWithoutResult(status -> insert(List.of(sale)));
+                } catch (RuntimeException single) {
+                    sale.setId(null);
+                    results[index] = SaleBatchResult.failed(index, sale.getSaleNumber(), failureMessage(single));
+                    continue;
+                }
+                results[index] = created(index, sale);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Cualquier excepción del bloque (no solo de acceso a datos) deshace la transacción y pasa al reintento
+    private boolean insertChunk(TransactionTemplate transaction, List<Sale> chunk) {
+        try {
+            transaction.executeWithoutResult(status -> insert(chunk));
+            return true;
+        } catch (RuntimeException e) {
+            // Los ids asignados en la transacción deshecha ya no existen
+            chunk.forEach(sale -> sale.setId(null));
+            return false;
+        }
+    }
+
+    private static String failureMessage(RuntimeException e) {
+        if (e instanceof DataAccessException dataAccess && dataAccess.getMostSpecificCause().getMessage() != null) {
+            return dataAccess.getMostSpecificCause().getMessage();
+        }
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private List<Integer> validateAndPrice(List<Sale> sales, SaleBatchResult[] results) {
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> employeeIds = new HashSet<>();
+        Set<Long> motorcycleIds = new HashSet<>();
+        Set<String> saleNumbers = new HashSet<>();
+        for (Sale sale : sales) {
+            if (sale.getCustomer() != null && sale.getCustomer().getId() != null) {
+                customerIds.add(sale.getCustomer().getId());
+            }
+            if (sale.getEmployee() != null && sale.getEmployee().getId() != null) {
+                employeeIds.add(sale.getEmployee().getId());
+            }
+            if (sale.getSaleNumber() != null) {
+                saleNumbers.add(sale.getSaleNumber());
+            }
+            if (sale.getDetails() != null) {
+                for (DetailSale detail : sale.getDetails()) {
+                    if (detail.getMotorcycle() != null && detail.getMotorcycle().getId() != null) {
+                        motorcycleIds.add(detail.getMotorcycle().getId());
+                    }
+                }
+            }
+        }
+
+        // Una consulta por tipo para todo el lote; el archivo solo para los ids que no están en la tabla activa
+        Set<Long> knownCustomers = customerRepository.findAllById(customerIds).stream()
+                .map(Customer::getId).collect(Collectors.toCollection(HashSet::new));
+        customerIds.removeAll(knownCustomers);
+        if (!customerIds.isEmpty()) {
+            archivedCustomerRepository.findAllById(customerIds).forEach(customer -> knownCustomers.add(customer.getId()));
+        }
+        Set<Long> knownEmployees = employeeRepository.findAllById(employeeIds).stream()
+                .map(Employee::getId).collect(Collectors.toCollection(HashSet::new));
+        employeeIds.removeAll(knownEmployees);
+        if (!employeeIds.isEmpty()) {
+            archivedEmployeeRepository.findAllById(employeeIds).forEach(employee -> knownEmployees.add(employee.getId()));
+        }
+        Map<Long, Motorcycle> catalog = pricingService.loadCatalog(motorcycleIds);
+        Set<String> usedNumbers = saleNumbers.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(saleRepository.findExistingSaleNumbers(saleNumbers));
+
+        List<Integer> valid = new ArrayList<>();
+        for (int index = 0; index < sales.size(); index++) {
+            Sale sale = sales.get(index);
+            try {
+                validate(sale, knownCustomers, knownEmployees, catalog, usedNumbers);
+                pricingService.price(sale, catalog);
+                usedNumbers.add(sale.getSaleNumber());
+                valid.add(index);
+            } catch (RuntimeException e) {
+                results[index] = SaleBatchResult.failed(index, sale.getSaleNumber(), failureMessage(e));
+            }
+        }
+        return valid;
+    }
+
+    private void validate(Sale sale, Set<Long> knownCustomers, Set<Long> knownEmployees,
+            Map<Long, Motorcycle> catalog, Set<String> usedNumbers) {
+        if (sale.getSaleNumber() == null || sale.getSaleNumber().isBlank()) {
+            throw new IllegalArgumentException("El número de venta es obligatorio");
+        }
+        if (usedNumbers.contains(sale.getSaleNumber())) {
+            throw new IllegalArgumentException("El número de venta " + sale.getSaleNumber() + " ya existe");
+        }
+        if (sale.getCustomer() == null || !knownCustomers.contains(sale.getCustomer().getId())) {
+            throw new IllegalArgumentException("Customer not found with ID: "
+                    + (sale.getCustomer() == null ? null : sale.getCustomer().getId()));
+        }
+        if (sale.getEmployee() == null || !knownEmployees.contains(sale.getEmployee().getId())) {
+            throw new IllegalArgumentException("Employee not found with ID: "
+                    + (sale.getEmployee() == null ? null : sale.getEmployee().getId()));
+        }
+        if (sale.getStatus() == null) {
+            throw new IllegalArgumentException("El estado de la venta es obligatorio");
+        }
+        if (sale.getDetails() != null) {
+            for (DetailSale detail : sale.getDetails()) {
+                if (detail.getMotorcycle() != null && detail.getMotorcycle().getId() != null
+                        && !catalog.containsKey(detail.getMotorcycle().getId())) {
+                    throw new IllegalArgumentException("Motorcycle not found with ID: " + detail.getMotorcycle().getId());
+                }
+            }
+        }
+        if (sale.getSaleDate() == null) {
+            sale.setSaleDate(LocalDateTime.now());
+        }
+    }
+
+    private void insert(List<Sale> sales) {
+        // El JDBC directo no pasa por el filtro de Hibernate: el tenant se escribe a mano
+        String tenant = TenantContext.current();
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SALE, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Sale sale = sales.get(i);
+                        ps.setString(1, sale.getSaleNumber());
+                        ps.setLong(2, sale.getCustomer().getId());
+                        ps.setLong(3, sale.getEmployee().getId());
+                        ps.setObject(4, sale.getSaleDate());
+                        ps.setString(5, sale.getStatus());
+                        ps.setBigDecimal(6, sale.getTotal());
+                        if (sale.getPaymentMethod() != null) {
+                            ps.setString(7, sale.getPaymentMethod().name());
+                        } else {
+                            ps.setNull(7, Types.VARCHAR);
+                        }
+                        ps.setString(8, tenant);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return sales.size();
+                    }
+                },
+                keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<DetailSale> details = new ArrayList<>();
+        List<InventoryMovement> movements = new ArrayList<>();
+        for (int i = 0; i < sales.size(); i++) {
+            Sale sale = sales.get(i);
+            sale.setId(((Number) generated.get(i).get("id")).longValue());
+            cacheInvalidationPublisher.publish("sale", sale.getId(), null, ChangeEvent.Action.CREATED);
+            if (sale.getDetails() != null) {
+                sale.getDetails().forEach(detail -> detail.setSale(sale));
+                details.addAll(sale.getDetails());
+                movements.addAll(InventoryService.saleMovements(sale.getId(), sale.getDetails(),
+                        MovementType.SALE, null));
+            }
+        }
+
+        if (!details.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DETAIL, details, details.size(), (ps, detail) -> {
+                ps.setLong(1, detail.getSale().getId());
+                ps.setLong(2, detail.getMotorcycle().getId());
+                ps.setInt(3, detail.getQuantity());
+                ps.setBigDecimal(4, detail.getUnitPrice());
+                ps.setBigDecimal(5, detail.getDiscount());
+                ps.setBigDecimal(6, detail.getSubtotal());
+                ps.setString(7, detail.getNotes());
+                ps.setString(8, tenant);
+            });
+        }
+        inventoryService.recordAll(movements);
+    }
+
+    private SaleBatchResult created(int index, Sale sale) {
+        changeFeedService.publish("sale", sale.getId(), ChangeEvent.Action.CREATED, null, Set.of());
+        return SaleBatchResult.created(index, sale.getSaleNumber(), sale.getId(), sale.getTotal());
+    }
+
+    private static List<Sale> toSales(List<Sale> sales, List<Integer> indexes) {
+        List<Sale> chunk = new ArrayList<>(indexes.size());
+        indexes.forEach(index -> chunk.add(sales.get(index)));
+        return chunk;
+    }
+}
@@ -1,12 +1,30 @@
 package com.neexcorp.motorcycles.service;
 
+import com.neexcorp.motorcycles.archive.ArchiveService;
+import com.neexcorp.motorcycles.model.ArchivedCustomer;
+import com.neexcorp.motorcycles.model.ArchivedEmployee;
+import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.model.Employee;
+import com.neexcorp.motorcycles.model.Motorcycle;
 import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.profiling.SaleProfiling;
+import com.neexcorp.motorcycles.profiling.SaleProfiling.Phase;
 import com.neexcorp.motorcycles.repository.SaleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @Transactional
@@ -15,34 +33,80 @@ public class SaleService {
     @Autowired
     private SaleRepository saleRepository;
 
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private RequestBatchLoader batchLoader;
+
+    @Autowired
+    private ArchiveService archiveService;
+
     // CREATE
     public Sale create(Sale sale) {
-        // Establecer la referencia bidireccional para los detalles
-        if (sale.getDetails() != null && !sale.getDetails().isEmpty()) {
-            sale.getDetails().forEach(detail -> {
-                detail.setSale(sale);
-                // Asegurar que el subtotal está calculado
-                if (detail.getSubtotal() == null || detail.getSubtotal().doubleValue() == 0) {
-                    detail.calculateSubtotal();
-                }
-            });
-        }
-        return saleRepository.save(sale);
+        SaleProfiling.run(Phase.VALIDATE, sale, () -> {
+            resolveReferences(sale);
+            sale.setVersion(null);
+            // Establecer la referencia bidireccional para los detalles
+            if (sale.getDetails() != null && !sale.getDetails().isEmpty()) {
+                sale.getDetails().forEach(detail -> {
+                    detail.setSale(sale);
+                    detail.setVersion(null);
+                });
+            }
+            // Subtotales y total se calculan en el servidor
+            pricingService.price(sale);
+        });
+        Sale created = SaleProfiling.call(Phase.PERSIST, sale, () -> {
+            Sale saved = saleRepository.save(sale);
+            inventoryService.recordSale(saved);
+            return saved;
+        });
+        SaleProfiling.profileCommit(created);
+        return created;
     }
 
     // READ ALL
     @Transactional(readOnly = true)
     public List<Sale> findAll() {
-        return saleRepository.findAll();
+        List<Sale> sales = saleRepository.findAll();
+        archiveService.resolveArchivedParties(sales);
+        return sales;
+    }
+
+    // READ RECENT - las últimas ventas, por la misma consulta que READ BY IDS
+    @Transactional(readOnly = true)
+    public List<Sale> findRecent(int limit) {
+        return findAllById(saleRepository.findRecentIds(PageRequest.of(0, limit)));
+    }
+
+    // READ BY IDS - una consulta con clientes, empleados, detalles y motocicletas
+    @Transactional(readOnly = true)
+    public List<Sale> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Sale> byId = new HashMap<>();
+        saleRepository.findAllWithDetailsByIdIn(ids).forEach(sale -> byId.put(sale.getId(), sale));
+        List<Sale> sales = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Sale sale = byId.get(id);
+            if (sale != null) {
+                sales.add(sale);
+            }
+        }
+        archiveService.resolveArchivedParties(sales);
+        return sales;
     }
 
     // READ BY ID
     @Transactional(readOnly = true)
     public Sale findById(Long id) {
-        Sale sale = saleRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Sale not found with ID: " + id));
-        // Force loading of details to avoid lazy loading issues
-        sale.getDetails().size();
+        Sale sale = load(id);
+        archiveService.resolveArchivedParties(List.of(sale));
         return sale;
     }
 
@@ -57,49 +121,131 @@ public class SaleService {
                 detail.getMotorcycle().getBrand(); // Force loading of motorcycle
             });
         }
+        archiveService.resolveArchivedParties(List.of(sale));
         return sale;
     }
 
     // UPDATE
-    public Sale update(Long id, Sale saleDetails) {
-        Sale existingSale = findById(id);
+    public Sale update(Long id, Sale saleDetails, Long expectedVersion) {
+        Sale existingSale = load(id);
+        OptimisticConcurrency.check(Sale.class, id, existingSale.getVersion(), expectedVersion);
+        resolveReferences(saleDetails);
 
         existingSale.setSaleNumber(saleDetails.getSaleNumber());
         existingSale.setCustomer(saleDetails.getCustomer());
         existingSale.setEmployee(saleDetails.getEmployee());
         existingSale.setSaleDate(saleDetails.getSaleDate());
         existingSale.setStatus(saleDetails.getStatus());
-        existingSale.setTotal(saleDetails.getTotal());
         existingSale.setPaymentMethod(saleDetails.getPaymentMethod());
 
         // Actualizar los detalles si se proporcionan
         if (saleDetails.getDetails() != null) {
-            // Limpiar detalles existentes de forma segura
-            if (existingSale.getDetails() != null) {
-                existingSale.getDetails().clear();
+            replaceDetails(existingSale, saleDetails);
+        } else {
+            // Sin detalles nuevos solo se valida el total enviado contra los detalles actuales
+            if (saleDetails.getTotal() != null) {
+                existingSale.setTotal(saleDetails.getTotal());
             }
+            pricingService.price(existingSale);
+        }
 
-            // Forzar la sincronización con la base de datos
-            saleRepository.saveAndFlush(existingSale);
+        Sale updated = saleRepository.save(existingSale);
+        if (saleDetails.getDetails() != null) {
+            inventoryService.recordSale(updated);
+        }
+        return updated;
+    }
 
-            // Agregar nuevos detalles
-            saleDetails.getDetails().forEach(detail -> {
-                // Crear un nuevo detalle para evitar problemas de persistencia
-                detail.setId(null); // Asegurar que es un nuevo detalle
-                detail.setSale(existingSale);
-                if (detail.getSubtotal() == null || detail.getSubtotal().doubleValue() == 0) {
-                    detail.calculateSubtotal();
-                }
-                existingSale.getDetails().add(detail);
-            });
+    /**
+     * Sustituye las líneas de una venta guardada por las de la petición.
+     *
+     * Las líneas nuevas se precian antes de asociarlas: la consulta del
+     * catálogo y el saveAndFlush que vacía las anteriores provocan un flush,
+     * y ninguna línea puede llegar a la base de datos sin subtotal ni la venta
+     * sin total. El total se toma del cálculo, nunca del cuerpo de la petición.
+     */
+    private void replaceDetails(Sale existingSale, Sale saleDetails) {
+        pricingService.price(saleDetails);
+
+        // Limpiar detalles existentes de forma segura
+        if (existingSale.getDetails() != null) {
+            inventoryService.reverseSale(existingSale.getId(), existingSale.getDetails(), "Venta modificada");
+            existingSale.getDetails().clear();
         }
 
-        return saleRepository.save(existingSale);
+        // Forzar la sincronización con la base de datos
+        saleRepository.saveAndFlush(existingSale);
+
+        // Agregar nuevos detalles
+        saleDetails.getDetails().forEach(detail -> {
+            // Crear un nuevo detalle para evitar problemas de persistencia
+            detail.setId(null); // Asegurar que es un nuevo detalle
+            detail.setVersion(null);
+            detail.setSale(existingSale);
+            existingSale.getDetails().add(detail);
+        });
+        existingSale.setTotal(saleDetails.getTotal());
     }
 
     // DELETE
     public void delete(Long id) {
-        Sale sale = findById(id);
+        Sale sale = load(id);
+        inventoryService.reverseSale(id, sale.getDetails(), "Venta eliminada");
         saleRepository.delete(sale);
     }
-}
\ No newline at end of file
+
+    // Sin completar las referencias archivadas: las escrituras solo usan las claves de cliente y empleado
+    private Sale load(Long id) {
+        Sale sale = saleRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Sale not found with ID: " + id));
+        // Force loading of details to avoid lazy loading issues
+        sale.getDetails().size();
+        return sale;
+    }
+
+    // La clave foránea no distingue concesionarios: cliente y empleado deben ser del tenant actual,
+    // en la tabla activa o en su archivo
+    /**
+     * Comprueba que cliente, empleado y motocicletas existen en el
+     * concesionario actual y asocia la venta a las entidades cargadas en lugar
+     * de a las referencias del JSON (sin versión, Hibernate no las aceptaría).
+     * Todas las referencias se difieren antes de resolver ninguna, así que
+     * cada tipo cuesta una sola consulta IN, y ninguna si ya se cargó en la
+     * petición. Cliente y empleado pueden estar archivados.
+     */
+    private void resolveReferences(Sale sale) {
+        Long customerId = sale.getCustomer() != null ? sale.getCustomer().getId() : null;
+        Long employeeId = sale.getEmployee() != null ? sale.getEmployee().getId() : null;
+        Supplier<Optional<Customer>> customer = batchLoader.defer(Customer.class, customerId);
+        Supplier<Optional<Employee>> employee = batchLoader.defer(Employee.class, employeeId);
+        Map<Long, Supplier<Optional<Motorcycle>>> motorcycles = new LinkedHashMap<>();
+        if (sale.getDetails() != null) {
+            for (DetailSale detail : sale.getDetails()) {
+                if (detail.getMotorcycle() != null && detail.getMotorcycle().getId() != null) {
+                    motorcycles.computeIfAbsent(detail.getMotorcycle().getId(),
+                            motorcycleId -> batchLoader.defer(Motorcycle.class, motorcycleId));
+                }
+            }
+        }
+
+        if (customerId != null) {
+            sale.setCustomer(customer.get()
+                    .or(() -> batchLoader.load(ArchivedCustomer.class, customerId).map(ArchivedCustomer::toCustomer))
+                    .orElseThrow(() -> new IllegalArgumentException("Customer not found with ID: " + customerId)));
+        }
+        if (employeeId != null) {
+            sale.setEmployee(employee.get()
+                    .or(() -> batchLoader.load(ArchivedEmployee.class, employeeId).map(ArchivedEmployee::toEmployee))
+                    .orElseThrow(() -> new IllegalArgumentException("Employee not found with ID: " + employeeId)));
+        }
+        if (sale.getDetails() != null) {
+            for (DetailSale detail : sale.getDetails()) {
+                if (detail.getMotorcycle() != null && detail.getMotorcycle().getId() != null) {
+                    Long motorcycleId = detail.getMotorcycle().getId();
+                    detail.setMotorcycle(motorcycles.get(motorcycleId).get()
+                            .orElseThrow(() -> new IllegalArgumentException("Motorcycle not found with ID: " + motorcycleId)));
+                }
+            }
+        }
+    }
+}
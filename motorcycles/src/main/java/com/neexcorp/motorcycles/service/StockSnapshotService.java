@@ -0,0 +1,182 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.cache.CacheInvalidationPublisher;
+import com.neexcorp.motorcycles.event.ChangeEvent;
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compacta periódicamente el libro de inventario en stock_snapshots y copia el
+ * resultado a motorcycles.stock (subiendo su version), que es lo que sirve la
+ * foto del catálogo.
+ *
+ * Cada pasada compacta un rango de ids: desde la marca de agua (el mayor
+ * last_movement_id ya compactado) hasta un id tope tomado dos pasadas antes,
+ * y añade una foto nueva por cada motocicleta con movimientos en el rango.
+ *
+ * Un movimiento con id menor que el tope puede no ser visible aún: la
+ * identidad (nextval) se evalúa antes de escribir la fila, y es esa escritura
+ * la que da xid a la transacción, así que al tomar el tope su transacción
+ * puede no tener xid todavía y quedar fuera del xmax de esa instantánea. Por
+ * eso el tope no se cierra con su propio xmax sino con el de la pasada
+ * siguiente, cuando esa transacción ya terminó la sentencia y tiene xid: se
+ * compacta hasta el tope cuando el xmin de la instantánea actual supera ese
+ * xmax, es decir, cuando ya terminó toda transacción que pudo reservar un id
+ * por debajo. Así ningún movimiento queda por debajo de la marca sin
+ * contar. No se bloquea la tabla de movimientos; un bloqueo consultivo
+ * (pg_try_advisory_xact_lock) deja una sola compactación a la vez entre
+ * instancias y la otra se salta la pasada.
+ *
+ * La pasada se repite por cada ruta de datos: el pool compartido (todos los
+ * concesionarios a la vez) y cada concesionario con base o esquema propio.
+ */
+@Service
+public class StockSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockSnapshotService.class);
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('inventory_compaction'))";
+
+    // Mayor id visible y xmax de la instantánea; el xmax solo cubre los ids reservados antes de la pasada anterior
+    private static final String HORIZON = "SELECT COALESCE((SELECT MAX(id) FROM inventory_movements), 0), "
+            + "pg_snapshot_xmax(pg_current_snapshot())::text";
+
+    // true si ya no queda abierta ninguna transacción anterior al xmax indicado
+    private static final String HORIZON_PASSED = "SELECT pg_snapshot_xmin(pg_current_snapshot()) >= ?::xid8";
+
+    // Nueva foto por motocicleta con movimientos en (marca, tope] y copia a motorcycles.stock en la misma
+    // sentencia; la versión sube para que las modificaciones con la versión anterior fallen con 412
+    private static final String COMPACT = "WITH snapshot AS (INSERT INTO stock_snapshots "
+            + "(motorcycle_id, quantity, last_movement_id, taken_at) "
+            + "SELECT d.motorcycle_id, COALESCE(l.quantity, 0) + d.delta, d.last_id, ? "
+            + "FROM (SELECT motorcycle_id, SUM(quantity) AS delta, MAX(id) AS last_id FROM inventory_movements "
+            + "WHERE id > ? AND id <= ? GROUP BY motorcycle_id) d "
+            + "LEFT JOIN LATERAL (SELECT quantity FROM stock_snapshots s WHERE s.motorcycle_id = d.motorcycle_id "
+            + "ORDER BY s.id DESC LIMIT 1) l ON true "
+            + "RETURNING motorcycle_id, quantity) "
+            + "UPDATE motorcycles m SET stock = snapshot.quantity, version = m.version + 1 FROM snapshot "
+            + "WHERE m.id = snapshot.motorcycle_id RETURNING m.id, m.tenant_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MotorcycleService motorcycleService;
+
+    @Autowired
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.compaction.lock-timeout-ms:2000}")
+    private long lockTimeoutMillis;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    // Topes pendientes por ruta (pool compartido o tenant con base propia)
+    private final Map<String, Horizons> horizons = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${inventory.compaction.interval-ms:5000}")
+    public void compact() {
+        // El pool compartido se recorre como ROOT; cada tenant con ruta propia, con su tenant
+        TenantContext.runAs(TenantContext.ROOT, () -> compactRoute(TenantContext.ROOT));
+        for (String tenant : tenancyProperties.getRoutes().keySet()) {
+            TenantContext.runAs(tenant, () -> compactRoute(tenant));
+        }
+    }
+
+    private void compactRoute(String route) {
+        Map<String, List<Long>> changed;
+        try {
+            changed = new TransactionTemplate(transactionManager).execute(status -> compactLocked(route));
+        } catch (DataAccessException e) {
+            // Lo normal es un lock_timeout por una transacción de escritura larga; se reintenta en la siguiente pasada
+            log.warn("Compactación de inventario aplazada: {}", e.getMessage());
+            return;
+        }
+        if (changed == null) {
+            return;
+        }
+        changed.forEach((tenant, ids) -> TenantContext.runAs(tenant, () -> {
+            motorcycleService.refresh(ids);
+            for (Long id : ids) {
+                changeFeedService.publish(tenant, "motorcycle", id, ChangeEvent.Action.UPDATED, null, Set.of("stock"));
+            }
+        }));
+    }
+
+    // Devuelve las motocicletas actualizadas agrupadas por concesionario (null si no tocaba compactar)
+    private Map<String, List<Long>> compactLocked(String route) {
+        // lock_timeout acota la espera por las filas de motorcycles que esté modificando un PUT
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMillis);
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class))) {
+            return null;
+        }
+        Horizons pending = horizons.computeIfAbsent(route, key -> new Horizons());
+        if (pending.latest != null && !Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject(HORIZON_PASSED, Boolean.class, pending.latest.xmax))) {
+            // Sigue abierta alguna transacción que pudo reservar ids por debajo del tope anterior
+            return null;
+        }
+        Horizon target = pending.previous;
+        pending.previous = pending.latest;
+        pending.latest = jdbcTemplate.queryForObject(HORIZON,
+                (resultSet, row) -> new Horizon(resultSet.getLong(1), resultSet.getString(2)));
+        if (target == null) {
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Long watermark = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(last_movement_id), 0) FROM stock_snapshots", Long.class);
+        Map<String, List<Long>> changed = new LinkedHashMap<>();
+        jdbcTemplate.query(COMPACT, resultSet -> {
+            changed.computeIfAbsent(resultSet.getString(2), tenant -> new ArrayList<>()).add(resultSet.getLong(1));
+        }, Timestamp.valueOf(now), watermark, target.lastId);
+
+        changed.forEach((tenant, ids) -> ids.forEach(id ->
+                cacheInvalidationPublisher.publish(tenant, "motorcycle", id, null, ChangeEvent.Action.UPDATED)));
+        return changed;
+    }
+
+    // Tope por compactar (previous) y el tomado en la pasada siguiente, cuyo xmax lo cierra (latest)
+    private static class Horizons {
+        private Horizon previous;
+        private Horizon latest;
+    }
+
+    // Mayor id de movimiento visible y xmax de la instantánea en que se leyó
+    private static class Horizon {
+        private final long lastId;
+        private final String xmax;
+
+        Horizon(long lastId, String xmax) {
+            this.lastId = lastId;
+            this.xmax = xmax;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.model.ArchivedCustomer;
+import com.neexcorp.motorcycles.model.ArchivedEmployee;
+import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.model.Employee;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import com.neexcorp.motorcycles.util.BloomFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Filtros de Bloom en memoria con los valores de las claves únicas de cada
+ * concesionario (email y documento de clientes y empleados, código de
+ * motocicleta). Los de clientes y empleados incluyen también los archivados.
+ *
+ * mightExist(...) == false garantiza que el valor está libre sin consultar la
+ * base de datos; true obliga a confirmarlo con el índice único. Los borrados
+ * y cambios de valor dejan bits huérfanos, que solo cuestan falsos positivos;
+ * el filtro se reconstruye cuando supera su capacidad o tras una
+ * resincronización de cachés.
+ *
+ * Las escrituras locales añaden el valor antes del INSERT/UPDATE, así que una
+ * comprobación concurrente nunca lo da por libre. Las de otras instancias
+ * llegan con la invalidación LISTEN/NOTIFY, tras su commit.
+ */
+@Component
+public class UniqueKeyFilter {
+
+    public enum Key {
+        CUSTOMER_EMAIL(Customer.class, ArchivedCustomer.class, "email"),
+        CUSTOMER_DOCUMENT(Customer.class, ArchivedCustomer.class, "documentNumber"),
+        EMPLOYEE_EMAIL(Employee.class, ArchivedEmployee.class, "email"),
+        EMPLOYEE_DOCUMENT(Employee.class, ArchivedEmployee.class, "documentNumber"),
+        MOTORCYCLE_CODE(Motorcycle.class, null, "code");
+
+        private final Class<?> entity;
+        // Entidad del archivo, si la tiene: la clave es única entre las dos tablas
+        private final Class<?> archive;
+        private final String field;
+
+        Key(Class<?> entity, Class<?> archive, String field) {
+            this.entity = entity;
+            this.archive = archive;
+            this.field = field;
+        }
+    }
+
+    // Filtro de un concesionario y una clave. next recibe las altas mientras se reconstruye
+    private static final class Holder {
+        private final Key key;
+        private final Object rebuildLock = new Object();
+        private volatile BloomFilter current;
+        private BloomFilter next;
+        private volatile boolean stale;
+
+        private Holder(Key key) {
+            this.key = key;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${unique-keys.filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${unique-keys.filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${unique-keys.filter.min-capacity:10000}")
+    private int minCapacity;
+
+    private final Map<String, Holder> filters = new ConcurrentHashMap<>();
+
+    // false: el valor no existe en el concesionario actual; true: hay que consultarlo
+    public boolean mightExist(Key key, String value) {
+        if (value == null) {
+            return false;
+        }
+        if (!enabled || TenantContext.ROOT.equals(TenantContext.current())) {
+            return true;
+        }
+        return filter(holder(key)).mightContain(value);
+    }
+
+    /**
+     * Comprobación previa de una escritura local: confirma con el índice único
+     * solo los valores que el filtro no descarta y lanza DuplicateKeyException
+     * si el valor ya es de otra fila. Después lo añade al filtro.
+     */
+    public void reserve(Key key, String value, Long ownId, Function<String, Optional<Long>> lookup) {
+        if (value == null) {
+            return;
+        }
+        if (mightExist(key, value)) {
+            Optional<Long> owner = lookup.apply(value);
+            if (owner.isPresent() && !owner.get().equals(ownId)) {
+                throw new DuplicateKeyException(
+                        key.entity.getSimpleName() + " already exists with " + key.field + ": " + value);
+            }
+        }
+        add(key, value);
+    }
+
+    // Escritura local: se llama antes de guardar, con el filtro cargado si aún no lo estaba
+    public void add(Key key, String value) {
+        if (value == null || !enabled || TenantContext.ROOT.equals(TenantContext.current())) {
+            return;
+        }
+        Holder holder = holder(key);
+        filter(holder);
+        put(holder, value);
+    }
+
+    // Escritura ya confirmada en otra instancia: si el filtro no está cargado la leerá al cargarse
+    public void addIfLoaded(Key key, String value) {
+        if (value == null || !isLoaded(key)) {
+            return;
+        }
+        put(holder(key), value);
+    }
+
+    public boolean isLoaded(Key key) {
+        if (!enabled || TenantContext.ROOT.equals(TenantContext.current())) {
+            return false;
+        }
+        Holder holder = filters.get(name(TenantContext.current(), key));
+        return holder != null && holder.current != null;
+    }
+
+    // Resincronización: todos los filtros de la entidad se reconstruyen en su siguiente uso
+    public void invalidateAll(Class<?> entity) {
+        for (Holder holder : filters.values()) {
+            if (holder.key.entity.equals(entity)) {
+                holder.stale = true;
+            }
+        }
+    }
+
+    private Holder holder(Key key) {
+        return filters.computeIfAbsent(name(TenantContext.current(), key), name -> new Holder(key));
+    }
+
+    private BloomFilter filter(Holder holder) {
+        BloomFilter filter = holder.current;
+        if (filter != null && !holder.stale && !filter.isSaturated()) {
+            return filter;
+        }
+        return rebuild(holder);
+    }
+
+    private BloomFilter rebuild(Holder holder) {
+        synchronized (holder.rebuildLock) {
+            BloomFilter filter = holder.current;
+            if (filter != null && !holder.stale && !filter.isSaturated()) {
+                return filter;
+            }
+            Key key = holder.key;
+            List<String> entities = key.archive == null
+                    ? List.of(key.entity.getSimpleName())
+                    : List.of(key.entity.getSimpleName(), key.archive.getSimpleName());
+            long count = 0;
+            for (String entity : entities) {
+                count += entityManager.createQuery("select count(e) from " + entity + " e", Long.class)
+                        .getSingleResult();
+            }
+            BloomFilter fresh = BloomFilter.create((int) Math.max(minCapacity, count * 2), falsePositiveRate);
+            // Desde aquí las altas locales van también al filtro nuevo, aunque no lleguen a leerse abajo
+            synchronized (holder) {
+                holder.next = fresh;
+                holder.stale = false;
+            }
+            for (String entity : entities) {
+                entityManager.createQuery("select e." + key.field + " from " + entity + " e where e." + key.field
+                        + " is not null", String.class).getResultList().forEach(fresh::put);
+            }
+            synchronized (holder) {
+                holder.current = fresh;
+                holder.next = null;
+            }
+            return fresh;
+        }
+    }
+
+    private void put(Holder holder, String value) {
+        synchronized (holder) {
+            if (holder.current != null) {
+                holder.current.put(value);
+            }
+            if (holder.next != null) {
+                holder.next.put(value);
+            }
+        }
+    }
+
+    private static String name(String tenant, Key key) {
+        return tenant + "|" + key.name();
+    }
+}
@@ -0,0 +1,204 @@
+package com.neexcorp.motorcycles.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.service.UniqueKeyFilter.Key;
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import com.neexcorp.motorcycles.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calentamiento al arrancar: abre las conexiones del pool y recorre las
+ * lecturas principales (una página de las últimas ventas, detalle de venta con
+ * sus líneas, catálogo, clientes y empleados) serializándolas con el ObjectMapper de
+ * Spring MVC, para que Hibernate, Jackson y el JIT estén en caliente antes de
+ * la primera petición real. De paso deja cargadas la foto del catálogo y los
+ * filtros de claves únicas.
+ *
+ * Solo hace lecturas en transacciones de solo lectura. Se repite por el
+ * concesionario por defecto y por cada ruta de datos. /api/health/ready
+ * responde 503 hasta que termina o vence warmup.timeout-ms.
+ */
+@Service
+public class WarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private MotorcycleService motorcycleService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private UniqueKeyFilter uniqueKeys;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.iterations:5}")
+    private int iterations;
+
+    // Tamaño de la página de ventas: el calentamiento no debe leer la tabla entera
+    @Value("${warmup.sales:100}")
+    private int salePage;
+
+    // Igual para clientes y empleados
+    @Value("${warmup.parties:100}")
+    private int partyPage;
+
+    @Value("${warmup.sale-details:20}")
+    private int saleDetails;
+
+    @Value("${warmup.connections:${spring.datasource.hikari.minimum-idle:5}}")
+    private int connections;
+
+    @Value("${warmup.timeout-ms:60000}")
+    private long timeoutMillis;
+
+    private volatile boolean finished;
+    private volatile long startedAt;
+    private volatile long durationMillis = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        startedAt = System.currentTimeMillis();
+        if (!enabled) {
+            finished = true;
+            return;
+        }
+        Thread thread = new Thread(this::warmup, "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Listo cuando termina el calentamiento o vence el plazo, lo que ocurra antes
+    public boolean isReady() {
+        return finished || (startedAt > 0 && System.currentTimeMillis() - startedAt >= timeoutMillis);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    private void warmup() {
+        long start = System.nanoTime();
+        try {
+            List<String> tenants = new ArrayList<>();
+            tenants.add(TenantContext.getDefaultTenant());
+            tenants.addAll(tenancyProperties.getRoutes().keySet());
+            for (String tenant : tenants) {
+                TenantContext.runAs(tenant, this::openConnections);
+            }
+            for (int i = 0; i < iterations && !deadlinePassed(); i++) {
+                for (String tenant : tenants) {
+                    TenantContext.runAs(tenant, this::readPaths);
+                }
+            }
+            durationMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Calentamiento completado en {} ms ({} iteraciones, {} concesionarios)",
+                    durationMillis, iterations, tenants.size());
+        } catch (RuntimeException e) {
+            durationMillis = (System.nanoTime() - start) / 1_000_000;
+            log.warn("Calentamiento interrumpido tras {} ms: {}", durationMillis, e.getMessage());
+        } finally {
+            finished = true;
+        }
+    }
+
+    private boolean deadlinePassed() {
+        return System.currentTimeMillis() - startedAt >= timeoutMillis;
+    }
+
+    // Pide a la vez tantas conexiones como el mínimo del pool para que Hikari las abra todas ahora
+    private void openConnections() {
+        List<Connection> opened = new ArrayList<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = dataSource.getConnection();
+                opened.add(connection);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("No se pudieron abrir {} conexiones para {}: {}", connections, TenantContext.current(),
+                    e.getMessage());
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Error al devolver la conexión al pool", e);
+                }
+            }
+        }
+    }
+
+    private void readPaths() {
+        // Fuera de transacción, como GET /api/motorcycles
+        motorcycleService.reloadCatalog();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // La serialización va dentro de la transacción, igual que en las peticiones (open-in-view)
+        readOnly.executeWithoutResult(status -> {
+            List<Sale> sales = saleService.findRecent(salePage);
+            serialize(sales);
+            for (int i = 0; i < Math.min(saleDetails, sales.size()); i++) {
+                serialize(saleService.findByIdWithDetails(sales.get(i).getId()));
+            }
+            serialize(customerService.findRecent(partyPage));
+            serialize(employeeService.findRecent(partyPage));
+            for (Key key : Key.values()) {
+                uniqueKeys.mightExist(key, "");
+            }
+        });
+    }
+
+    private void serialize(Object value) {
+        try {
+            objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar durante el calentamiento", e);
+        }
+    }
+}
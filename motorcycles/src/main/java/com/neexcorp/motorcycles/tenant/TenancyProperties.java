@@ -0,0 +1,34 @@
+package com.neexcorp.motorcycles.tenant;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuración de tenancy. Por defecto todos los concesionarios comparten las
+ * tablas (columna tenant_id); los que aparecen en routes tienen su propio
+ * esquema o base de datos:
+ *
+ * tenancy.routes.norte.schema=norte
+ * tenancy.routes.sur.url=jdbc:postgresql://db-sur:5432/motocicletas
+ */
+@Data
+@ConfigurationProperties(prefix = "tenancy")
+public class TenancyProperties {
+
+    private String defaultTenant = "default";
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        // Si no se indican, se usan los de spring.datasource
+        private String url;
+        private String username;
+        private String password;
+        private String schema;
+        private int maximumPoolSize = 5;
+    }
+}
@@ -0,0 +1,65 @@
+package com.neexcorp.motorcycles.tenant;
+
+import java.util.function.Supplier;
+
+/**
+ * Concesionario (tenant) de la petición en curso.
+ *
+ * Lo fija TenantFilter para cada petición HTTP; las tareas en segundo plano
+ * usan callAs/runAs. ROOT es un tenant especial para procesos internos que
+ * recorren todos los concesionarios: Hibernate no aplica el filtro por tenant
+ * en sus sesiones, así que nunca debe usarse para escribir entidades.
+ */
+public final class TenantContext {
+
+    public static final String ROOT = "*";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private static volatile String defaultTenant = "default";
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : defaultTenant;
+    }
+
+    public static String getDefaultTenant() {
+        return defaultTenant;
+    }
+
+    static void setDefaultTenant(String tenant) {
+        defaultTenant = tenant;
+    }
+
+    static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public static <T> T callAs(String tenant, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void runAs(String tenant, Runnable action) {
+        callAs(tenant, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
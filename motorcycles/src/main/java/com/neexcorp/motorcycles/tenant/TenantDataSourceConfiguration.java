@@ -0,0 +1,40 @@
+package com.neexcorp.motorcycles.tenant;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource de Spring Boot en un TenantRoutingDataSource cuando
+ * hay tenants con ruta propia. Sin rutas configuradas el DataSource queda
+ * intacto y todo va al pool compartido.
+ */
+@Configuration
+@EnableConfigurationProperties(TenancyProperties.class)
+public class TenantDataSourceConfiguration {
+
+    @Bean
+    public static BeanPostProcessor tenantRoutingPostProcessor(ObjectProvider<TenancyProperties> properties,
+            ObjectProvider<DataSourceProperties> dataSourceProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof TenantRoutingDataSource
+                        || !"dataSource".equals(beanName)) {
+                    return bean;
+                }
+                TenancyProperties tenancy = properties.getObject();
+                if (tenancy.getRoutes().isEmpty()) {
+                    return bean;
+                }
+                return new TenantRoutingDataSource(dataSource, tenancy, dataSourceProperties.getObject());
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.neexcorp.motorcycles.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Resuelve el concesionario de cada petición desde la cabecera X-Tenant-ID o,
+ * para EventSource que no admite cabeceras, el parámetro ?tenant=. Sin
+ * ninguno de los dos se usa tenancy.default-tenant.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Tenant-ID";
+
+    private static final Pattern VALID = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String tenant = request.getHeader(HEADER);
+        if (tenant == null || tenant.isBlank()) {
+            tenant = request.getParameter("tenant");
+        }
+        if (tenant == null || tenant.isBlank()) {
+            tenant = TenantContext.getDefaultTenant();
+        }
+        tenant = tenant.trim().toLowerCase();
+        if (!VALID.matcher(tenant).matches()) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\":\"Tenant no válido\"}");
+            return;
+        }
+
+        TenantContext.set(tenant);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.neexcorp.motorcycles.tenant;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Entrega a Hibernate el tenant actual. Con @TenantId en las entidades,
+ * Hibernate añade tenant_id = ? a todas las consultas y lo rellena al insertar.
+ */
+@Component
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<String>,
+        HibernatePropertiesCustomizer {
+
+    public TenantIdentifierResolver(TenancyProperties properties) {
+        TenantContext.setDefaultTenant(properties.getDefaultTenant());
+    }
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(String tenant) {
+        return TenantContext.ROOT.equals(tenant);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
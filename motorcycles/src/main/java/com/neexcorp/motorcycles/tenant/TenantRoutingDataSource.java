@@ -0,0 +1,68 @@
+package com.neexcorp.motorcycles.tenant;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enruta cada conexión al pool del tenant actual: los concesionarios con ruta
+ * propia (tenancy.routes) van a su esquema o base de datos, el resto al pool
+ * compartido. La conexión se elige al empezar la transacción, así que el
+ * tenant debe estar fijado antes (TenantFilter o TenantContext.callAs).
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final DataSource shared;
+    private final Map<String, HikariDataSource> dedicated = new HashMap<>();
+
+    public TenantRoutingDataSource(DataSource shared, TenancyProperties properties, DataSourceProperties primary) {
+        this.shared = shared;
+        Map<Object, Object> targets = new HashMap<>();
+        properties.getRoutes().forEach((tenant, route) -> {
+            HikariDataSource dataSource = new HikariDataSource(config("tenant-" + tenant, route, primary));
+            dedicated.put(tenant, dataSource);
+            targets.put(tenant, dataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shared);
+        // Un tenant sin ruta no es un error: usa el pool compartido
+        setLenientFallback(true);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TenantContext.current();
+    }
+
+    // Spring lo invoca al cerrar el contexto en lugar del close() del pool compartido
+    public void close() throws Exception {
+        dedicated.values().forEach(HikariDataSource::close);
+        if (shared instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /** Configuración de pool para una ruta; los campos vacíos se toman de spring.datasource. */
+    public static HikariConfig config(String poolName, TenancyProperties.Route route, DataSourceProperties primary) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(route != null && route.getUrl() != null ? route.getUrl() : primary.determineUrl());
+        config.setUsername(route != null && route.getUsername() != null
+                ? route.getUsername() : primary.determineUsername());
+        config.setPassword(route != null && route.getPassword() != null
+                ? route.getPassword() : primary.determinePassword());
+        if (route != null) {
+            config.setSchema(route.getSchema());
+            config.setMaximumPoolSize(route.getMaximumPoolSize());
+        }
+        config.setMinimumIdle(0);
+        config.setInitializationFailTimeout(-1);
+        return config;
+    }
+}
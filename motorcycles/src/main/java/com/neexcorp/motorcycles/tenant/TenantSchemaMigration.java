@@ -0,0 +1,134 @@
+package com.neexcorp.motorcycles.tenant;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Adapta una base de datos creada antes de la tenancy. ddl-auto=update añade
+ * tenant_id (con 'default' en las filas existentes) y las nuevas restricciones
+ * únicas por concesionario, pero no borra las antiguas de una sola columna,
+ * que impedirían repetir un email o un código en otro concesionario.
+ *
+ * ddl-auto solo actúa sobre la base de datos compartida. Los esquemas y bases
+ * de datos de tenancy.routes se crean con database_setup.sql, así que al
+ * arrancar se comprueba que cada ruta tiene todas las tablas y columnas que
+ * mapea Hibernate; si falta alguna, la aplicación no arranca en lugar de
+ * fallar en las peticiones de ese concesionario. Las migraciones se aplican
+ * después en la base compartida y en cada ruta.
+ */
+@Component
+public class TenantSchemaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantSchemaMigration.class);
+
+    // Columnas que antes eran únicas en toda la tabla
+    private static final List<String[]> LEGACY_UNIQUES = List.of(
+            new String[] {"customers", "email"},
+            new String[] {"customers", "document_number"},
+            new String[] {"employees", "email"},
+            new String[] {"employees", "document_number"},
+            new String[] {"motorcycles", "code"},
+            new String[] {"sales", "sale_number"});
+
+    private static final String FIND_CONSTRAINTS = "SELECT c.conname FROM pg_constraint c "
+            + "JOIN pg_class t ON t.oid = c.conrelid "
+            + "JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = c.conkey[1] "
+            + "WHERE c.contype = 'u' AND cardinality(c.conkey) = 1 AND t.relname = ? AND a.attname = ? "
+            + "AND t.relnamespace = to_regnamespace(current_schema())";
+
+    private static final String FIND_COLUMNS = "SELECT table_name, column_name FROM information_schema.columns "
+            + "WHERE table_schema = current_schema()";
+
+    // Las columnas de subconsultas y fórmulas no son tablas que deba tener la ruta
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenancyProperties tenancyProperties;
+
+    // Se inyecta para ejecutar la migración después de que Hibernate actualice el esquema
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void migrate() {
+        TenantContext.runAs(TenantContext.ROOT, this::dropLegacyUniqueConstraints);
+        if (tenancyProperties.getRoutes().isEmpty()) {
+            return;
+        }
+        Map<String, Set<String>> mapped = mappedColumns();
+        for (String tenant : tenancyProperties.getRoutes().keySet()) {
+            TenantContext.runAs(tenant, () -> {
+                checkProvisioned(tenant, mapped);
+                dropLegacyUniqueConstraints();
+            });
+        }
+    }
+
+    // Tabla -> columnas de todas las entidades mapeadas
+    private Map<String, Set<String>> mappedColumns() {
+        Map<String, Set<String>> mapped = new TreeMap<>();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .forEachEntityDescriptor(persister -> persister.forEachSelectable((index, selectable) -> {
+                    String table = selectable.getContainingTableExpression();
+                    if (!selectable.isFormula() && IDENTIFIER.matcher(table).matches()) {
+                        mapped.computeIfAbsent(table, key -> new TreeSet<>()).add(selectable.getSelectionExpression());
+                    }
+                }));
+        return mapped;
+    }
+
+    private void checkProvisioned(String tenant, Map<String, Set<String>> mapped) {
+        Map<String, Set<String>> existing = new HashMap<>();
+        try {
+            jdbcTemplate.query(FIND_COLUMNS, resultSet -> {
+                existing.computeIfAbsent(resultSet.getString(1), key -> new TreeSet<>()).add(resultSet.getString(2));
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("No se puede acceder a la ruta del concesionario " + tenant, e);
+        }
+        List<String> missing = new ArrayList<>();
+        mapped.forEach((table, columns) -> {
+            Set<String> present = existing.get(table);
+            if (present == null) {
+                missing.add(table);
+                return;
+            }
+            columns.stream()
+                    .filter(column -> !present.contains(column))
+                    .forEach(column -> missing.add(table + "." + column));
+        });
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("La ruta del concesionario " + tenant + " no está aprovisionada, faltan "
+                    + missing + ": créala o actualízala con database_setup.sql");
+        }
+    }
+
+    private void dropLegacyUniqueConstraints() {
+        for (String[] column : LEGACY_UNIQUES) {
+            List<String> names = jdbcTemplate.queryForList(FIND_CONSTRAINTS, String.class, column[0], column[1]);
+            for (String name : names) {
+                log.info("Eliminando restricción única {} de {}.{}", name, column[0], column[1]);
+                jdbcTemplate.execute("ALTER TABLE " + column[0] + " DROP CONSTRAINT \"" + name + "\"");
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.neexcorp.motorcycles.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmética de importes en unidades menores (centavos) sobre long.
+ *
+ * Reglas de redondeo:
+ * - Todo importe que entra (precio de catálogo, precio unitario, descuento,
+ *   total enviado por el cliente) se redondea a 2 decimales con HALF_UP.
+ * - A partir de ahí las operaciones son enteras y exactas; un desbordamiento
+ *   lanza ArithmeticException en lugar de dar un resultado incorrecto.
+ * - Solo se vuelve a BigDecimal al asignar los valores a las entidades.
+ *
+ * toMinor y toDecimal crean BigDecimal intermedios, así que se llaman una vez
+ * por importe en la frontera; lo que no crea objetos es la aritmética de
+ * líneas y totales que va entre ambas.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    private Money() {
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, ROUNDING).scaleByPowerOfTen(SCALE).longValueExact();
+    }
+
+    public static long toMinor(Double amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        // BigDecimal.valueOf usa la representación decimal más corta del double (15000.5 -> "15000.5")
+        return toMinor(BigDecimal.valueOf(amount));
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static long lineSubtotal(long unitPriceMinor, int quantity, long discountMinor) {
+        return Math.subtractExact(Math.multiplyExact(unitPriceMinor, (long) quantity), discountMinor);
+    }
+}
@@ -0,0 +1,89 @@
+package com.neexcorp.motorcycles.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void admitsUpToLimitAndRejectsWhenQueueIsFull() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 2, 0);
+
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        assertThat(limiter.tryAcquire(1000)).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void waitingRequestTimesOut() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 1, 1, 1, 1);
+        assertThat(limiter.tryAcquire(0)).isTrue();
+
+        long start = System.nanoTime();
+        assertThat(limiter.tryAcquire(50)).isFalse();
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(limiter.getWaiting()).isZero();
+    }
+
+    @Test
+    void waitingRequestGetsReleasedSlot() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 1, 1, 1, 1);
+        assertThat(limiter.tryAcquire(0)).isTrue();
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        while (limiter.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+        limiter.release(FAST);
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void limitDropsWhenLatencyGrowsAndRecoversAfterwards() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 16, 2, 16, 0);
+
+        sample(limiter, FAST, 50);
+        assertThat(limiter.getLimit()).isEqualTo(16);
+
+        sample(limiter, SLOW, 200);
+        assertThat(limiter.getLimit()).isLessThan(16).isGreaterThanOrEqualTo(2);
+
+        sample(limiter, FAST, 200);
+        assertThat(limiter.getLimit()).isEqualTo(16);
+    }
+
+    @Test
+    void limitNeverGoesBelowMinimum() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 8, 6, 8, 0);
+
+        sample(limiter, FAST, 10);
+        sample(limiter, SLOW, 500);
+
+        assertThat(limiter.getLimit()).isEqualTo(6);
+    }
+
+    private static void sample(AdaptiveLimiter limiter, long rttNanos, int times) throws InterruptedException {
+        for (int i = 0; i < times; i++) {
+            assertThat(limiter.tryAcquire(0)).isTrue();
+            limiter.release(rttNanos);
+        }
+    }
+}
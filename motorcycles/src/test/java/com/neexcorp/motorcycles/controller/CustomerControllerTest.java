@@ -0,0 +1,131 @@
+package com.neexcorp.motorcycles.controller;
+
+import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.service.CustomerService;
+import com.neexcorp.motorcycles.service.OptimisticConcurrency;
+import com.neexcorp.motorcycles.service.RequestBatchLoader;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerControllerTest {
+
+    private static final long CURRENT_VERSION = 4L;
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private RequestBatchLoader batchLoader;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private OptimisticConcurrency concurrency;
+
+    @InjectMocks
+    private CustomerController customerController;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(concurrency, "entityManager", entityManager);
+        ReflectionTestUtils.setField(concurrency, "batchLoader", batchLoader);
+        ReflectionTestUtils.setField(concurrency, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(concurrency, "requireVersion", true);
+        // El servicio compara con la versión guardada, como CustomerService.update
+        lenient().when(customerService.update(eq(1L), any(), any())).thenAnswer(invocation -> {
+            OptimisticConcurrency.check(Customer.class, 1L, CURRENT_VERSION, invocation.getArgument(2));
+            Customer updated = invocation.getArgument(1);
+            updated.setVersion(CURRENT_VERSION + 1);
+            return updated;
+        });
+        lenient().when(customerService.findById(1L)).thenReturn(customer("Vigente", CURRENT_VERSION));
+    }
+
+    @Test
+    void staleIfMatchReturnsTheCurrentCustomer() {
+        ResponseEntity<?> response = customerController.update(1L, customer("Editado", null), "\"3\"");
+
+        assertPreconditionFailed(response);
+    }
+
+    @Test
+    void staleBodyVersionReturnsTheCurrentCustomer() {
+        ResponseEntity<?> response = customerController.update(1L, customer("Editado", 3L), null);
+
+        assertPreconditionFailed(response);
+    }
+
+    @Test
+    void ifMatchWinsOverTheBodyVersion() {
+        ResponseEntity<?> response = customerController.update(1L, customer("Editado", CURRENT_VERSION), "\"3\"");
+
+        assertPreconditionFailed(response);
+    }
+
+    @Test
+    void currentVersionIsApplied() {
+        ResponseEntity<?> response = customerController.update(1L, customer("Editado", null), "\"4\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"5\"");
+    }
+
+    @Test
+    void putWithoutAnyVersionIsRejected() {
+        ResponseEntity<?> response = customerController.update(1L, customer("Editado", null), null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_REQUIRED);
+        verify(customerService, never()).update(any(), any(), any());
+    }
+
+    @Test
+    void ifMatchAnyOverwritesWithoutChecking() {
+        ResponseEntity<?> response = customerController.update(1L, customer("Editado", null), "*");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(customerService).update(eq(1L), any(), eq(null));
+    }
+
+    private void assertPreconditionFailed(ResponseEntity<?> response) {
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+        assertThat(response.getBody()).isInstanceOfSatisfying(Customer.class, current -> {
+            assertThat(current.getFirstName()).isEqualTo("Vigente");
+            assertThat(current.getVersion()).isEqualTo(CURRENT_VERSION);
+        });
+        // La entidad rechazada se descarta antes de releer la vigente
+        verify(batchLoader).clear();
+        verify(entityManager).clear();
+    }
+
+    private static Customer customer(String firstName, Long version) {
+        Customer customer = new Customer();
+        customer.setId(1L);
+        customer.setFirstName(firstName);
+        customer.setVersion(version);
+        return customer;
+    }
+}
@@ -0,0 +1,116 @@
+package com.neexcorp.motorcycles.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void sortsByIdAndPreSerializes() throws IOException {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(motorcycle(2L, 0L, "B"), motorcycle(1L, 0L, "A")),
+                objectMapper);
+
+        assertThat(snapshot.getMotorcycles()).extracting(Motorcycle::getId).containsExactly(1L, 2L);
+        assertThat(snapshot.getJson()).isEqualTo(objectMapper.writeValueAsBytes(snapshot.getMotorcycles()));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(snapshot.getGzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(snapshot.getJson());
+        }
+        assertThat(snapshot.getEtag()).startsWith("\"").endsWith("\"");
+        assertThatThrownBy(() -> snapshot.getMotorcycles().add(motorcycle(3L, 0L, "C")))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void etagFollowsContent() {
+        CatalogSnapshot first = CatalogSnapshot.of(List.of(motorcycle(1L, 0L, "A")), objectMapper);
+        CatalogSnapshot same = CatalogSnapshot.of(List.of(motorcycle(1L, 0L, "A")), objectMapper);
+        CatalogSnapshot changed = first.with(motorcycle(1L, 1L, "A2"), objectMapper);
+
+        assertThat(same.getEtag()).isEqualTo(first.getEtag());
+        assertThat(changed.getEtag()).isNotEqualTo(first.getEtag());
+    }
+
+    @Test
+    void keepsDetachedCopies() {
+        Motorcycle managed = motorcycle(1L, 0L, "A");
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(managed), objectMapper);
+        Motorcycle updated = motorcycle(1L, 1L, "A2");
+        snapshot = snapshot.with(updated, objectMapper);
+
+        managed.setName("mutated");
+        updated.setName("mutated");
+
+        assertThat(snapshot.getMotorcycles()).singleElement()
+                .satisfies(held -> {
+                    assertThat(held).isNotSameAs(updated);
+                    assertThat(held.getName()).isEqualTo("A2");
+                });
+    }
+
+    @Test
+    void withAddsNewAndReplacesNewerVersions() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(motorcycle(1L, 3L, "A")), objectMapper)
+                .with(motorcycle(2L, 0L, "B"), objectMapper)
+                .with(motorcycle(1L, 4L, "A4"), objectMapper);
+
+        assertThat(snapshot.getMotorcycles()).extracting(Motorcycle::getName).containsExactly("A4", "B");
+    }
+
+    @Test
+    void withIgnoresVersionsThatAreNotNewer() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(motorcycle(1L, 3L, "A")), objectMapper);
+
+        assertThat(snapshot.with(motorcycle(1L, 2L, "old"), objectMapper)).isSameAs(snapshot);
+        assertThat(snapshot.with(motorcycle(1L, 3L, "same"), objectMapper)).isSameAs(snapshot);
+    }
+
+    @Test
+    void withoutRemovesById() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(motorcycle(1L, 0L, "A"), motorcycle(2L, 0L, "B")),
+                objectMapper).without(1L, objectMapper);
+
+        assertThat(snapshot.getMotorcycles()).extracting(Motorcycle::getId).containsExactly(2L);
+    }
+
+    @Test
+    void replaceTakesFreshRowsDropsMissingAndKeepsNewerHeldVersions() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+                motorcycle(1L, 5L, "A5"), motorcycle(2L, 1L, "B1"), motorcycle(3L, 0L, "C"), motorcycle(4L, 0L, "D")),
+                objectMapper);
+
+        CatalogSnapshot next = snapshot.replace(List.of(1L, 2L, 3L),
+                List.of(motorcycle(1L, 4L, "A4"), motorcycle(2L, 1L, "B1 reread")), objectMapper);
+
+        assertThat(next.getMotorcycles()).extracting(Motorcycle::getName).containsExactly("A5", "B1 reread", "D");
+    }
+
+    private static Motorcycle motorcycle(Long id, Long version, String name) {
+        Motorcycle motorcycle = new Motorcycle();
+        motorcycle.setId(id);
+        motorcycle.setVersion(version);
+        motorcycle.setCode("M-" + id);
+        motorcycle.setName(name);
+        motorcycle.setBrand("Brand");
+        motorcycle.setPrice(1000.0);
+        motorcycle.setCreatedAt(CREATED);
+        motorcycle.setUpdatedAt(CREATED);
+        return motorcycle;
+    }
+}
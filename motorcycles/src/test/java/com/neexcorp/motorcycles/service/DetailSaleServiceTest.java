@@ -0,0 +1,168 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.repository.DetailSaleRepository;
+import com.neexcorp.motorcycles.repository.MotorcycleRepository;
+import com.neexcorp.motorcycles.repository.SaleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static com.neexcorp.motorcycles.service.PricingServiceTest.line;
+import static com.neexcorp.motorcycles.service.PricingServiceTest.sale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DetailSaleServiceTest {
+
+    @Mock
+    private DetailSaleRepository detailSaleRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private SaleRepository saleRepository;
+
+    @Mock
+    private MotorcycleRepository motorcycleRepository;
+
+    @Mock
+    private RequestBatchLoader batchLoader;
+
+    @Spy
+    private PricingService pricingService;
+
+    @InjectMocks
+    private DetailSaleService detailSaleService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(pricingService, "motorcycleRepository", motorcycleRepository);
+    }
+
+    @Test
+    void createPricesTheLineFromTheCatalogAndUpdatesTheSaleTotal() {
+        Sale sale = savedSale(10L, line(1L, 1, "50.00", null));
+        when(saleRepository.findById(10L)).thenReturn(Optional.of(sale));
+        Motorcycle motorcycle = motorcycle(2L, 120.5);
+        when(batchLoader.load(Motorcycle.class, 2L)).thenReturn(Optional.of(motorcycle));
+        when(motorcycleRepository.findAllById(any())).thenReturn(List.of(motorcycle));
+        when(detailSaleRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DetailSale request = line(2L, 2, null, "1.00");
+        request.setSaleId(10L);
+        request.setSubtotal(new BigDecimal("1.00"));
+
+        DetailSale created = detailSaleService.create(request);
+
+        assertThat(created.getSale()).isSameAs(sale);
+        assertThat(created.getMotorcycle()).isSameAs(motorcycle);
+        assertThat(created.getUnitPrice()).isEqualByComparingTo("120.50");
+        assertThat(created.getSubtotal()).isEqualByComparingTo("240.00");
+        assertThat(sale.getDetails()).contains(created);
+        assertThat(sale.getTotal()).isEqualByComparingTo("290.00");
+    }
+
+    @Test
+    void createRequiresTheOwningSale() {
+        DetailSale request = line(2L, 1, "10.00", null);
+
+        assertThatThrownBy(() -> detailSaleService.create(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("saleId");
+        verify(detailSaleRepository, never()).save(any());
+    }
+
+    @Test
+    void updateIgnoresTheClientSubtotalAndRepricesTheSale() {
+        DetailSale existing = line(1L, 1, "50.00", null);
+        existing.setId(5L);
+        existing.setVersion(0L);
+        Sale sale = savedSale(10L, existing, line(3L, 1, "20.00", null));
+        when(detailSaleRepository.findById(5L)).thenReturn(Optional.of(existing));
+        when(batchLoader.load(Motorcycle.class, 1L)).thenReturn(Optional.of(motorcycle(1L, 50.0)));
+        when(detailSaleRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DetailSale request = line(1L, 3, "50.00", "10.00");
+        request.setSubtotal(new BigDecimal("1.00"));
+
+        DetailSale updated = detailSaleService.update(5L, request, 0L);
+
+        assertThat(updated).isSameAs(existing);
+        assertThat(updated.getSubtotal()).isEqualByComparingTo("140.00");
+        assertThat(sale.getTotal()).isEqualByComparingTo("160.00");
+    }
+
+    @Test
+    void movingALineRepricesBothSales() {
+        DetailSale existing = line(1L, 2, "50.00", null);
+        existing.setId(5L);
+        existing.setVersion(0L);
+        Sale previous = savedSale(10L, existing, line(3L, 1, "20.00", null));
+        Sale target = savedSale(11L, line(4L, 1, "30.00", null));
+        when(detailSaleRepository.findById(5L)).thenReturn(Optional.of(existing));
+        when(saleRepository.findById(11L)).thenReturn(Optional.of(target));
+        when(batchLoader.load(Motorcycle.class, 1L)).thenReturn(Optional.of(motorcycle(1L, 50.0)));
+        when(detailSaleRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DetailSale request = line(1L, 2, "50.00", null);
+        request.setSaleId(11L);
+
+        detailSaleService.update(5L, request, null);
+
+        assertThat(existing.getSale()).isSameAs(target);
+        assertThat(previous.getDetails()).doesNotContain(existing);
+        assertThat(previous.getTotal()).isEqualByComparingTo("20.00");
+        assertThat(target.getDetails()).contains(existing);
+        assertThat(target.getTotal()).isEqualByComparingTo("130.00");
+    }
+
+    @Test
+    void deleteTakesTheLineOutOfTheSaleTotal() {
+        DetailSale existing = line(1L, 2, "50.00", null);
+        existing.setId(5L);
+        Sale sale = savedSale(10L, existing, line(3L, 1, "20.00", null));
+        when(detailSaleRepository.findById(5L)).thenReturn(Optional.of(existing));
+
+        detailSaleService.delete(5L);
+
+        verify(detailSaleRepository).delete(existing);
+        assertThat(sale.getDetails()).doesNotContain(existing);
+        assertThat(sale.getTotal()).isEqualByComparingTo("20.00");
+    }
+
+    // Venta guardada: líneas con subtotal y total ya calculados
+    private Sale savedSale(Long id, DetailSale... details) {
+        Sale sale = sale(details);
+        sale.setId(id);
+        for (DetailSale detail : details) {
+            detail.setSale(sale);
+        }
+        pricingService.price(sale);
+        return sale;
+    }
+
+    private static Motorcycle motorcycle(Long id, double price) {
+        Motorcycle motorcycle = new Motorcycle();
+        motorcycle.setId(id);
+        motorcycle.setPrice(price);
+        return motorcycle;
+    }
+}
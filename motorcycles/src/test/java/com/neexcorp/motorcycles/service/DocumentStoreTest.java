@@ -0,0 +1,47 @@
+package com.neexcorp.motorcycles.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void sameJobIdOnTwoRoutesKeepsTwoDocuments() throws Exception {
+        DocumentStore store = new DocumentStore(directory.toString());
+        String norte = DocumentStore.key("norte", 7L, "pdf");
+        String shared = DocumentStore.key("default", 7L, "pdf");
+
+        store.write(norte, out -> out.write("norte".getBytes(StandardCharsets.UTF_8)));
+        store.write(shared, out -> out.write("default".getBytes(StandardCharsets.UTF_8)));
+        store.delete(shared);
+
+        assertThat(Files.readString(store.resolve(norte))).isEqualTo("norte");
+        assertThat(store.resolve(shared)).doesNotExist();
+    }
+
+    @Test
+    void keysOnlyBelongToTheirTenant() {
+        assertThat(DocumentStore.belongsTo("norte/7.pdf", "norte")).isTrue();
+        assertThat(DocumentStore.belongsTo("norte/7.pdf", "nor")).isFalse();
+        assertThat(DocumentStore.belongsTo("7.pdf", "norte")).isFalse();
+        assertThat(DocumentStore.belongsTo(null, "norte")).isFalse();
+    }
+
+    @Test
+    void rejectsKeysOutsideTheDirectory() {
+        DocumentStore store = new DocumentStore(directory.toString());
+
+        assertThatThrownBy(() -> store.resolve("norte/../../etc/passwd"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,125 @@
+package com.neexcorp.motorcycles.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.model.DocumentJob;
+import com.neexcorp.motorcycles.model.Employee;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.service.FieldProjectionService.Node;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Parser de ?fields= contra el metamodelo real de las entidades; Hibernate
+ * arranca sin conectarse a la base de datos.
+ */
+class FieldProjectionParserTest {
+
+    private static StandardServiceRegistry registry;
+    private static SessionFactory sessionFactory;
+
+    private final FieldProjectionService service = new FieldProjectionService();
+
+    @BeforeAll
+    static void buildMetamodel() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect")
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .applySetting("hibernate.hbm2ddl.auto", "none")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClasses(Customer.class, Employee.class, Motorcycle.class, Sale.class,
+                        DetailSale.class, DocumentJob.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    private Node parse(Class<?> type, String fields) {
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        Metamodel metamodel = sessionFactory.getMetamodel();
+        EntityType<?> entityType = metamodel.entity(type);
+        return service.parse(entityType, fields);
+    }
+
+    @Test
+    void alwaysIncludesIdAndKeepsRequestedOrder() {
+        Node root = parse(Customer.class, " email , firstName,,email");
+
+        assertThat(root.getChildren()).containsOnlyKeys("id", "email", "firstName");
+        assertThat(root.getChildren().keySet()).containsExactly("id", "email", "firstName");
+    }
+
+    @Test
+    void resolvesToOneAssociationsWithTheirId() {
+        Node root = parse(Sale.class, "customer.email,employee.firstName,total");
+
+        Node customer = root.getChildren().get("customer");
+        assertThat(customer.isAssociation()).isTrue();
+        assertThat(customer.getChildren().keySet()).containsExactly("id", "email");
+        assertThat(root.getChildren().get("total").isAssociation()).isFalse();
+    }
+
+    @Test
+    void resolvesTopLevelCollections() {
+        Node root = parse(Sale.class, "details.motorcycle.code,details.quantity");
+
+        Node details = root.getChildren().get("details");
+        assertThat(details.isCollection()).isTrue();
+        assertThat(details.getChildren().keySet()).containsExactly("id", "motorcycle", "quantity");
+        assertThat(details.getChildren().get("motorcycle").getChildren().keySet()).containsExactly("id", "code");
+    }
+
+    @Test
+    void rejectsUnknownFields() {
+        assertThatThrownBy(() -> parse(Customer.class, "password"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("password");
+    }
+
+    @Test
+    void rejectsSubfieldsOfBasicAttributes() {
+        assertThatThrownBy(() -> parse(Customer.class, "email.domain"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsNestedCollections() {
+        assertThatThrownBy(() -> parse(DetailSale.class, "motorcycle.id,sale.details.quantity"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsAttributesJacksonDoesNotSerialize() {
+        assertThatThrownBy(() -> parse(Customer.class, "tenantId"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("tenantId");
+        assertThatThrownBy(() -> parse(Sale.class, "customer.tenantId"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse(Sale.class, "customerId"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse(DocumentJob.class, "storageKey"))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Referencia inversa (@JsonBackReference)
+        assertThatThrownBy(() -> parse(DetailSale.class, "sale.total"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.model.InventoryMovement;
+import com.neexcorp.motorcycles.model.InventoryMovement.MovementType;
+import com.neexcorp.motorcycles.repository.InventoryMovementRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private InventoryMovementRepository movementRepository;
+
+    @InjectMocks
+    private InventoryService inventoryService;
+
+    @Test
+    void stockAsOfCutsTheSnapshotAndTheLaterMovementsAtTheSameInstant() {
+        LocalDateTime asOf = LocalDateTime.of(2025, 1, 31, 23, 59, 59);
+        Timestamp at = Timestamp.valueOf(asOf);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(7L), eq(at), eq(7L), eq(at)))
+                .thenReturn(12);
+
+        assertThat(inventoryService.stockAsOf(7L, asOf)).isEqualTo(12);
+        // La foto parte de stock_snapshots y solo se le suman movimientos posteriores a su last_movement_id
+        verify(jdbcTemplate).queryForObject(contains("m.id > COALESCE(s.last_movement_id, 0) AND m.created_at <= ?"),
+                eq(Integer.class), eq(7L), eq(at), eq(7L), eq(at));
+    }
+
+    @Test
+    void stockAsOfIsZeroBeforeAnyMovement() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(), any(), any(), any())).thenReturn(null);
+
+        assertThat(inventoryService.stockAsOf(7L, LocalDateTime.of(2000, 1, 1, 0, 0))).isZero();
+    }
+
+    @Test
+    void manualMovementsCannotBeSales() {
+        InventoryMovement movement = InventoryService.movement(7L, MovementType.SALE, -1, null, null);
+
+        assertThatThrownBy(() -> inventoryService.record(movement))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,143 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.repository.MotorcycleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PricingServiceTest {
+
+    @Mock
+    private MotorcycleRepository motorcycleRepository;
+
+    @InjectMocks
+    private PricingService pricingService;
+
+    @Test
+    void computesSubtotalsAndTotalInCents() {
+        Sale sale = sale(
+                line(1L, 2, "1999.99", "100.00"),
+                line(2L, 1, "0.10", null),
+                line(3L, 3, "0.20", "0.005"));
+
+        pricingService.price(sale);
+
+        assertThat(sale.getDetails().get(0).getSubtotal()).isEqualByComparingTo("3899.98");
+        assertThat(sale.getDetails().get(1).getSubtotal()).isEqualByComparingTo("0.10");
+        assertThat(sale.getDetails().get(1).getDiscount()).isEqualByComparingTo("0");
+        // El descuento se redondea a 0.01 antes de restarse
+        assertThat(sale.getDetails().get(2).getDiscount()).isEqualByComparingTo("0.01");
+        assertThat(sale.getDetails().get(2).getSubtotal()).isEqualByComparingTo("0.59");
+        assertThat(sale.getTotal()).isEqualByComparingTo("3900.67");
+        assertThat(sale.getTotal().scale()).isEqualTo(2);
+        verify(motorcycleRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void roundsInputPricesHalfUp() {
+        Sale sale = sale(line(1L, 3, "10.005", null));
+
+        pricingService.price(sale);
+
+        assertThat(sale.getDetails().get(0).getSubtotal()).isEqualByComparingTo("30.03");
+        assertThat(sale.getTotal()).isEqualByComparingTo("30.03");
+    }
+
+    @Test
+    void takesMissingUnitPricesFromTheCatalogInOneQuery() {
+        Motorcycle motorcycle = new Motorcycle();
+        motorcycle.setId(7L);
+        motorcycle.setPrice(15000.5);
+        when(motorcycleRepository.findAllById(Set.of(7L))).thenReturn(List.of(motorcycle));
+        Sale sale = sale(line(7L, 2, null, "0.50"), line(7L, 1, null, null));
+
+        pricingService.price(sale);
+
+        assertThat(sale.getDetails().get(0).getUnitPrice()).isEqualByComparingTo("15000.50");
+        assertThat(sale.getDetails().get(0).getSubtotal()).isEqualByComparingTo("30000.50");
+        assertThat(sale.getTotal()).isEqualByComparingTo("45001.00");
+        verify(motorcycleRepository).findAllById(Set.of(7L));
+    }
+
+    @Test
+    void acceptsMatchingClientTotalAndRejectsOthers() {
+        Sale matching = sale(line(1L, 2, "10.00", null));
+        matching.setTotal(new BigDecimal("20.000"));
+        pricingService.price(matching);
+        assertThat(matching.getTotal()).isEqualByComparingTo("20.00");
+
+        Sale mismatching = sale(line(1L, 2, "10.00", null));
+        mismatching.setTotal(new BigDecimal("19.99"));
+        assertThatThrownBy(() -> pricingService.price(mismatching))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("20.00");
+    }
+
+    @Test
+    void rejectsInvalidLines() {
+        assertThatThrownBy(() -> pricingService.price(sale(line(1L, 0, "10.00", null))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pricingService.price(sale(line(1L, 1, "-1.00", null))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pricingService.price(sale(line(1L, 2, "10.00", "20.01"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pricingService.price(sale(line(1L, 1, "10.00", "-0.01"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pricingService.price(sale(line(null, 1, "10.00", null))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unknownMotorcycleIsRejected() {
+        Sale sale = sale(line(9L, 1, null, null));
+
+        assertThatThrownBy(() -> pricingService.price(sale, Map.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("9");
+    }
+
+    @Test
+    void saleWithoutDetailsTotalsZero() {
+        Sale sale = new Sale();
+
+        pricingService.price(sale);
+
+        assertThat(sale.getTotal()).isEqualByComparingTo("0");
+    }
+
+    static Sale sale(DetailSale... details) {
+        Sale sale = new Sale();
+        sale.setDetails(new ArrayList<>(List.of(details)));
+        return sale;
+    }
+
+    static DetailSale line(Long motorcycleId, int quantity, String unitPrice, String discount) {
+        DetailSale detail = new DetailSale();
+        Motorcycle motorcycle = new Motorcycle();
+        motorcycle.setId(motorcycleId);
+        detail.setMotorcycle(motorcycle);
+        detail.setQuantity(quantity);
+        detail.setUnitPrice(unitPrice == null ? null : new BigDecimal(unitPrice));
+        detail.setDiscount(discount == null ? null : new BigDecimal(discount));
+        return detail;
+    }
+}
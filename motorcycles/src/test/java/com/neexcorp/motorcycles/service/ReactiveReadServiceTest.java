@@ -0,0 +1,101 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.dto.SaleView;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveReadServiceTest {
+
+    @Test
+    void convertsJdbcUrlsToR2dbc() {
+        assertThat(ReactiveReadService.r2dbcUrl("jdbc:postgresql://localhost:5432/motorcycles"))
+                .isEqualTo("r2dbc:postgresql://localhost:5432/motorcycles");
+    }
+
+    @Test
+    void dropsJdbcQueryParameters() {
+        assertThat(ReactiveReadService.r2dbcUrl("jdbc:postgresql://db:5432/ventas?sslmode=require&currentSchema=norte"))
+                .isEqualTo("r2dbc:postgresql://db:5432/ventas");
+    }
+
+    @Test
+    void acceptsUrlsWithoutJdbcPrefix() {
+        assertThat(ReactiveReadService.r2dbcUrl("postgresql://db/ventas"))
+                .isEqualTo("r2dbc:postgresql://db/ventas");
+    }
+
+    @Test
+    void mergesTheLinesOfConsecutiveRowsIntoTheFirst() {
+        SaleView first = row(1L, 10L);
+        SaleView second = row(1L, 11L);
+        SaleView third = row(1L, 12L);
+
+        SaleView sale = ReactiveReadService.merge(List.of(first, second, third));
+
+        assertThat(sale).isSameAs(first);
+        assertThat(sale.getDetails()).extracting(SaleView.Line::getId).containsExactly(10L, 11L, 12L);
+    }
+
+    @Test
+    void keepsSalesWithoutLinesEmpty() {
+        SaleView sale = ReactiveReadService.merge(List.of(row(2L, null)));
+
+        assertThat(sale.getId()).isEqualTo(2L);
+        assertThat(sale.getDetails()).isEmpty();
+    }
+
+    @Test
+    void fetchesAPageOnlyWhenTheClientHasConsumedTheOneBeforeIt() {
+        List<Long> queries = new ArrayList<>();
+        // Páginas de dos: 1-2, 3-4, 5-6 y la última vacía
+        List<Long> received = new ArrayList<>();
+        BaseSubscriber<Long> client = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(Long value) {
+                received.add(value);
+            }
+        };
+
+        ReactiveReadService.paged(0L, after -> Mono.fromSupplier(() -> {
+            queries.add(after);
+            return after < 6
+                    ? new ReactiveReadService.Page<>(List.of(after + 1, after + 2), after + 2)
+                    : new ReactiveReadService.Page<>(List.<Long>of(), null);
+        })).subscribe(client);
+
+        assertThat(received).containsExactly(1L);
+        assertThat(queries).doesNotContain(4L);
+
+        client.request(2);
+        assertThat(received).containsExactly(1L, 2L, 3L);
+        assertThat(queries).doesNotContain(6L);
+
+        client.request(Long.MAX_VALUE);
+        assertThat(received).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(queries).containsExactly(0L, 2L, 4L, 6L);
+        assertThat(client.isDisposed()).isTrue();
+    }
+
+    private static SaleView row(Long saleId, Long lineId) {
+        SaleView sale = new SaleView();
+        sale.setId(saleId);
+        if (lineId != null) {
+            SaleView.Line line = new SaleView.Line();
+            line.setId(lineId);
+            sale.getDetails().add(line);
+        }
+        return sale;
+    }
+}
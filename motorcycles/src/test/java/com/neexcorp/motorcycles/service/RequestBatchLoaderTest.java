@@ -0,0 +1,97 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.model.Motorcycle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RequestBatchLoaderTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private RequestBatchLoader batchLoader;
+
+    @SuppressWarnings("unchecked")
+    private final TypedQuery<Motorcycle> query = mock(TypedQuery.class);
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(entityManager.getMetamodel().entity(Motorcycle.class).getName()).thenReturn("Motorcycle");
+        when(entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(any()))
+                .thenAnswer(invocation -> ((Motorcycle) invocation.getArgument(0)).getId());
+        when(entityManager.createQuery(anyString(), eq(Motorcycle.class))).thenReturn(query);
+        when(query.setParameter(eq("ids"), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(motorcycle(1L), motorcycle(2L)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void deferredIdsOfATypeAreLoadedWithOneQuery() {
+        Supplier<Optional<Motorcycle>> first = batchLoader.defer(Motorcycle.class, 1L);
+        Supplier<Optional<Motorcycle>> second = batchLoader.defer(Motorcycle.class, 2L);
+        Supplier<Optional<Motorcycle>> missing = batchLoader.defer(Motorcycle.class, 3L);
+
+        assertThat(first.get()).get().extracting(Motorcycle::getId).isEqualTo(1L);
+        assertThat(second.get()).get().extracting(Motorcycle::getId).isEqualTo(2L);
+        assertThat(missing.get()).isEmpty();
+
+        ArgumentCaptor<Collection<Long>> ids = idsCaptor();
+        verify(query, times(1)).setParameter(eq("ids"), ids.capture());
+        assertThat(ids.getValue()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void loadTakesThePendingIdsAlongAndRemembersTheResult() {
+        batchLoader.defer(Motorcycle.class, 2L);
+
+        assertThat(batchLoader.load(Motorcycle.class, 1L)).isPresent();
+        assertThat(batchLoader.load(Motorcycle.class, 2L)).isPresent();
+        assertThat(batchLoader.loadAll(Motorcycle.class, List.of(1L, 2L))).containsOnlyKeys(1L, 2L);
+
+        verify(query, times(1)).getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<Long>> idsCaptor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+
+    private static Motorcycle motorcycle(Long id) {
+        Motorcycle motorcycle = new Motorcycle();
+        motorcycle.setId(id);
+        return motorcycle;
+    }
+}
@@ -0,0 +1,181 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.model.DetailSale;
+import com.neexcorp.motorcycles.model.Motorcycle;
+import com.neexcorp.motorcycles.model.Sale;
+import com.neexcorp.motorcycles.repository.SaleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.neexcorp.motorcycles.service.PricingServiceTest.line;
+import static com.neexcorp.motorcycles.service.PricingServiceTest.sale;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SaleServiceTest {
+
+    @Mock
+    private SaleRepository saleRepository;
+
+    @Spy
+    private PricingService pricingService;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private RequestBatchLoader batchLoader;
+
+    @InjectMocks
+    private SaleService saleService;
+
+    // Toda motocicleta referenciada existe salvo que la prueba diga lo contrario
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> (Supplier<Optional<Motorcycle>>) () -> Optional.of(motorcycle(invocation.getArgument(1))))
+                .when(batchLoader).defer(eq(Motorcycle.class), any());
+        lenient().doReturn((Supplier<Optional<Object>>) Optional::empty)
+                .when(batchLoader).defer(any(), isNull());
+    }
+
+    @Test
+    void updateWithNewDetailsPricesThemBeforeFlushing() {
+        Sale existing = sale(line(1L, 1, "50.00", null));
+        existing.setId(10L);
+        existing.setVersion(3L);
+        existing.setTotal(new BigDecimal("50.00"));
+        existing.getDetails().forEach(detail -> detail.setSale(existing));
+        when(saleRepository.findById(10L)).thenReturn(Optional.of(existing));
+        // Al hacer flush ningún detalle puede tener subtotal nulo ni la venta total nulo
+        when(saleRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Sale flushed = invocation.getArgument(0);
+            assertThat(flushed.getTotal()).isNotNull();
+            flushed.getDetails().forEach(detail -> assertThat(detail.getSubtotal()).isNotNull());
+            return flushed;
+        });
+        when(saleRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Sale request = sale(line(2L, 2, "100.00", "10.00"), line(3L, 1, "5.50", null));
+        request.setSaleNumber("V-1");
+        request.setStatus("COMPLETED");
+
+        Sale updated = saleService.update(10L, request, 3L);
+
+        assertThat(updated.getTotal()).isEqualByComparingTo("195.50");
+        assertThat(updated.getDetails()).hasSize(2)
+                .allSatisfy(detail -> {
+                    assertThat(detail.getSale()).isSameAs(existing);
+                    assertThat(detail.getSubtotal()).isNotNull();
+                });
+    }
+
+    @Test
+    void updateWithoutDetailsRepricesCurrentLines() {
+        DetailSale current = line(1L, 2, "50.00", "1.00");
+        Sale existing = sale(current);
+        existing.setId(10L);
+        existing.setVersion(3L);
+        when(saleRepository.findById(10L)).thenReturn(Optional.of(existing));
+        when(saleRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Sale request = new Sale();
+        request.setStatus("CANCELLED");
+
+        Sale updated = saleService.update(10L, request, null);
+
+        assertThat(updated.getStatus()).isEqualTo("CANCELLED");
+        assertThat(updated.getTotal()).isEqualByComparingTo("99.00");
+        assertThat(updated.getDetails()).containsExactly(current);
+    }
+
+    @Test
+    void updateWithNewDetailsReversesTheOldLinesAndRecordsTheNewOnes() {
+        Sale existing = sale(line(1L, 1, "50.00", null));
+        existing.setId(10L);
+        existing.setVersion(3L);
+        existing.setTotal(new BigDecimal("50.00"));
+        existing.getDetails().forEach(detail -> detail.setSale(existing));
+        when(saleRepository.findById(10L)).thenReturn(Optional.of(existing));
+        when(saleRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(saleRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Sale request = sale(line(2L, 3, "10.00", null));
+        request.setTotal(new BigDecimal("30.00"));
+
+        Sale updated = saleService.update(10L, request, 3L);
+
+        InOrder inOrder = inOrder(pricingService, inventoryService, saleRepository);
+        inOrder.verify(pricingService).price(request);
+        inOrder.verify(inventoryService).reverseSale(eq(10L), any(), eq("Venta modificada"));
+        inOrder.verify(saleRepository).saveAndFlush(existing);
+        inOrder.verify(saleRepository).save(existing);
+        inOrder.verify(inventoryService).recordSale(updated);
+        assertThat(updated.getTotal()).isEqualByComparingTo("30.00");
+        assertThat(updated.getDetails()).singleElement()
+                .satisfies(detail -> assertThat(detail.getMotorcycle().getId()).isEqualTo(2L));
+    }
+
+    @Test
+    void updateRejectsATotalThatDoesNotMatchTheNewDetails() {
+        Sale existing = sale(line(1L, 1, "50.00", null));
+        existing.setId(10L);
+        existing.setVersion(3L);
+        when(saleRepository.findById(10L)).thenReturn(Optional.of(existing));
+
+        Sale request = sale(line(2L, 3, "10.00", null));
+        request.setTotal(new BigDecimal("1.00"));
+
+        assertThatThrownBy(() -> saleService.update(10L, request, 3L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("no coincide");
+        // Nada se toca antes de validar el total: ni el inventario ni las líneas guardadas
+        verify(inventoryService, never()).reverseSale(any(), any(), any());
+        verify(saleRepository, never()).saveAndFlush(any());
+        assertThat(existing.getDetails()).hasSize(1);
+    }
+
+    @Test
+    void updateRejectsAMotorcycleOutsideTheDealership() {
+        Sale existing = sale(line(1L, 1, "50.00", null));
+        existing.setId(10L);
+        existing.setVersion(3L);
+        when(saleRepository.findById(10L)).thenReturn(Optional.of(existing));
+        doReturn((Supplier<Optional<Motorcycle>>) Optional::empty).when(batchLoader).defer(Motorcycle.class, 9L);
+
+        Sale request = sale(line(2L, 1, "10.00", null), line(9L, 1, "10.00", null));
+
+        assertThatThrownBy(() -> saleService.update(10L, request, 3L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Motorcycle not found with ID: 9");
+        verify(inventoryService, never()).reverseSale(any(), any(), any());
+        // Las dos motocicletas se registran antes de resolver ninguna
+        verify(batchLoader).defer(Motorcycle.class, 2L);
+        verify(batchLoader).defer(Motorcycle.class, 9L);
+    }
+
+    private static Motorcycle motorcycle(Long id) {
+        Motorcycle motorcycle = new Motorcycle();
+        motorcycle.setId(id);
+        return motorcycle;
+    }
+}
@@ -0,0 +1,90 @@
+package com.neexcorp.motorcycles.service;
+
+import com.neexcorp.motorcycles.cache.CacheInvalidationPublisher;
+import com.neexcorp.motorcycles.tenant.TenancyProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockSnapshotServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MotorcycleService motorcycleService;
+
+    @Mock
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TenancyProperties tenancyProperties;
+
+    @Mock
+    private ResultSet horizon;
+
+    @InjectMocks
+    private StockSnapshotService stockSnapshotService;
+
+    @Test
+    void compactsUpToAHorizonOnlyAfterTheNextPassHasClosed() throws Exception {
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class))).thenReturn(true);
+        // Cada pasada lee el tope siguiente: ids 10, 20, 30 con xmax 100, 200, 300
+        when(jdbcTemplate.queryForObject(contains("MAX(id)"), any(RowMapper.class)))
+                .thenAnswer(invocation -> ((RowMapper<?>) invocation.getArgument(1)).mapRow(horizon, 0));
+        when(horizon.getLong(1)).thenReturn(10L, 20L, 30L);
+        when(horizon.getString(2)).thenReturn("100", "200", "300");
+        when(jdbcTemplate.queryForObject(contains("MAX(last_movement_id)"), eq(Long.class))).thenReturn(0L);
+        when(jdbcTemplate.queryForObject(contains("pg_snapshot_xmin"), eq(Boolean.class), any()))
+                .thenReturn(true, false, true);
+
+        stockSnapshotService.compact(); // toma el tope 10
+        stockSnapshotService.compact(); // 100 cerrado; toma el 20, que es quien cierra el 10
+        verify(jdbcTemplate, never()).query(contains("INSERT INTO stock_snapshots"),
+                any(RowCallbackHandler.class), any(), anyLong(), anyLong());
+
+        stockSnapshotService.compact(); // sigue abierta una transacción anterior a 200: no compacta
+        verify(jdbcTemplate, never()).query(contains("INSERT INTO stock_snapshots"),
+                any(RowCallbackHandler.class), any(), anyLong(), anyLong());
+
+        stockSnapshotService.compact(); // 200 cerrado: compacta hasta 10, no hasta 20
+        verify(jdbcTemplate).query(contains("INSERT INTO stock_snapshots"),
+                any(RowCallbackHandler.class), any(), eq(0L), eq(10L));
+        verify(jdbcTemplate, times(2)).queryForObject(contains("pg_snapshot_xmin"), eq(Boolean.class), eq("200"));
+    }
+
+    @Test
+    void skipsThePassWhenAnotherInstanceIsCompacting() {
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class))).thenReturn(false);
+
+        stockSnapshotService.compact();
+
+        verify(jdbcTemplate, never()).queryForObject(contains("MAX(id)"), any(RowMapper.class));
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+}
@@ -0,0 +1,80 @@
+package com.neexcorp.motorcycles.tenant;
+
+import com.neexcorp.motorcycles.model.Customer;
+import com.neexcorp.motorcycles.service.CustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Aislamiento entre concesionarios sobre la base real: lo aplica Hibernate
+ * (@TenantId), así que no se puede comprobar con repositorios simulados.
+ */
+@SpringBootTest
+class TenantIsolationTest {
+
+    private static final String OWNER = "test-owner";
+    private static final String OTHER = "test-other";
+
+    @Autowired
+    private CustomerService customerService;
+
+    private Customer owned;
+
+    @BeforeEach
+    void setUp() {
+        owned = TenantContext.callAs(OWNER, () -> customerService.create(customer("Ana")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.runAs(OWNER, () -> customerService.delete(owned.getId()));
+    }
+
+    @Test
+    void anotherTenantCannotReadTheRow() {
+        assertThatThrownBy(() -> TenantContext.callAs(OTHER, () -> customerService.findById(owned.getId())))
+                .hasMessageContaining("Customer not found with ID: " + owned.getId());
+        assertThat(TenantContext.callAs(OTHER, () -> customerService.findAll(true)))
+                .extracting(Customer::getId)
+                .doesNotContain(owned.getId());
+    }
+
+    @Test
+    void anotherTenantCannotUpdateTheRow() {
+        assertThatThrownBy(() -> TenantContext.callAs(OTHER,
+                () -> customerService.update(owned.getId(), customer("Intruso"), null)))
+                .hasMessageContaining("Customer not found with ID: " + owned.getId());
+
+        Customer current = TenantContext.callAs(OWNER, () -> customerService.findById(owned.getId()));
+        assertThat(current.getFirstName()).isEqualTo("Ana");
+        assertThat(current.getVersion()).isEqualTo(owned.getVersion());
+    }
+
+    @Test
+    void anotherTenantCannotDeleteTheRow() {
+        assertThatThrownBy(() -> TenantContext.runAs(OTHER, () -> customerService.delete(owned.getId())))
+                .hasMessageContaining("Customer not found with ID: " + owned.getId());
+
+        assertThat(TenantContext.callAs(OWNER, () -> customerService.findById(owned.getId()))).isNotNull();
+    }
+
+    private static Customer customer(String firstName) {
+        String unique = UUID.randomUUID().toString().substring(0, 8);
+        Customer customer = new Customer();
+        customer.setFirstName(firstName);
+        customer.setLastName("Prueba");
+        customer.setEmail(unique + "@example.com");
+        customer.setPhone("600000000");
+        customer.setDocumentNumber("T-" + unique);
+        customer.setStatus(Customer.CustomerStatus.ACTIVE);
+        return customer;
+    }
+}
@@ -0,0 +1,61 @@
+package com.neexcorp.motorcycles.tenant;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantRoutingDataSourceTest {
+
+    private final DataSource shared = new DriverManagerDataSource("jdbc:postgresql://localhost:5432/shared");
+    private TenantRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        TenancyProperties properties = new TenancyProperties();
+        TenancyProperties.Route norte = new TenancyProperties.Route();
+        norte.setSchema("norte");
+        properties.getRoutes().put("norte", norte);
+        TenancyProperties.Route sur = new TenancyProperties.Route();
+        sur.setUrl("jdbc:postgresql://db-sur:5432/motocicletas");
+        properties.getRoutes().put("sur", sur);
+
+        DataSourceProperties primary = new DataSourceProperties();
+        primary.setUrl("jdbc:postgresql://localhost:5432/shared");
+        primary.setUsername("app");
+        primary.setPassword("secret");
+        routing = new TenantRoutingDataSource(shared, properties, primary);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        routing.close();
+    }
+
+    @Test
+    void routedTenantsGetTheirOwnPool() {
+        assertThat(TenantContext.callAs("norte", () -> routing.determineCurrentLookupKey())).isEqualTo("norte");
+        HikariDataSource norte = (HikariDataSource) routing.getResolvedDataSources().get("norte");
+        HikariDataSource sur = (HikariDataSource) routing.getResolvedDataSources().get("sur");
+
+        assertThat(norte.getPoolName()).isEqualTo("tenant-norte");
+        assertThat(norte.getSchema()).isEqualTo("norte");
+        assertThat(norte.getJdbcUrl()).isEqualTo("jdbc:postgresql://localhost:5432/shared");
+        assertThat(sur.getJdbcUrl()).isEqualTo("jdbc:postgresql://db-sur:5432/motocicletas");
+        assertThat(sur.getUsername()).isEqualTo("app");
+    }
+
+    @Test
+    void tenantsWithoutARouteShareThePool() {
+        // Sin ruta propia la clave no está entre los destinos y cae en el pool compartido
+        assertThat(routing.getResolvedDataSources()).containsOnlyKeys("norte", "sur");
+        assertThat(routing.getResolvedDefaultDataSource()).isSameAs(shared);
+        assertThat(TenantContext.callAs("centro", () -> routing.determineCurrentLookupKey())).isEqualTo("centro");
+    }
+}
@@ -0,0 +1,121 @@
+package com.neexcorp.motorcycles.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverGivesFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("cliente" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("cliente" + i + "@example.com")).isTrue();
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheTargetRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("M-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("X-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain("ventas@example.com")).isFalse();
+    }
+
+    @Test
+    void hashesUtf8Values() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+        filter.put("josé.núñez@example.com");
+        filter.put("");
+
+        assertThat(filter.mightContain("josé.núñez@example.com")).isTrue();
+        assertThat(filter.mightContain("")).isTrue();
+        assertThat(filter.mightContain("jose.nunez@example.com")).isFalse();
+    }
+
+    @Test
+    void isSaturatedOnlyPastTheExpectedInsertions() {
+        BloomFilter filter = BloomFilter.create(3, 0.01);
+        filter.put("a");
+        filter.put("b");
+        filter.put("c");
+
+        assertThat(filter.getInsertions()).isEqualTo(3);
+        assertThat(filter.isSaturated()).isFalse();
+
+        filter.put("d");
+        assertThat(filter.isSaturated()).isTrue();
+    }
+
+    @Test
+    void treatsNonPositiveCapacityAsOne() {
+        BloomFilter filter = BloomFilter.create(0, 0.01);
+        filter.put("a");
+
+        assertThat(filter.getCapacity()).isEqualTo(1);
+        assertThat(filter.mightContain("a")).isTrue();
+        assertThat(filter.isSaturated()).isFalse();
+    }
+
+    @Test
+    void keepsEveryValueAddedConcurrently() throws Exception {
+        int threads = 8;
+        int perThread = 5_000;
+        BloomFilter filter = BloomFilter.create(threads * perThread, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        filter.put(thread + "-" + i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(filter.getInsertions()).isEqualTo(threads * perThread);
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                assertThat(filter.mightContain(t + "-" + i)).isTrue();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.neexcorp.motorcycles.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void roundsHalfUpToCents() {
+        assertThat(Money.toMinor(new BigDecimal("10.005"))).isEqualTo(1001L);
+        assertThat(Money.toMinor(new BigDecimal("10.004"))).isEqualTo(1000L);
+        assertThat(Money.toMinor(new BigDecimal("-10.005"))).isEqualTo(-1001L);
+        assertThat(Money.toMinor(new BigDecimal("7"))).isEqualTo(700L);
+    }
+
+    @Test
+    void convertsDoublesThroughTheirShortestDecimal() {
+        assertThat(Money.toMinor(15000.5)).isEqualTo(1500050L);
+        assertThat(Money.toMinor(0.1 + 0.2)).isEqualTo(30L);
+        assertThat(Money.toMinor(1.005)).isEqualTo(101L);
+    }
+
+    @Test
+    void nullIsZero() {
+        assertThat(Money.toMinor((BigDecimal) null)).isZero();
+        assertThat(Money.toMinor((Double) null)).isZero();
+    }
+
+    @Test
+    void convertsBackWithTwoDecimals() {
+        assertThat(Money.toDecimal(1500050L)).isEqualByComparingTo("15000.50");
+        assertThat(Money.toDecimal(5L).scale()).isEqualTo(Money.SCALE);
+        assertThat(Money.toDecimal(5L).toPlainString()).isEqualTo("0.05");
+    }
+
+    @Test
+    void lineSubtotalIsExact() {
+        assertThat(Money.lineSubtotal(1999L, 3, 500L)).isEqualTo(5497L);
+        assertThat(Money.lineSubtotal(1999L, 3, 0L)).isEqualTo(5997L);
+    }
+
+    @Test
+    void overflowFailsInsteadOfWrapping() {
+        assertThatThrownBy(() -> Money.lineSubtotal(Long.MAX_VALUE / 2, 3, 0L))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.toMinor(new BigDecimal("1e30")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}